@@ -0,0 +1,122 @@
+package com.bookstore.bookstorebackend.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares two JMH JSON result files (baseline first) benchmark by benchmark, matching on name and
+ * parameters. A change counts only when it is larger than the sum of both error margins; regressions
+ * beyond {@code --threshold} percent (default 10) make the exit status non-zero, so the comparison can
+ * gate a build:
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Dbenchmark.main=com.bookstore.bookstorebackend.benchmark.BenchmarkDiff \
+ *     -Dbenchmark.args="target/jmh/baseline.json target/jmh/20240101-120000.json --threshold=5"
+ * </pre>
+ */
+public final class BenchmarkDiff {
+
+    private BenchmarkDiff() {
+    }
+
+    record Score(double score, double error, String unit, String mode) {
+
+        /**
+         * Percentage change from {@code baseline}, positive when this score is better: higher for
+         * throughput, lower for time-per-operation modes.
+         */
+        double improvementOver(Score baseline) {
+            double change = (score - baseline.score) / baseline.score * 100;
+            return "thrpt".equals(mode) ? change : 0.0 - change;
+        }
+
+        boolean significantlyDifferentFrom(Score baseline) {
+            return Math.abs(score - baseline.score) > error + baseline.error;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BenchmarkDiff <baseline.json> <current.json> [--threshold=<percent>]");
+            System.exit(2);
+        }
+        double threshold = 10;
+        for (int i = 2; i < args.length; i++) {
+            if (args[i].startsWith("--threshold=")) {
+                threshold = Double.parseDouble(args[i].substring("--threshold=".length()));
+            }
+        }
+
+        Map<String, Score> baseline = read(Path.of(args[0]));
+        Map<String, Score> current = read(Path.of(args[1]));
+
+        int regressions = 0;
+        System.out.printf("%-80s %14s %14s %10s  %s%n", "benchmark", "baseline", "current", "change", "unit");
+        for (Map.Entry<String, Score> entry : new TreeMap<>(current).entrySet()) {
+            Score now = entry.getValue();
+            Score before = baseline.get(entry.getKey());
+            if (before == null) {
+                System.out.printf("%-80s %14s %14.3f %10s  %s%n", entry.getKey(), "-", now.score(), "new", now.unit());
+                continue;
+            }
+            double improvement = now.improvementOver(before);
+            String verdict = "";
+            if (now.significantlyDifferentFrom(before)) {
+                if (improvement < -threshold) {
+                    verdict = "  REGRESSION";
+                    regressions++;
+                } else if (improvement > threshold) {
+                    verdict = "  improved";
+                }
+            }
+            System.out.printf("%-80s %14.3f %14.3f %+9.1f%%  %s%s%n",
+                    entry.getKey(), before.score(), now.score(), improvement, now.unit(), verdict);
+        }
+        baseline.keySet().stream()
+                .filter(key -> !current.containsKey(key))
+                .sorted()
+                .forEach(key -> System.out.printf("%-80s %14.3f %14s %10s%n", key, baseline.get(key).score(), "-", "removed"));
+
+        if (regressions > 0) {
+            System.out.printf("%n%d benchmark(s) regressed by more than %.1f%%%n", regressions, threshold);
+            System.exit(1);
+        }
+    }
+
+    static Map<String, Score> read(Path file) throws IOException {
+        Map<String, Score> scores = new LinkedHashMap<>();
+        for (JsonNode run : new ObjectMapper().readTree(file.toFile())) {
+            JsonNode primary = run.get("primaryMetric");
+            scores.put(key(run), new Score(primary.get("score").asDouble(), errorOf(primary),
+                    primary.get("scoreUnit").asText(), run.get("mode").asText()));
+        }
+        return scores;
+    }
+
+    private static String key(JsonNode run) {
+        String benchmark = run.get("benchmark").asText();
+        StringBuilder key = new StringBuilder(benchmark.substring(benchmark.lastIndexOf('.', benchmark.lastIndexOf('.') - 1) + 1));
+        JsonNode params = run.get("params");
+        if (params != null) {
+            Map<String, String> sorted = new TreeMap<>();
+            for (Iterator<Map.Entry<String, JsonNode>> it = params.fields(); it.hasNext(); ) {
+                Map.Entry<String, JsonNode> param = it.next();
+                sorted.put(param.getKey(), param.getValue().asText());
+            }
+            sorted.forEach((name, value) -> key.append(' ').append(name).append('=').append(value));
+        }
+        return key.toString();
+    }
+
+    private static double errorOf(JsonNode primary) {
+        // NaN when there was a single measurement iteration
+        double error = primary.path("scoreError").asDouble(Double.NaN);
+        return Double.isNaN(error) ? 0 : error;
+    }
+}
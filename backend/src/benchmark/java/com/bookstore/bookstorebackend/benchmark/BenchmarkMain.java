@@ -0,0 +1,42 @@
+package com.bookstore.bookstorebackend.benchmark;
+
+import org.openjdk.jmh.Main;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Default entry point of the benchmark profile: the JMH command line, except that results are also
+ * written as JSON to {@code target/jmh/<timestamp>.json} unless {@code -rf}/{@code -rff} is given.
+ * Two such files are compared with {@link BenchmarkDiff}.
+ */
+public final class BenchmarkMain {
+
+    private static final Path RESULTS_DIRECTORY = Path.of("target", "jmh");
+
+    private BenchmarkMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> arguments = new ArrayList<>(Arrays.asList(args));
+        if (!arguments.contains("-rf") && !arguments.contains("-rff") && !listsOnly(arguments)) {
+            Path result = RESULTS_DIRECTORY.resolve(
+                    LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".json");
+            Files.createDirectories(RESULTS_DIRECTORY);
+            arguments.addAll(List.of("-rf", "json", "-rff", result.toString()));
+            System.out.println("Results will be written to " + result);
+        }
+        Main.main(arguments.toArray(String[]::new));
+    }
+
+    private static boolean listsOnly(List<String> arguments) {
+        return arguments.stream().anyMatch(argument -> argument.equals("-l") || argument.equals("-lp")
+                || argument.equals("-h") || argument.equals("-lprof") || argument.equals("-lrf"));
+    }
+}
@@ -0,0 +1,79 @@
+package com.bookstore.bookstorebackend.benchmark;
+
+import com.bookstore.bookstorebackend.dto.BookDTO;
+import com.bookstore.bookstorebackend.entity.Book;
+import com.bookstore.bookstorebackend.service.BookService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Response building for a page of books, without the database: {@code convertToDTO} over a page of
+ * entities, Jackson serialization of the resulting {@code Page<BookDTO>}, and both together.
+ * <p>
+ * The mapper is configured like Spring Boot's (JSR-310 module, ISO dates). {@code descriptionWords}
+ * controls the size of the description, which dominates the payload.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookMappingBenchmark {
+
+    @Param({"100"})
+    public int pageSize;
+
+    @Param({"50", "400"})
+    public int descriptionWords;
+
+    private final BookService bookService = new BookService();
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    private Page<Book> entities;
+    private Page<BookDTO> dtos;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<Book> books = CatalogFixture.books(pageSize, descriptionWords);
+        entities = new PageImpl<>(books, PageRequest.of(0, pageSize), 100_000);
+        dtos = entities.map(bookService::convertToDTO);
+    }
+
+    @Benchmark
+    public Page<BookDTO> convertPage() {
+        return entities.map(bookService::convertToDTO);
+    }
+
+    @Benchmark
+    public byte[] serializePage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(dtos);
+    }
+
+    @Benchmark
+    public byte[] convertAndSerializePage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(entities.map(bookService::convertToDTO));
+    }
+}
@@ -0,0 +1,110 @@
+package com.bookstore.bookstorebackend.benchmark;
+
+import com.bookstore.bookstorebackend.repository.BookRepository;
+import com.bookstore.bookstorebackend.service.BookService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Listing pages read as managed {@code Book} entities copied through {@code convertToDTO} (the former
+ * path) against the {@code BookSummaryDTO} constructor projection, same pages and sort.
+ * <p>
+ * Run through {@link #main} to get heap allocated per page (from the GC profiler) and rows per second:
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Dbenchmark.main=com.bookstore.bookstorebackend.benchmark.BookProjectionBenchmark
+ * </pre>
+ * Regular JMH options can be passed in {@code -Dbenchmark.args}, e.g. {@code "-p pageSize=100"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g"})
+public class BookProjectionBenchmark {
+
+    private static final int CATALOG_SIZE = 100_000;
+    private static final int PAGES = 100;
+
+    @Param({"20", "100"})
+    public int pageSize;
+
+    private CatalogFixture fixture;
+    private BookService bookService;
+    private BookRepository bookRepository;
+    private int page;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixture = CatalogFixture.start();
+        fixture.seedBooks(CATALOG_SIZE);
+        bookService = fixture.bean(BookService.class);
+        bookRepository = fixture.bean(BookRepository.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public Page<?> entityAndConvert() {
+        return bookRepository.findAll(nextPage()).map(bookService::convertToDTO);
+    }
+
+    @Benchmark
+    public Page<?> summaryProjection() {
+        return bookRepository.findAllSummaries(nextPage());
+    }
+
+    private PageRequest nextPage() {
+        page = (page + 1) % PAGES;
+        return PageRequest.of(page, pageSize, Sort.by("id"));
+    }
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .include(BookProjectionBenchmark.class.getName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        Collection<RunResult> results = new Runner(options).run();
+
+        System.out.printf("%n%-20s %8s %14s %14s %16s%n", "path", "pageSize", "pages/s", "rows/s", "heap/page (KB)");
+        for (RunResult result : results) {
+            String name = result.getParams().getBenchmark();
+            int size = Integer.parseInt(result.getParams().getParam("pageSize"));
+            double pagesPerSecond = result.getPrimaryResult().getScore();
+            Result<?> allocated = result.getSecondaryResults().get("gc.alloc.rate.norm");
+            System.out.printf("%-20s %8d %14.0f %14.0f %16.1f%n",
+                    name.substring(name.lastIndexOf('.') + 1), size, pagesPerSecond, pagesPerSecond * size,
+                    allocated == null ? Double.NaN : allocated.getScore() / 1024);
+        }
+    }
+}
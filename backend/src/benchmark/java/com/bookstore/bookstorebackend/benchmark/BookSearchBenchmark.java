@@ -0,0 +1,71 @@
+package com.bookstore.bookstorebackend.benchmark;
+
+import com.bookstore.bookstorebackend.repository.BookRepository;
+import com.bookstore.bookstorebackend.service.BookSearchIndex;
+import com.bookstore.bookstorebackend.service.BookService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Search latency of the inverted index against the {@code LIKE}-scan JPQL query on the same catalog.
+ * Sample-time mode reports the p50/p99 latency distribution per query.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx6g"})
+public class BookSearchBenchmark {
+
+    @Param({"1000000"})
+    public int catalogSize;
+
+    @Param({"tolkien", "winter sto", "quantum theory"})
+    public String query;
+
+    private CatalogFixture fixture;
+    private BookService bookService;
+    private BookRepository bookRepository;
+    private final Pageable firstPage = PageRequest.of(0, 10);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixture = CatalogFixture.start();
+        fixture.seedBooks(catalogSize);
+        fixture.bean(BookSearchIndex.class).rebuild();
+        bookService = fixture.bean(BookService.class);
+        bookRepository = fixture.bean(BookRepository.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public Page<?> invertedIndex() {
+        return bookService.searchBooks(query, firstPage);
+    }
+
+    @Benchmark
+    public Page<?> jpqlLikeScan() {
+        return bookRepository.searchSummaries(query, firstPage);
+    }
+}
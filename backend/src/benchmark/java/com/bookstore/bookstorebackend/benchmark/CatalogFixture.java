@@ -0,0 +1,198 @@
+package com.bookstore.bookstorebackend.benchmark;
+
+import com.bookstore.bookstorebackend.BookstoreBackendApplication;
+import com.bookstore.bookstorebackend.entity.Book;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Boots the backend without a web server against a private in-memory H2 database and seeds a
+ * synthetic catalog through plain JDBC batches, so benchmarks measure the read path only.
+ */
+public final class CatalogFixture implements AutoCloseable {
+
+    static final String[] CATEGORIES = {
+            "Fiction", "Science", "History", "Technology", "Biography",
+            "Fantasy", "Mystery", "Romance", "Poetry", "Travel"
+    };
+
+    static final String[] WORDS = {
+            "shadow", "river", "empire", "garden", "silent", "winter", "code", "machine", "ocean", "mountain",
+            "secret", "history", "journey", "fire", "glass", "kingdom", "light", "memory", "night", "storm",
+            "stone", "summer", "dream", "city", "war", "peace", "island", "forest", "star", "letter",
+            "clean", "pattern", "design", "system", "quantum", "theory", "brief", "guide", "art", "life"
+    };
+
+    static final String[] AUTHORS = {
+            "Tolkien", "Martin", "Austen", "Orwell", "Hawking", "Sagan", "Christie", "Dickens", "Tolstoy", "Woolf",
+            "Asimov", "Herbert", "Le Guin", "Pratchett", "Atwood", "Morrison", "Rowling", "King", "Gaiman", "Eco"
+    };
+
+    private static final String INSERT_BOOK = "INSERT INTO books (id, title, author, description, isbn, category, price, " +
+            "stock_quantity, publication_year, image_url, rating, available, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final ConfigurableApplicationContext context;
+
+    private CatalogFixture(ConfigurableApplicationContext context) {
+        this.context = context;
+    }
+
+    public static CatalogFixture start(String... properties) {
+        List<String> defaults = List.of(
+                "spring.datasource.url=jdbc:h2:mem:benchmark-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1",
+                "bookstore.search.index.enabled=false",
+                "logging.level.root=WARN",
+                "logging.level.com.bookstore.bookstorebackend=WARN");
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(BookstoreBackendApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(arguments(defaults, properties));
+        return new CatalogFixture(context);
+    }
+
+    /**
+     * Turns {@code key=value} properties into command-line arguments, which take precedence over
+     * application.properties. Overrides replace defaults with the same key rather than being appended.
+     */
+    public static String[] arguments(List<String> defaults, String... overrides) {
+        Map<String, String> properties = new LinkedHashMap<>();
+        Stream.concat(defaults.stream(), Stream.of(overrides)).forEach(property -> {
+            int separator = property.indexOf('=');
+            properties.put(property.substring(0, separator), property.substring(separator + 1));
+        });
+        return properties.entrySet().stream()
+                .map(property -> "--" + property.getKey() + "=" + property.getValue())
+                .toArray(String[]::new);
+    }
+
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    /**
+     * Inserts {@code count} synthetic books with ids 1..count. The generator is seeded, so repeated runs
+     * see the same catalog.
+     */
+    public void seedBooks(int count) {
+        seedBooks(bean(JdbcTemplate.class), count);
+    }
+
+    /**
+     * Seeds the catalog behind any running context, e.g. one started with a web server by a load test.
+     */
+    public static void seedBooks(JdbcTemplate jdbc, int count) {
+        Random random = new Random(42);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < count; i++) {
+            batch.add(new Object[]{
+                    i + 1L,
+                    title(random),
+                    AUTHORS[random.nextInt(AUTHORS.length)],
+                    description(random),
+                    String.format("978%010d", i),
+                    randomCategory(random),
+                    BigDecimal.valueOf(500 + random.nextInt(5000), 2),
+                    random.nextInt(100),
+                    1900 + random.nextInt(125),
+                    null,
+                    Math.round(random.nextDouble() * 50) / 10.0,
+                    random.nextInt(10) != 0,
+                    now,
+                    now
+            });
+            if (batch.size() == BATCH_SIZE) {
+                jdbc.batchUpdate(INSERT_BOOK, batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            jdbc.batchUpdate(INSERT_BOOK, batch);
+        }
+        // Books created through JPA afterwards must not collide with the seeded ids
+        jdbc.execute("ALTER SEQUENCE book_seq RESTART WITH " + (count + 1));
+    }
+
+    /**
+     * Detached {@code Book} entities with ids 1..count and descriptions of {@code descriptionWords} words,
+     * for benchmarks that never touch the database. Seeded like {@link #seedBooks(int)}.
+     */
+    public static List<Book> books(int count, int descriptionWords) {
+        Random random = new Random(42);
+        LocalDateTime now = LocalDateTime.now();
+
+        List<Book> books = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            books.add(Book.builder()
+                    .id(i + 1L)
+                    .title(title(random))
+                    .author(AUTHORS[random.nextInt(AUTHORS.length)])
+                    .description(description(random, descriptionWords))
+                    .isbn(String.format("978%010d", i))
+                    .category(randomCategory(random))
+                    .price(BigDecimal.valueOf(500 + random.nextInt(5000), 2))
+                    .stockQuantity(random.nextInt(100))
+                    .publicationYear(1900 + random.nextInt(125))
+                    .imageUrl("https://images.example.com/covers/" + (i + 1) + ".jpg")
+                    .rating(Math.round(random.nextDouble() * 50) / 10.0)
+                    .available(random.nextInt(10) != 0)
+                    .createdAt(now)
+                    .updatedAt(now)
+                    .build());
+        }
+        return books;
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+
+    public static String randomCategory(Random random) {
+        return CATEGORIES[random.nextInt(CATEGORIES.length)];
+    }
+
+    static String title(Random random) {
+        int words = 2 + random.nextInt(3);
+        StringBuilder title = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            String word = WORDS[random.nextInt(WORDS.length)];
+            if (i > 0) {
+                title.append(' ');
+            }
+            title.append(Character.toUpperCase(word.charAt(0))).append(word, 1, word.length());
+        }
+        return title.toString();
+    }
+
+    static String description(Random random) {
+        return description(random, 20 + random.nextInt(40));
+    }
+
+    static String description(Random random, int words) {
+        StringBuilder description = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                description.append(' ');
+            }
+            description.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return description.append('.').toString();
+    }
+}
@@ -0,0 +1,135 @@
+package com.bookstore.bookstorebackend.benchmark;
+
+import com.bookstore.bookstorebackend.entity.Book;
+import com.bookstore.bookstorebackend.repository.BookRepository;
+import com.bookstore.bookstorebackend.service.InventoryService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Stock reservations per second on one hot book, its stock in a single row against split across
+ * {@code slots} slot rows, from 1 to 64 concurrent buyers. Each operation is a transaction that reads the
+ * book, reserves one unit and then stays open for {@code holdMicros}, standing in for the rest of order
+ * placement and the round trips to a remote database, during which the row lock is held.
+ * <p>
+ * Run through {@link #main} to sweep the thread counts and print one table:
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Dbenchmark.main=com.bookstore.bookstorebackend.benchmark.InventoryContentionBenchmark
+ * </pre>
+ * A {@code -t} in {@code -Dbenchmark.args} runs only that thread count.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g"})
+public class InventoryContentionBenchmark {
+
+    private static final int[] THREADS = {1, 4, 16, 64};
+    private static final long SINGLE_ROW_BOOK = 1L;
+    private static final long SHARDED_BOOK = 2L;
+    // Never runs out during a run, so every operation is a successful decrement
+    private static final int STOCK = Integer.MAX_VALUE / 2;
+
+    @Param({"16"})
+    public int slots;
+
+    @Param({"0", "2000"})
+    public int holdMicros;
+
+    private CatalogFixture fixture;
+    private TransactionTemplate transaction;
+    private BookRepository bookRepository;
+    private InventoryService inventoryService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // One connection per buyer, so threads queue on row locks rather than on the pool
+        fixture = CatalogFixture.start("spring.datasource.hikari.maximum-pool-size=" + (THREADS[THREADS.length - 1] + 4));
+        fixture.seedBooks(2);
+        fixture.bean(JdbcTemplate.class).update("UPDATE books SET stock_quantity = ?, available = true", STOCK);
+        transaction = new TransactionTemplate(fixture.bean(PlatformTransactionManager.class));
+        bookRepository = fixture.bean(BookRepository.class);
+        inventoryService = fixture.bean(InventoryService.class);
+        inventoryService.enableSharding(SHARDED_BOOK, slots);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public Boolean singleRow() {
+        return reserve(SINGLE_ROW_BOOK);
+    }
+
+    @Benchmark
+    public Boolean sharded() {
+        return reserve(SHARDED_BOOK);
+    }
+
+    private Boolean reserve(long bookId) {
+        return transaction.execute(status -> {
+            Book book = bookRepository.findById(bookId).orElseThrow();
+            boolean reserved = inventoryService.reserve(book, 1, LocalDateTime.now());
+            if (holdMicros > 0) {
+                LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(holdMicros));
+            }
+            return reserved;
+        });
+    }
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        List<RunResult> results = new ArrayList<>();
+        int[] threadCounts = commandLine.getThreads().hasValue() ? new int[]{commandLine.getThreads().get()} : THREADS;
+        for (int threads : threadCounts) {
+            Options options = new OptionsBuilder()
+                    .parent(commandLine)
+                    .include(InventoryContentionBenchmark.class.getName())
+                    .threads(threads)
+                    .build();
+            results.addAll(new Runner(options).run());
+        }
+
+        System.out.printf("%n%-12s %6s %10s %8s %16s%n", "stock", "slots", "holdMicros", "threads", "reservations/s");
+        for (RunResult result : results) {
+            String name = result.getParams().getBenchmark();
+            System.out.printf("%-12s %6s %10s %8d %16.0f%n",
+                    name.substring(name.lastIndexOf('.') + 1),
+                    result.getParams().getParam("slots"),
+                    result.getParams().getParam("holdMicros"),
+                    result.getParams().getThreads(),
+                    result.getPrimaryResult().getScore());
+        }
+    }
+}
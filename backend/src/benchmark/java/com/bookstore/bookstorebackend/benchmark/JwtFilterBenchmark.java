@@ -0,0 +1,123 @@
+package com.bookstore.bookstorebackend.benchmark;
+
+import com.bookstore.bookstorebackend.security.JwtAuthenticationFilter;
+import com.bookstore.bookstorebackend.security.JwtTokenProvider;
+import com.bookstore.bookstorebackend.security.UserDetailsCache;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request JWT cost in the authentication filter. {@code legacyDoubleParse} reproduces the previous
+ * path (key rebuilt and signature verified twice), {@code filterUncached} runs the filter with a single
+ * verification and no cache, {@code filterCached} with the verified-token cache warm. The token carries
+ * role claims, so the filter authenticates without a user lookup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtFilterBenchmark {
+
+    static final String SECRET = "benchmark-secret-key-make-it-long-and-secure-at-least-64-characters-for-hs512-signing";
+
+    private String token;
+    private JwtAuthenticationFilter uncachedFilter;
+    private JwtAuthenticationFilter cachedFilter;
+    private MockHttpServletRequest request;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        JwtTokenProvider uncachedProvider = provider(0);
+        JwtTokenProvider cachedProvider = provider(10_000);
+        token = cachedProvider.generateToken("reader", List.of("ROLE_USER"), true);
+
+        UserDetails user = User.withUsername("reader").password("{noop}secret").roles("USER").build();
+        UserDetailsService users = username -> user;
+        uncachedFilter = filter(uncachedProvider, users);
+        cachedFilter = filter(cachedProvider, users);
+
+        request = new MockHttpServletRequest("GET", "/api/v1/orders");
+        request.addHeader("Authorization", "Bearer " + token);
+    }
+
+    @Benchmark
+    public String legacyDoubleParse() {
+        SecretKey key = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+        Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token);
+
+        SecretKey keyAgain = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+        Claims claims = Jwts.parserBuilder().setSigningKey(keyAgain).build().parseClaimsJws(token).getBody();
+        return claims.getSubject();
+    }
+
+    @Benchmark
+    public Object filterUncached() throws Exception {
+        return runFilter(uncachedFilter);
+    }
+
+    @Benchmark
+    public Object filterCached() throws Exception {
+        return runFilter(cachedFilter);
+    }
+
+    private Object runFilter(JwtAuthenticationFilter filter) throws Exception {
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        Object authentication = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        request.removeAttribute(filter.getClass().getName() + ".FILTERED");
+        return authentication;
+    }
+
+    static JwtTokenProvider provider(long cacheSize) {
+        JwtTokenProvider provider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(provider, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(provider, "jwtExpirationMs", 3_600_000);
+        ReflectionTestUtils.setField(provider, "verificationCacheSize", cacheSize);
+        ReflectionTestUtils.invokeMethod(provider, "init");
+        return provider;
+    }
+
+    static JwtAuthenticationFilter filter(JwtTokenProvider provider, UserDetailsService users) {
+        JwtAuthenticationFilter filter = new JwtAuthenticationFilter();
+        ReflectionTestUtils.setField(filter, "tokenProvider", provider);
+        ReflectionTestUtils.setField(filter, "userDetailsService", users);
+        UserDetailsCache userDetailsCache = new UserDetailsCache();
+        ReflectionTestUtils.setField(userDetailsCache, "maximumSize", 100L);
+        ReflectionTestUtils.setField(userDetailsCache, "ttl", Duration.ofSeconds(60));
+        ReflectionTestUtils.setField(userDetailsCache, "jwtExpirationMs", 3_600_000L);
+        ReflectionTestUtils.invokeMethod(userDetailsCache, "init");
+        ReflectionTestUtils.setField(filter, "userDetailsCache", userDetailsCache);
+        ReflectionTestUtils.setField(filter, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.invokeMethod(filter, "init");
+        return filter;
+    }
+}
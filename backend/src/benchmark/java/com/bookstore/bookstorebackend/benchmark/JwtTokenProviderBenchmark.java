@@ -0,0 +1,60 @@
+package com.bookstore.bookstorebackend.benchmark;
+
+import com.bookstore.bookstorebackend.security.JwtTokenProvider;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token issue and verification in {@link JwtTokenProvider}, outside the filter: signing a token with
+ * role claims (every login), and verifying one with and without the verified-token cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtTokenProviderBenchmark {
+
+    private static final List<String> ROLES = List.of("ROLE_USER", "ROLE_ADMIN");
+
+    private JwtTokenProvider uncachedProvider;
+    private JwtTokenProvider cachedProvider;
+    private String token;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        uncachedProvider = JwtFilterBenchmark.provider(0);
+        cachedProvider = JwtFilterBenchmark.provider(10_000);
+        token = cachedProvider.generateToken("reader", ROLES, true);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return uncachedProvider.generateToken("reader", ROLES, true);
+    }
+
+    @Benchmark
+    public Optional<Claims> verifyUncached() {
+        return uncachedProvider.verify(token);
+    }
+
+    @Benchmark
+    public Optional<Claims> verifyCached() {
+        return cachedProvider.verify(token);
+    }
+}
@@ -0,0 +1,71 @@
+package com.bookstore.bookstorebackend.benchmark;
+
+import com.bookstore.bookstorebackend.service.BookCursor;
+import com.bookstore.bookstorebackend.service.BookService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-page latency of offset pagination (Page plus count query) against keyset pagination (Slice
+ * seeking past the cursor) from page 1 to page 10,000 of the id-ordered listing.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g"})
+public class KeysetPaginationBenchmark {
+
+    private static final int PAGE_SIZE = 10;
+
+    @Param({"1", "100", "1000", "10000"})
+    public int page;
+
+    private CatalogFixture fixture;
+    private BookService bookService;
+    private Pageable offsetPage;
+    private String cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixture = CatalogFixture.start();
+        fixture.seedBooks(10_000 * PAGE_SIZE + PAGE_SIZE);
+        bookService = fixture.bean(BookService.class);
+
+        offsetPage = PageRequest.of(page - 1, PAGE_SIZE, Sort.by("id"));
+        // seeded ids are dense and start at 1, so page n starts after id (n - 1) * size
+        cursor = page == 1 ? null : BookCursor.afterId((long) (page - 1) * PAGE_SIZE).encode();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public Object offsetPagination() {
+        return bookService.getAllBooks(offsetPage);
+    }
+
+    @Benchmark
+    public Object keysetPagination() {
+        return bookService.scrollAllBooks(cursor, PAGE_SIZE);
+    }
+}
@@ -0,0 +1,75 @@
+package com.bookstore.bookstorebackend.benchmark;
+
+import com.bookstore.bookstorebackend.service.TopKSelector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cutting one relevance-ranked page out of n scored candidates: bounded top-k heap versus sorting
+ * every candidate and taking the first k.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TopKSelectionBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int candidates;
+
+    @Param({"10", "100"})
+    public int k;
+
+    private double[] scores;
+    private double[] ratings;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(7);
+        scores = new double[candidates];
+        ratings = new double[candidates];
+        for (int i = 0; i < candidates; i++) {
+            scores[i] = random.nextDouble() * 20.0;
+            ratings[i] = Math.round(random.nextDouble() * 50) / 10.0;
+        }
+    }
+
+    @Benchmark
+    public int[] heapSelection() {
+        return TopKSelector.select(scores, ratings, k);
+    }
+
+    @Benchmark
+    public int[] fullSort() {
+        Integer[] order = new Integer[candidates];
+        for (int i = 0; i < candidates; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.<Integer>comparingDouble(i -> scores[i]).reversed()
+                .thenComparing(Comparator.<Integer>comparingDouble(i -> ratings[i]).reversed())
+                .thenComparingInt(i -> i));
+
+        int[] top = new int[Math.min(k, candidates)];
+        for (int i = 0; i < top.length; i++) {
+            top[i] = order[i];
+        }
+        return top;
+    }
+}
@@ -0,0 +1,83 @@
+package com.bookstore.bookstorebackend.benchmark;
+
+import com.bookstore.bookstorebackend.dto.BookDTO;
+import com.bookstore.bookstorebackend.service.BookService;
+import com.bookstore.bookstorebackend.util.YamlUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link YamlUtils} on a catalog document of {@code books} entries with long descriptions: parsing to a
+ * map and to typed DTOs, and writing the parsed map back out as YAML and JSON.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class YamlUtilsBenchmark {
+
+    @Param({"100"})
+    public int books;
+
+    private String yaml;
+    private Map<String, Object> parsed;
+
+    public static class Catalog {
+        public List<BookDTO> books;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        BookService bookService = new BookService();
+        List<BookDTO> dtos = CatalogFixture.books(books, 200).stream()
+                .map(bookService::convertToDTO)
+                .peek(book -> {
+                    // The YAML mapper has no JSR-310 module
+                    book.setCreatedAt(null);
+                    book.setUpdatedAt(null);
+                })
+                .toList();
+        Map<String, Object> document = new LinkedHashMap<>();
+        document.put("books", dtos);
+        yaml = YamlUtils.toYaml(document);
+        parsed = YamlUtils.parseToMap(yaml);
+    }
+
+    @Benchmark
+    public Map<String, Object> parseToMap() throws IOException {
+        return YamlUtils.parseToMap(yaml);
+    }
+
+    @Benchmark
+    public Catalog fromYaml() throws IOException {
+        return YamlUtils.fromYaml(yaml, Catalog.class);
+    }
+
+    @Benchmark
+    public String toYaml() throws IOException {
+        return YamlUtils.toYaml(parsed);
+    }
+
+    @Benchmark
+    public String toJson() throws IOException {
+        return YamlUtils.toJson(parsed);
+    }
+}
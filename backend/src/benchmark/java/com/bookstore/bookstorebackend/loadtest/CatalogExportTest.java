@@ -0,0 +1,77 @@
+package com.bookstore.bookstorebackend.loadtest;
+
+import com.bookstore.bookstorebackend.benchmark.CatalogFixture;
+import com.bookstore.bookstorebackend.service.BookExportService;
+
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * Exports a large seeded catalog and reports throughput and heap use, to check that the export runs in
+ * constant memory. Run it under a small heap, e.g.
+ * {@code -Dbenchmark.jvmArgs=-Xmx128m -Dbenchmark.args="--books=1000000 --format=jsonl"}.
+ * <p>
+ * The catalog lives in a file-backed H2 database with a small page cache, so the heap only has to hold
+ * the application itself and whatever the export retains.
+ * <p>
+ * Options: {@code --books=1000000 --format=jsonl|csv --gzip=false}.
+ */
+public class CatalogExportTest {
+
+    public static void main(String[] args) throws Exception {
+        int books = Integer.parseInt(ThreadingLoadTest.option(args, "books", "1000000"));
+        BookExportService.Format format = BookExportService.Format.fromParameter(
+                ThreadingLoadTest.option(args, "format", "jsonl"));
+        boolean gzip = Boolean.parseBoolean(ThreadingLoadTest.option(args, "gzip", "false"));
+
+        Path directory = Files.createTempDirectory("catalog-export");
+        try (CatalogFixture fixture = CatalogFixture.start(
+                "spring.datasource.url=jdbc:h2:file:" + directory.resolve("catalog") + ";CACHE_SIZE=8192")) {
+            long seedStart = System.nanoTime();
+            fixture.seedBooks(books);
+            System.out.printf("Seeded %d books in %.1f s%n", books, (System.nanoTime() - seedStart) / 1e9);
+
+            System.gc();
+            ManagementFactory.getMemoryPoolMXBeans().forEach(MemoryPoolMXBean::resetPeakUsage);
+
+            CountingOutputStream out = new CountingOutputStream();
+            long start = System.nanoTime();
+            long exported = fixture.bean(BookExportService.class).export(out, format, gzip);
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            long peakHeap = ManagementFactory.getMemoryPoolMXBeans().stream()
+                    .filter(pool -> pool.getType() == MemoryType.HEAP)
+                    .mapToLong(pool -> pool.getPeakUsage().getUsed())
+                    .sum();
+            System.out.printf("Exported %d books as %s%s: %.1f MB in %.1f s (%.1f MB/s, %.0f rows/s)%n",
+                    exported, format.getExtension(), gzip ? ".gz" : "", out.count / 1e6, seconds,
+                    out.count / 1e6 / seconds, exported / seconds);
+            System.out.printf("Heap: max %d MB, peak used during export <= %d MB (sum of pool peaks)%n",
+                    Runtime.getRuntime().maxMemory() >> 20, peakHeap >> 20);
+        } finally {
+            try (Stream<Path> files = Files.walk(directory)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.bookstore.bookstorebackend.loadtest;
+
+import com.bookstore.bookstorebackend.entity.Book;
+import com.bookstore.bookstorebackend.repository.BookRepository;
+import com.bookstore.bookstorebackend.service.BookChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Holds thousands of open {@code /api/v1/books/changes} streams against the backend started in-process,
+ * then publishes stock changes and measures how long each takes to reach every matching subscriber.
+ * Half the subscribers take every change, the other half filter on one category.
+ * <p>
+ * Reports the JVM thread count before and after connecting (the streams should not add threads), the
+ * delivery latency per change and subscriber, and any change that never arrived.
+ * <p>
+ * Options: {@code --subscribers=10000 --changes=20 --books=1000 --interval-ms=200}. Client and server
+ * share this process, so it needs two file descriptors per subscriber ({@code ulimit -n}).
+ */
+public class CatalogStreamLoadTest {
+
+    private static final Pattern BOOK_ID = Pattern.compile("\"id\":(\\d+)");
+
+    public static void main(String[] args) throws Exception {
+        int subscribers = Integer.parseInt(ThreadingLoadTest.option(args, "subscribers", "10000"));
+        int changes = Integer.parseInt(ThreadingLoadTest.option(args, "changes", "20"));
+        int books = Integer.parseInt(ThreadingLoadTest.option(args, "books", "1000"));
+        long intervalMillis = Long.parseLong(ThreadingLoadTest.option(args, "interval-ms", "200"));
+
+        try (ConfigurableApplicationContext context = ThreadingLoadTest.startBackend(false,
+                "bookstore.catalog.stream.max-subscribers=" + (subscribers + 100),
+                "bookstore.search.index.enabled=false")) {
+            ThreadingLoadTest.seed(context, books);
+            BookRepository bookRepository = context.getBean(BookRepository.class);
+            String filtered = bookRepository.findById(1L).orElseThrow().getCategory();
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            MeterRegistry meters = context.getBean(MeterRegistry.class);
+            int threadsBefore = ManagementFactory.getThreadMXBean().getThreadCount();
+
+            ExecutorService clientThreads = Executors.newFixedThreadPool(4);
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .executor(clientThreads)
+                    .connectTimeout(Duration.ofSeconds(30))
+                    .build();
+            Map<Long, Long> publishedAt = new ConcurrentHashMap<>();
+            LatencyRecorder recorder = new LatencyRecorder();
+            LongAdder received = new LongAdder();
+            long connectStart = System.nanoTime();
+            for (int i = 0; i < subscribers; i++) {
+                boolean all = i % 2 == 0;
+                String path = all ? "/api/v1/books/changes" : "/api/v1/books/changes?category=" + filtered;
+                String label = all ? "all" : "category";
+                client.sendAsync(HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build(),
+                        HttpResponse.BodyHandlers.fromLineSubscriber(
+                                new ChangeListener(label, publishedAt, recorder, received)));
+                if (i % 500 == 499) {
+                    // Stay under the listen backlog
+                    awaitSubscribers(meters, i + 1 - 250);
+                }
+            }
+            awaitSubscribers(meters, subscribers);
+            double connectSeconds = (System.nanoTime() - connectStart) / 1e9;
+            int threadsConnected = ManagementFactory.getThreadMXBean().getThreadCount();
+
+            ApplicationEventPublisher events = context;
+            Random random = new Random(42);
+            long expected = 0;
+            for (int i = 0; i < changes; i++) {
+                Book book = bookRepository.findById(1L + i % books).orElseThrow();
+                book.setStockQuantity(random.nextInt(100));
+                expected += subscribers / 2 + (filtered.equals(book.getCategory()) ? subscribers - subscribers / 2 : 0);
+                publishedAt.put(book.getId(), System.nanoTime());
+                events.publishEvent(BookChangedEvent.stockChanged(book));
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(intervalMillis));
+            }
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+            while (received.sum() < expected && System.nanoTime() < deadline) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(50));
+            }
+
+            System.out.printf("%n%d subscribers connected in %.1f s; JVM threads %d before, %d with streams open%n",
+                    subscribers, connectSeconds, threadsBefore, threadsConnected);
+            System.out.printf("changes: %d published, %d of %d deliveries received, %s dropped, %s lost%n",
+                    changes, received.sum(), expected,
+                    counter(meters, "bookstore.catalog.stream.dropped"), counter(meters, "bookstore.catalog.stream.lost"));
+            recorder.print("delivery latency (publish to client)", changes * intervalMillis / 1000.0);
+            clientThreads.shutdownNow();
+        }
+        System.exit(0);
+    }
+
+    private static void awaitSubscribers(MeterRegistry meters, int subscribers) {
+        long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(5);
+        while (meters.get("bookstore.catalog.stream.subscribers").gauge().value() < subscribers) {
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("Only " + meters.get("bookstore.catalog.stream.subscribers")
+                        .gauge().value() + " of " + subscribers + " subscribers connected");
+            }
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(20));
+        }
+    }
+
+    private static String counter(MeterRegistry meters, String name) {
+        return String.format("%.0f", meters.get(name).functionCounter().count());
+    }
+
+    /** Records the latency of every {@code data:} line against when its book's change was published. */
+    private static final class ChangeListener implements Flow.Subscriber<String> {
+        private final String label;
+        private final Map<Long, Long> publishedAt;
+        private final LatencyRecorder recorder;
+        private final LongAdder received;
+
+        ChangeListener(String label, Map<Long, Long> publishedAt, LatencyRecorder recorder, LongAdder received) {
+            this.label = label;
+            this.publishedAt = publishedAt;
+            this.recorder = recorder;
+            this.received = received;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(String line) {
+            if (!line.startsWith("data:")) {
+                return;
+            }
+            Matcher id = BOOK_ID.matcher(line);
+            Long published = id.find() ? publishedAt.get(Long.parseLong(id.group(1))) : null;
+            if (published != null) {
+                recorder.record(label, System.nanoTime() - published, 200);
+                received.increment();
+            }
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            recorder.recordFailure(label, 0, error);
+        }
+
+        @Override
+        public void onComplete() {
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.bookstore.bookstorebackend.loadtest;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects request latencies and outcomes per endpoint label and prints a percentile table.
+ * Latencies are kept raw (8 bytes per request), which is fine for runs of a few million requests.
+ */
+public class LatencyRecorder {
+
+    private final Map<String, Samples> samples = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+    public void record(String endpoint, long latencyNanos, int status) {
+        samples.computeIfAbsent(endpoint, e -> new Samples()).add(latencyNanos);
+        if (status < 200 || status >= 400) {
+            errors.computeIfAbsent(endpoint + " " + (status == 0 ? "IO_ERROR" : status), e -> new LongAdder())
+                    .increment();
+        }
+    }
+
+    /**
+     * A request that failed without a response, labelled by the exception (timeout, refused connection).
+     */
+    public void recordFailure(String endpoint, long latencyNanos, Throwable error) {
+        samples.computeIfAbsent(endpoint, e -> new Samples()).add(latencyNanos);
+        Throwable cause = error.getCause() != null ? error.getCause() : error;
+        errors.computeIfAbsent(endpoint + " " + cause.getClass().getSimpleName(), e -> new LongAdder()).increment();
+    }
+
+    /**
+     * A request the load generator never sent because too many were already outstanding.
+     */
+    public void recordDropped(String endpoint) {
+        errors.computeIfAbsent(endpoint + " DROPPED", e -> new LongAdder()).increment();
+    }
+
+    public long totalRequests() {
+        return samples.values().stream().mapToLong(Samples::count).sum();
+    }
+
+    public void print(String title, double elapsedSeconds) {
+        System.out.printf("%n== %s ==%n", title);
+        System.out.printf("%-28s %9s %9s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "rps", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        new TreeMap<>(samples).forEach((endpoint, s) -> {
+            long[] sorted = s.sorted();
+            System.out.printf("%-28s %9d %9.0f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    endpoint, sorted.length, sorted.length / elapsedSeconds,
+                    percentile(sorted, 0.50), percentile(sorted, 0.90), percentile(sorted, 0.99),
+                    percentile(sorted, 0.999), percentile(sorted, 1.0));
+        });
+        if (errors.isEmpty()) {
+            System.out.println("errors: none");
+        } else {
+            long total = Math.max(1, totalRequests());
+            System.out.println("errors:");
+            new TreeMap<>(errors).forEach((key, count) -> System.out.printf("  %-40s %9d %7.2f%%%n",
+                    key, count.sum(), count.sum() * 100.0 / total));
+        }
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0.0;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1_000_000.0;
+    }
+
+    private static final class Samples {
+        private long[] values = new long[1024];
+        private int size;
+
+        synchronized void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        synchronized long count() {
+            return size;
+        }
+
+        synchronized long[] sorted() {
+            long[] copy = Arrays.copyOf(values, size);
+            Arrays.sort(copy);
+            return copy;
+        }
+    }
+}
@@ -0,0 +1,327 @@
+package com.bookstore.bookstorebackend.loadtest;
+
+import com.bookstore.bookstorebackend.dto.RegisterRequest;
+import com.bookstore.bookstorebackend.security.JwtTokenProvider;
+import com.bookstore.bookstorebackend.service.AuthService;
+import com.bookstore.bookstorebackend.service.BookSearchIndex;
+import com.bookstore.bookstorebackend.service.CategoryFacets;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+/**
+ * Open-loop load test of a mixed storefront workload against the backend started in-process on a
+ * random localhost port. The catalog is seeded with {@link SyntheticCatalog}; shoppers browse listing
+ * pages, open popular books, search, filter by category and log in, while an admin edits books.
+ * <p>
+ * Requests are issued at a fixed rate whether or not earlier ones have completed, and each latency is
+ * measured from the time the request was due rather than when it was actually sent, so a stalled server
+ * shows up as latency instead of silently lowering the offered load. When more than
+ * {@code --max-in-flight} requests are outstanding new ones are dropped and reported as errors.
+ * <p>
+ * Options:
+ * <ul>
+ *     <li>{@code --books=100000}: catalog size; 10M needs {@code --db=file} or Postgres and a few GB of heap</li>
+ *     <li>{@code --rps=200 --duration=60 --warmup=10}: offered load and timings in seconds; warmup is not reported</li>
+ *     <li>{@code --mix=browse:35,byId:25,search:20,category:12,login:5,adminUpdate:3}: relative weights</li>
+ *     <li>{@code --users=50}: registered shoppers used by {@code login}</li>
+ *     <li>{@code --db=mem|file|jdbc:postgresql://localhost:5432/bookstoredb} with {@code --db-user}/{@code --db-password}:
+ *     H2 in memory, H2 in a temporary file, or a local Postgres (migrated, then emptied before seeding)</li>
+ *     <li>{@code --search-index=true}: the in-memory search index; disable it for very large catalogs on a small heap</li>
+ *     <li>{@code --max-in-flight=2000 --virtual=false}</li>
+ * </ul>
+ */
+public class MixedWorkloadLoadTest {
+
+    private static final String DEFAULT_MIX = "browse:35,byId:25,search:20,category:12,login:5,adminUpdate:3";
+    private static final String PASSWORD = "loadtest-password";
+    private static final Set<String> LOCAL_HOSTS = Set.of("localhost", "127.0.0.1", "[::1]");
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final String baseUrl;
+    private final SyntheticCatalog catalog;
+    private final int users;
+    private final String adminToken;
+
+    MixedWorkloadLoadTest(String baseUrl, SyntheticCatalog catalog, int users, String adminToken) {
+        this.baseUrl = baseUrl;
+        this.catalog = catalog;
+        this.users = users;
+        this.adminToken = adminToken;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int books = Integer.parseInt(ThreadingLoadTest.option(args, "books", "100000"));
+        int rps = Integer.parseInt(ThreadingLoadTest.option(args, "rps", "200"));
+        int durationSeconds = Integer.parseInt(ThreadingLoadTest.option(args, "duration", "60"));
+        int warmupSeconds = Integer.parseInt(ThreadingLoadTest.option(args, "warmup", "10"));
+        int users = Integer.parseInt(ThreadingLoadTest.option(args, "users", "50"));
+        int maxInFlight = Integer.parseInt(ThreadingLoadTest.option(args, "max-in-flight", "2000"));
+        boolean virtualThreads = Boolean.parseBoolean(ThreadingLoadTest.option(args, "virtual", "false"));
+        Map<String, Integer> mix = parseMix(ThreadingLoadTest.option(args, "mix", DEFAULT_MIX));
+        String db = ThreadingLoadTest.option(args, "db", "mem");
+        boolean searchIndex = Boolean.parseBoolean(ThreadingLoadTest.option(args, "search-index", "true"));
+
+        Path directory = Files.createTempDirectory("loadtest");
+        List<String> properties = new ArrayList<>(datasourceProperties(db, directory,
+                ThreadingLoadTest.option(args, "db-user", "bookstore_user"),
+                ThreadingLoadTest.option(args, "db-password", "bookstore_password")));
+        properties.add("bookstore.search.index.enabled=" + searchIndex);
+
+        try (ConfigurableApplicationContext context = ThreadingLoadTest.startBackend(virtualThreads,
+                properties.toArray(String[]::new))) {
+            SyntheticCatalog catalog = new SyntheticCatalog(books);
+            JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+            if (db.startsWith("jdbc:")) {
+                jdbc.execute("TRUNCATE TABLE order_items, orders, user_roles, users, roles, books");
+            }
+            long seedStart = System.nanoTime();
+            catalog.seed(jdbc);
+            registerUsers(context.getBean(AuthService.class), users);
+            // The in-memory structures were built from the empty catalog at startup
+            if (searchIndex) {
+                context.getBean(BookSearchIndex.class).rebuild();
+            }
+            context.getBean(CategoryFacets.class).rebuild();
+            System.out.printf("Seeded %,d books and %d users in %.1f s%n",
+                    books, users, (System.nanoTime() - seedStart) / 1e9);
+
+            String adminToken = context.getBean(JwtTokenProvider.class)
+                    .generateToken("loadtest-admin", List.of("ROLE_ADMIN", "ROLE_USER"), true);
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+
+            MixedWorkloadLoadTest test = new MixedWorkloadLoadTest(baseUrl, catalog, users, adminToken);
+            LatencyRecorder recorder = test.run(mix, rps, Duration.ofSeconds(warmupSeconds),
+                    Duration.ofSeconds(durationSeconds), maxInFlight);
+            recorder.print(String.format("%,d books, target %d rps, achieved %.0f rps", books, rps,
+                    recorder.totalRequests() / (double) durationSeconds), durationSeconds);
+        } finally {
+            deleteRecursively(directory);
+        }
+    }
+
+    /**
+     * Issues requests at {@code rps} for the warmup and then the measured duration, returning the
+     * latencies of the measured part only.
+     */
+    LatencyRecorder run(Map<String, Integer> mix, int rps, Duration warmup, Duration duration, int maxInFlight) {
+        LatencyRecorder warmupRecorder = new LatencyRecorder();
+        LatencyRecorder recorder = new LatencyRecorder();
+        List<String> operations = weighted(mix);
+        SplittableRandom random = new SplittableRandom(7);
+
+        long interval = 1_000_000_000L / rps;
+        long start = System.nanoTime();
+        long measureFrom = start + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+        long nextProgress = start + 10_000_000_000L;
+
+        for (long i = 0; ; i++) {
+            long due = start + i * interval;
+            if (due >= end) {
+                break;
+            }
+            long wait;
+            while ((wait = due - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            if (due >= nextProgress) {
+                System.out.printf("  %3ds %s: %d in flight%n", (due - start) / 1_000_000_000L,
+                        due < measureFrom ? "warmup" : "measuring", inFlight.get());
+                nextProgress += 10_000_000_000L;
+            }
+
+            LatencyRecorder target = due < measureFrom ? warmupRecorder : recorder;
+            String operation = operations.get(random.nextInt(operations.size()));
+            if (inFlight.get() >= maxInFlight) {
+                target.recordDropped(operation);
+                continue;
+            }
+            inFlight.incrementAndGet();
+            execute(operation, random).whenComplete((status, error) -> {
+                inFlight.decrementAndGet();
+                if (error != null) {
+                    target.recordFailure(operation, System.nanoTime() - due, error);
+                } else {
+                    target.record(operation, System.nanoTime() - due, status);
+                }
+            });
+        }
+
+        long drainDeadline = System.nanoTime() + Duration.ofSeconds(60).toNanos();
+        while (inFlight.get() > 0 && System.nanoTime() < drainDeadline) {
+            LockSupport.parkNanos(10_000_000L);
+        }
+        return recorder;
+    }
+
+    private CompletableFuture<Integer> execute(String operation, SplittableRandom random) {
+        return switch (operation) {
+            case "browse" -> get("/api/v1/books?page=" + shallowPage(random) + "&size=20");
+            case "byId" -> get("/api/v1/books/" + catalog.popularBookId(random));
+            case "search" -> get("/api/v1/books/search?size=20&query="
+                    + URLEncoder.encode(catalog.searchTerm(random), StandardCharsets.UTF_8));
+            case "category" -> get("/api/v1/books/category/" + catalog.category(random)
+                    + "?page=" + shallowPage(random) + "&size=20");
+            case "login" -> post("/api/v1/auth/login", String.format("{\"username\":\"%s\",\"password\":\"%s\"}",
+                    username(random.nextInt(users)), PASSWORD));
+            case "adminUpdate" -> adminUpdate(catalog.popularBookId(random), random.nextInt(5, 200),
+                    random.nextInt(0, 300));
+            default -> throw new IllegalArgumentException("Unknown operation " + operation);
+        };
+    }
+
+    /**
+     * An admin opens a book and saves it with a new price and stock level (GET then PUT); the latency
+     * covers both requests.
+     */
+    private CompletableFuture<Integer> adminUpdate(long id, int price, int stock) {
+        String path = "/api/v1/books/" + id;
+        return client.sendAsync(request(path).GET().build(), HttpResponse.BodyHandlers.ofString())
+                .thenCompose(response -> {
+                    if (response.statusCode() != 200) {
+                        return CompletableFuture.completedFuture(response.statusCode());
+                    }
+                    ObjectNode book = readObject(response.body());
+                    book.put("price", BigDecimal.valueOf(price).subtract(new BigDecimal("0.01")));
+                    book.put("stockQuantity", stock);
+                    book.put("available", stock > 0);
+                    HttpRequest update = request(path)
+                            .header("Authorization", "Bearer " + adminToken)
+                            .header("Content-Type", "application/json")
+                            .PUT(HttpRequest.BodyPublishers.ofString(book.toString()))
+                            .build();
+                    return client.sendAsync(update, HttpResponse.BodyHandlers.discarding())
+                            .thenApply(HttpResponse::statusCode);
+                });
+    }
+
+    private CompletableFuture<Integer> get(String path) {
+        return client.sendAsync(request(path).GET().build(), HttpResponse.BodyHandlers.discarding())
+                .thenApply(HttpResponse::statusCode);
+    }
+
+    private CompletableFuture<Integer> post(String path, String json) {
+        HttpRequest request = request(path)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+        return client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .thenApply(HttpResponse::statusCode);
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(Duration.ofSeconds(30));
+    }
+
+    private ObjectNode readObject(String json) {
+        try {
+            return (ObjectNode) objectMapper.readTree(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Most shoppers stay on the first few pages; the probability halves with every page.
+     */
+    private static int shallowPage(SplittableRandom random) {
+        return Math.min(Long.numberOfTrailingZeros(random.nextLong() | (1L << 20)), 20);
+    }
+
+    static void registerUsers(AuthService authService, int users) {
+        for (int i = 0; i < users; i++) {
+            authService.register(RegisterRequest.builder()
+                    .username(username(i))
+                    .email(username(i) + "@loadtest.local")
+                    .password(PASSWORD)
+                    .build());
+        }
+    }
+
+    private static String username(int index) {
+        return "loadtest-user-" + index;
+    }
+
+    static Map<String, Integer> parseMix(String mix) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.split(":");
+            weights.put(parts[0].trim(), Integer.parseInt(parts[1].trim()));
+        }
+        return weights;
+    }
+
+    private static List<String> weighted(Map<String, Integer> mix) {
+        List<String> operations = new ArrayList<>();
+        mix.forEach((operation, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                operations.add(operation);
+            }
+        });
+        return operations;
+    }
+
+    /**
+     * Datasource overrides for the chosen database. Postgres must be on this machine: the harness never
+     * talks to anything beyond localhost.
+     */
+    static List<String> datasourceProperties(String db, Path directory, String user, String password) {
+        return switch (db) {
+            case "mem" -> List.of();
+            case "file" -> List.of("spring.datasource.url=jdbc:h2:file:" + directory.resolve("catalog") + ";CACHE_SIZE=65536");
+            default -> {
+                if (!db.startsWith("jdbc:postgresql://")) {
+                    throw new IllegalArgumentException("--db must be mem, file or a jdbc:postgresql:// URL");
+                }
+                String host = URI.create(db.substring("jdbc:".length())).getHost();
+                if (!LOCAL_HOSTS.contains(host)) {
+                    throw new IllegalArgumentException("Postgres must run on localhost, not " + host);
+                }
+                yield List.of(
+                        "spring.datasource.url=" + db,
+                        "spring.datasource.driver-class-name=org.postgresql.Driver",
+                        "spring.datasource.username=" + user,
+                        "spring.datasource.password=" + password,
+                        "spring.jpa.database-platform=org.hibernate.dialect.PostgreSQLDialect");
+            }
+        };
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package com.bookstore.bookstorebackend.loadtest;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.SplittableRandom;
+
+/**
+ * Catalog generator with the skew of a real bookstore rather than uniform noise: a few prolific authors
+ * and many with a single book, title words and categories drawn from Zipf distributions, log-normal
+ * prices and description lengths, ratings clustered around 4 and publication years weighted towards
+ * recent decades. The same distributions drive the workload ({@link #popularBookId},
+ * {@link #searchTerm}), so hot books and popular queries line up with what was seeded.
+ * <p>
+ * Everything is derived from a fixed seed: two runs with the same size produce the same catalog.
+ */
+public class SyntheticCatalog {
+
+    static final String[] CATEGORIES = {
+            "Fiction", "Mystery", "Romance", "Fantasy", "Science", "History", "Biography",
+            "Technology", "Children", "Travel", "Poetry", "Cooking", "Art", "Philosophy", "Business"
+    };
+
+    private static final String[] FIRST_NAMES = {
+            "James", "Mary", "John", "Patricia", "Robert", "Jennifer", "Michael", "Linda", "William", "Elizabeth",
+            "David", "Barbara", "Richard", "Susan", "Joseph", "Jessica", "Thomas", "Sarah", "Charles", "Karen",
+            "Daniel", "Nancy", "Matthew", "Lisa", "Anthony", "Margaret", "Mark", "Sandra", "Paul", "Ashley",
+            "Haruki", "Chimamanda", "Gabriel", "Isabel", "Orhan", "Elena", "Yuval", "Arundhati", "Kazuo", "Zadie",
+            "Ursula", "Octavia", "Neil", "Terry", "Agatha", "Fyodor", "Leo", "Virginia", "Jorge", "Italo",
+            "Sofia", "Lucas", "Amara", "Mateo", "Ingrid", "Tomas", "Leila", "Omar", "Nadia", "Pavel"
+    };
+
+    private static final String[] LAST_NAMES = {
+            "Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia", "Miller", "Davis", "Rodriguez", "Martinez",
+            "Hernandez", "Lopez", "Gonzalez", "Wilson", "Anderson", "Thomas", "Taylor", "Moore", "Jackson", "Martin",
+            "Lee", "Perez", "Thompson", "White", "Harris", "Sanchez", "Clark", "Ramirez", "Lewis", "Robinson",
+            "Walker", "Young", "Allen", "King", "Wright", "Scott", "Torres", "Nguyen", "Hill", "Flores",
+            "Murakami", "Adichie", "Marquez", "Allende", "Pamuk", "Ferrante", "Harari", "Roy", "Ishiguro", "Smithson",
+            "Le Guin", "Butler", "Gaiman", "Pratchett", "Christie", "Dostoevsky", "Tolstoy", "Woolf", "Borges", "Calvino",
+            "Novak", "Kowalski", "Andersen", "Lindqvist", "Rossi", "Dubois", "Schmidt", "Okafor", "Haddad", "Petrov"
+    };
+
+    private static final String[] ADJECTIVES = {
+            "Silent", "Lost", "Hidden", "Last", "Dark", "Golden", "Broken", "Secret", "Wild", "Forgotten",
+            "Little", "Red", "Long", "Burning", "Quiet", "Distant", "Invisible", "Bright", "Cold", "Endless",
+            "Crimson", "Hollow", "Sacred", "Restless", "Gentle", "Shattered", "Electric", "Midnight", "Northern", "Final"
+    };
+
+    private static final String[] NOUNS = {
+            "house", "night", "river", "city", "garden", "war", "road", "sea", "kingdom", "heart",
+            "storm", "empire", "girl", "wife", "shadow", "island", "forest", "winter", "summer", "letter",
+            "machine", "code", "memory", "stone", "fire", "light", "star", "mountain", "journey", "secret",
+            "history", "theory", "design", "pattern", "guide", "system", "mind", "time", "world", "ocean",
+            "bridge", "library", "orchard", "lighthouse", "harbor", "station", "clock", "mirror", "crown", "sword"
+    };
+
+    private static final String[] FILLER = {
+            "the", "a", "of", "and", "in", "to", "with", "her", "his", "their", "story", "life", "family",
+            "years", "after", "before", "between", "through", "new", "old", "young", "world", "who", "must",
+            "finds", "discovers", "returns", "learns", "against", "beyond", "across", "during", "where", "when"
+    };
+
+    private static final String INSERT_BOOK = "INSERT INTO books (id, title, author, description, isbn, category, price, " +
+            "stock_quantity, publication_year, image_url, rating, available, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final int BATCH_SIZE = 1000;
+    private static final long SEED = 42;
+
+    private final int size;
+    private final Zipf authors;
+    private final Zipf adjectives = new Zipf(ADJECTIVES.length, 0.9);
+    private final Zipf nouns = new Zipf(NOUNS.length, 0.9);
+    private final Zipf categories = new Zipf(CATEGORIES.length, 0.8);
+    private final Zipf hotBooks;
+
+    public SyntheticCatalog(int size) {
+        this.size = size;
+        // Roughly one author per 12 books, capped by the number of distinct names that can be formed
+        this.authors = new Zipf(Math.max(50, Math.min(size / 12, FIRST_NAMES.length * 26 * LAST_NAMES.length)), 1.05);
+        this.hotBooks = new Zipf(Math.min(size, 1_000_000), 0.99);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Inserts books 1..size through JDBC batches and moves the book sequence past them, printing
+     * progress for large catalogs.
+     */
+    public void seed(JdbcTemplate jdbc) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        long start = System.nanoTime();
+
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 1; i <= size; i++) {
+            int stock = random.nextInt(100) < 8 ? 0 : (int) Math.min(500, Math.round(-Math.log(1 - random.nextDouble()) * 25));
+            batch.add(new Object[]{
+                    (long) i,
+                    title(random),
+                    author(authors.sample(random)),
+                    description(random),
+                    String.format("979%010d", i),
+                    CATEGORIES[categories.sample(random)],
+                    price(random),
+                    stock,
+                    publicationYear(random),
+                    "https://covers.example.com/" + i + ".jpg",
+                    rating(random),
+                    stock > 0,
+                    now,
+                    now
+            });
+            if (batch.size() == BATCH_SIZE) {
+                jdbc.batchUpdate(INSERT_BOOK, batch);
+                batch.clear();
+            }
+            if (i % 1_000_000 == 0) {
+                System.out.printf("  seeded %,d books (%.0f rows/s)%n", i, i / ((System.nanoTime() - start) / 1e9));
+            }
+        }
+        if (!batch.isEmpty()) {
+            jdbc.batchUpdate(INSERT_BOOK, batch);
+        }
+        jdbc.execute("ALTER SEQUENCE book_seq RESTART WITH " + (size + 1));
+    }
+
+    /**
+     * Book id weighted by popularity: a small set of ids receives most of the traffic, as on a real
+     * storefront. Popular ids are spread over the catalog rather than clustered at the start.
+     */
+    public long popularBookId(SplittableRandom random) {
+        long rank = hotBooks.sample(random);
+        return 1 + Math.floorMod(rank * 2_654_435_761L, size);
+    }
+
+    /**
+     * A query a shopper would type: usually a popular title word, sometimes an author's last name.
+     */
+    public String searchTerm(SplittableRandom random) {
+        if (random.nextInt(4) == 0) {
+            String author = author(authors.sample(random));
+            return author.substring(author.lastIndexOf(' ') + 1);
+        }
+        return random.nextBoolean() ? NOUNS[nouns.sample(random)] : ADJECTIVES[adjectives.sample(random)].toLowerCase();
+    }
+
+    public String category(SplittableRandom random) {
+        return CATEGORIES[categories.sample(random)];
+    }
+
+    private String title(SplittableRandom random) {
+        String adjective = ADJECTIVES[adjectives.sample(random)];
+        String noun = capitalize(NOUNS[nouns.sample(random)]);
+        String other = capitalize(NOUNS[nouns.sample(random)]);
+        return switch (random.nextInt(6)) {
+            case 0 -> "The " + adjective + " " + noun;
+            case 1 -> "The " + noun + " of " + other;
+            case 2 -> adjective + " " + noun + "s";
+            case 3 -> "A " + noun + " in the " + other;
+            case 4 -> noun + " and " + other;
+            default -> "The " + noun;
+        };
+    }
+
+    static String author(int rank) {
+        int first = rank % FIRST_NAMES.length;
+        int last = (rank / FIRST_NAMES.length) % LAST_NAMES.length;
+        int initial = rank / (FIRST_NAMES.length * LAST_NAMES.length);
+        return initial == 0
+                ? FIRST_NAMES[first] + " " + LAST_NAMES[last]
+                : FIRST_NAMES[first] + " " + (char) ('A' + (initial - 1) % 26) + ". " + LAST_NAMES[last];
+    }
+
+    private String description(SplittableRandom random) {
+        // Log-normal length: median around 90 words, a long tail of multi-paragraph blurbs
+        int words = (int) Math.max(15, Math.min(600, Math.exp(4.5 + 0.6 * gaussian(random))));
+        StringBuilder description = new StringBuilder(words * 7);
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                description.append(' ');
+            }
+            description.append(random.nextInt(5) == 0 ? NOUNS[nouns.sample(random)] : FILLER[random.nextInt(FILLER.length)]);
+        }
+        return description.append('.').toString();
+    }
+
+    private static BigDecimal price(SplittableRandom random) {
+        double price = Math.exp(Math.log(16) + 0.5 * gaussian(random));
+        return BigDecimal.valueOf(Math.round(Math.max(2, Math.min(250, price)) * 100) - 1, 2);
+    }
+
+    private static int publicationYear(SplittableRandom random) {
+        int age = (int) Math.round(-Math.log(1 - random.nextDouble()) * 18);
+        return Math.max(1800, Year.now().getValue() - age);
+    }
+
+    private static double rating(SplittableRandom random) {
+        if (random.nextInt(10) == 0) {
+            return 0.0;
+        }
+        return Math.round(Math.max(1, Math.min(5, 3.9 + 0.6 * gaussian(random))) * 10) / 10.0;
+    }
+
+    private static double gaussian(SplittableRandom random) {
+        // Box-Muller; SplittableRandom has no nextGaussian on Java 17
+        return Math.sqrt(-2 * Math.log(1 - random.nextDouble())) * Math.cos(2 * Math.PI * random.nextDouble());
+    }
+
+    private static String capitalize(String word) {
+        return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+    }
+
+    /**
+     * Zipf sampler over ranks 0..n-1 by inverse CDF (binary search over the precomputed cumulative
+     * weights). Ranks are permuted once so the most popular item is not always index 0.
+     */
+    static final class Zipf {
+        private final double[] cumulative;
+        private final int[] permutation;
+
+        Zipf(int n, double exponent) {
+            cumulative = new double[n];
+            double sum = 0;
+            for (int k = 0; k < n; k++) {
+                sum += 1 / Math.pow(k + 1, exponent);
+                cumulative[k] = sum;
+            }
+            for (int k = 0; k < n; k++) {
+                cumulative[k] /= sum;
+            }
+            permutation = new int[n];
+            Arrays.setAll(permutation, k -> k);
+            Random shuffle = new Random(n);
+            for (int k = n - 1; k > 0; k--) {
+                int j = shuffle.nextInt(k + 1);
+                int swap = permutation[k];
+                permutation[k] = permutation[j];
+                permutation[j] = swap;
+            }
+        }
+
+        int sample(SplittableRandom random) {
+            int index = Arrays.binarySearch(cumulative, random.nextDouble());
+            int rank = index >= 0 ? index : Math.min(-index - 1, cumulative.length - 1);
+            return permutation[rank];
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.bookstore.bookstorebackend.loadtest;
+
+import com.bookstore.bookstorebackend.BookstoreBackendApplication;
+import com.bookstore.bookstorebackend.benchmark.CatalogFixture;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Closed-loop load test of the {@code /api/v1/books} read endpoints, comparing platform and virtual
+ * request threads. For every mode the backend is started in-process on a random port against its own
+ * H2 catalog, then each concurrency level runs for the given duration with that many clients, each
+ * sending its next request as soon as the previous one completes.
+ * <p>
+ * Options: {@code --clients=1000,5000 --duration=30 --books=10000 --modes=platform,virtual}.
+ */
+public class ThreadingLoadTest {
+
+    private static final List<String> ENDPOINTS = List.of("list", "byId", "category", "available");
+
+    public static void main(String[] args) throws Exception {
+        List<Integer> clients = Arrays.stream(option(args, "clients", "1000,5000").split(","))
+                .map(Integer::parseInt).toList();
+        int durationSeconds = Integer.parseInt(option(args, "duration", "30"));
+        int books = Integer.parseInt(option(args, "books", "10000"));
+        List<String> modes = List.of(option(args, "modes", "platform,virtual").split(","));
+
+        for (String mode : modes) {
+            try (ConfigurableApplicationContext context = startBackend("virtual".equals(mode))) {
+                seed(context, books);
+                String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+                for (int concurrency : clients) {
+                    run(baseUrl, concurrency, Duration.ofSeconds(durationSeconds), books)
+                            .print(mode + " threads, " + concurrency + " clients", durationSeconds);
+                }
+            }
+        }
+    }
+
+    static ConfigurableApplicationContext startBackend(boolean virtualThreads, String... extraProperties) {
+        List<String> defaults = List.of(
+                "server.port=0",
+                "spring.threads.virtual.enabled=" + virtualThreads,
+                "management.server.port=0",
+                "spring.datasource.url=jdbc:h2:mem:loadtest-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1",
+                "server.tomcat.max-connections=20000",
+                "server.tomcat.accept-count=2000",
+                "logging.level.root=WARN",
+                "logging.level.com.bookstore.bookstorebackend=WARN");
+        return new SpringApplicationBuilder(BookstoreBackendApplication.class)
+                .run(CatalogFixture.arguments(defaults, extraProperties));
+    }
+
+    static void seed(ConfigurableApplicationContext context, int books) {
+        CatalogFixture.seedBooks(context.getBean(JdbcTemplate.class), books);
+    }
+
+    static LatencyRecorder run(String baseUrl, int concurrency, Duration duration, int books) {
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        LatencyRecorder recorder = new LatencyRecorder();
+        long deadline = System.nanoTime() + duration.toNanos();
+
+        CompletableFuture<?>[] loops = new CompletableFuture<?>[concurrency];
+        for (int i = 0; i < concurrency; i++) {
+            loops[i] = clientLoop(client, baseUrl, books, deadline, recorder);
+        }
+        CompletableFuture.allOf(loops).join();
+        return recorder;
+    }
+
+    private static CompletableFuture<Void> clientLoop(HttpClient client, String baseUrl, int books, long deadline,
+                                                      LatencyRecorder recorder) {
+        if (System.nanoTime() >= deadline) {
+            return CompletableFuture.completedFuture(null);
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String endpoint = ENDPOINTS.get(random.nextInt(ENDPOINTS.size()));
+        String path = switch (endpoint) {
+            case "list" -> "/api/v1/books?page=" + random.nextInt(100) + "&size=10";
+            case "byId" -> "/api/v1/books/" + (1 + random.nextInt(books));
+            case "category" -> "/api/v1/books/category/" + CatalogFixture.randomCategory(random) + "?size=10";
+            default -> "/api/v1/books/available?page=" + random.nextInt(100) + "&size=10";
+        };
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(60))
+                .GET()
+                .build();
+
+        long start = System.nanoTime();
+        return client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .handle((response, error) -> {
+                    recorder.record(endpoint, System.nanoTime() - start, error == null ? response.statusCode() : 0);
+                    return null;
+                })
+                .thenCompose(ignored -> clientLoop(client, baseUrl, books, deadline, recorder));
+    }
+
+    static String option(String[] args, String name, String defaultValue) {
+        String prefix = "--" + name + "=";
+        return Arrays.stream(args)
+                .filter(arg -> arg.startsWith(prefix))
+                .map(arg -> arg.substring(prefix.length()))
+                .findFirst()
+                .orElse(defaultValue);
+    }
+}
@@ -1,5 +1,6 @@
 package com.bookstore.bookstorebackend.config;
 
+import com.bookstore.bookstorebackend.service.OrderIdempotencyStore;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
@@ -13,6 +14,7 @@ public class CorsConfig implements WebMvcConfigurer {
                 .allowedOrigins("http://localhost:4200", "http://localhost:3000")
                 .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS", "PATCH")
                 .allowedHeaders("*")
+                .exposedHeaders(OrderIdempotencyStore.REPLAYED_HEADER)
                 .allowCredentials(true)
                 .maxAge(3600);
     }
@@ -0,0 +1,47 @@
+package com.bookstore.bookstorebackend.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Set;
+
+/**
+ * Application metrics exported at {@code /actuator/prometheus}. Endpoint latency comes from Spring's
+ * {@code http.server.requests} timer and repository latency from {@code spring.data.repository.invocations};
+ * service classes annotated with {@code @Timed} are timed by the aspect below.
+ * <p>
+ * Percentile histograms multiply the number of series per endpoint, so they are only published for the
+ * URI templates listed in {@code bookstore.metrics.http.histogram-uris}.
+ */
+@Configuration
+public class MetricsConfig {
+
+    private static final String HTTP_SERVER_REQUESTS = "http.server.requests";
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+
+    @Bean
+    public MeterFilter endpointHistogramFilter(@Value("${bookstore.metrics.http.histogram-uris:}") Set<String> uris) {
+        return new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                if (!HTTP_SERVER_REQUESTS.equals(id.getName()) || !uris.contains(id.getTag("uri"))) {
+                    return config;
+                }
+                return DistributionStatisticConfig.builder()
+                        .percentilesHistogram(true)
+                        .build()
+                        .merge(config);
+            }
+        };
+    }
+}
@@ -0,0 +1,139 @@
+package com.bookstore.bookstorebackend.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Explains the plans of the key repository queries at startup and warns about any that would scan a
+ * table sequentially, which usually means a migration is missing an index or a query stopped matching
+ * one. The SQL mirrors what Hibernate generates for the repository methods, with sample values.
+ * <p>
+ * On Postgres sequential scans are disabled for the check, so that a small or empty table does not hide
+ * a missing index: a sequential scan in the plan then means no index can serve the query. Search relies
+ * on trigram indexes and is only checked there.
+ */
+@Component
+@ConditionalOnProperty(name = "bookstore.db.plan-check.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class QueryPlanCheck {
+
+    private static final List<CheckedQuery> QUERIES = List.of(
+            new CheckedQuery("books by category",
+                    "SELECT id, title FROM books WHERE category = 'Fiction' ORDER BY id LIMIT 20", false),
+            new CheckedQuery("books by category after id",
+                    "SELECT id, title FROM books WHERE category = 'Fiction' AND id > 1000 ORDER BY id LIMIT 20", false),
+            new CheckedQuery("count books by category",
+                    "SELECT COUNT(*) FROM books WHERE category = 'Fiction'", false),
+            new CheckedQuery("available books",
+                    "SELECT id, title FROM books WHERE available = TRUE ORDER BY id LIMIT 20", false),
+            new CheckedQuery("available books after id",
+                    "SELECT id, title FROM books WHERE available = TRUE AND id > 1000 ORDER BY id LIMIT 20", false),
+            new CheckedQuery("books by price",
+                    "SELECT id, title FROM books ORDER BY price, id LIMIT 20", false),
+            new CheckedQuery("books by price after cursor",
+                    "SELECT id, title FROM books WHERE price >= 10.00 AND (price > 10.00 OR id > 1000) " +
+                            "ORDER BY price, id LIMIT 20", false),
+            new CheckedQuery("books by title after cursor",
+                    "SELECT id, title FROM books WHERE title >= 'M' AND (title > 'M' OR id > 1000) " +
+                            "ORDER BY title, id LIMIT 20", false),
+            new CheckedQuery("books by rating",
+                    "SELECT id, title FROM books ORDER BY rating, id LIMIT 20", false),
+            new CheckedQuery("books by publication year",
+                    "SELECT id, title FROM books ORDER BY publication_year, id LIMIT 20", false),
+            new CheckedQuery("books by creation time",
+                    "SELECT id, title FROM books ORDER BY created_at, id LIMIT 20", false),
+            new CheckedQuery("book by isbn",
+                    "SELECT id FROM books WHERE isbn = '9780000000000'", false),
+            new CheckedQuery("count search results",
+                    "SELECT COUNT(*) FROM books WHERE LOWER(title) LIKE '%war%' OR LOWER(author) LIKE '%war%' " +
+                            "OR LOWER(category) LIKE '%war%' OR LOWER(description) LIKE '%war%'", true),
+            new CheckedQuery("orders of a user",
+                    "SELECT id FROM orders WHERE user_id = 1 ORDER BY created_at DESC LIMIT 10", false),
+            new CheckedQuery("items of orders",
+                    "SELECT id, book_id FROM order_items WHERE order_id IN (1, 2, 3)", false),
+            new CheckedQuery("due order outbox rows",
+                    "SELECT id FROM order_outbox WHERE status = 'PENDING' AND available_at <= CURRENT_TIMESTAMP " +
+                            "ORDER BY available_at, id LIMIT 100", false),
+            new CheckedQuery("user by username",
+                    "SELECT id FROM users WHERE username = 'reader'", false));
+
+    @Autowired
+    private DataSource dataSource;
+
+    record CheckedQuery(String name, String sql, boolean postgresOnly) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        try {
+            List<String> sequential = check();
+            if (sequential.isEmpty()) {
+                log.info("Query plan check: all key queries are served by indexes");
+            }
+        } catch (SQLException | RuntimeException ex) {
+            log.warn("Query plan check could not run: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * Explains every key query and logs a warning with the plan of each one that scans sequentially.
+     *
+     * @return the names of those queries
+     */
+    public List<String> check() throws SQLException {
+        List<String> sequential = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection()) {
+            boolean postgres = connection.getMetaData().getDatabaseProductName().toLowerCase().contains("postgres");
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement()) {
+                if (postgres) {
+                    statement.execute("SET LOCAL enable_seqscan = off");
+                }
+                for (CheckedQuery query : QUERIES) {
+                    if (query.postgresOnly() && !postgres) {
+                        continue;
+                    }
+                    String plan = explain(statement, query.sql());
+                    boolean scans = postgres ? plan.contains("Seq Scan") : plan.contains(".tableScan");
+                    if (scans) {
+                        sequential.add(query.name());
+                        log.warn("Query plan check: '{}' scans a table sequentially, check the indexes:\n{}\n{}",
+                                query.name(), query.sql(), plan);
+                    } else {
+                        log.debug("Query plan check: '{}':\n{}", query.name(), plan);
+                    }
+                }
+            } finally {
+                connection.rollback();
+                connection.setAutoCommit(autoCommit);
+            }
+        }
+        return sequential;
+    }
+
+    private static String explain(Statement statement, String sql) throws SQLException {
+        StringBuilder plan = new StringBuilder();
+        try (ResultSet rows = statement.executeQuery("EXPLAIN " + sql)) {
+            while (rows.next()) {
+                if (!plan.isEmpty()) {
+                    plan.append('\n');
+                }
+                plan.append(rows.getString(1));
+            }
+        }
+        return plan.toString();
+    }
+}
@@ -0,0 +1,65 @@
+package com.bookstore.bookstorebackend.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Primary/replica data sources, active when {@code bookstore.datasource.replica.url} is set. The primary
+ * pool is built from {@code spring.datasource.*} exactly as Spring Boot would; the replica pool has its
+ * own {@code bookstore.datasource.replica.hikari.*} settings. JPA uses the routing data source, which
+ * sends read-only transactions to the replica.
+ */
+@Configuration
+@ConditionalOnProperty(name = "bookstore.datasource.replica.url")
+@Slf4j
+public class ReadReplicaConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @ConfigurationProperties("bookstore.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(
+            @Value("${bookstore.datasource.replica.url}") String url,
+            @Value("${bookstore.datasource.replica.username:${spring.datasource.username:}}") String username,
+            @Value("${bookstore.datasource.replica.password:${spring.datasource.password:}}") String password) {
+        return DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+    }
+
+    @Bean
+    public ReplicationLagGuard replicationLagGuard(
+            @Value("${bookstore.datasource.replica.read-your-writes-window:5s}") Duration window,
+            @Value("${bookstore.datasource.replica.max-tracked-users:100000}") long maximumUsers) {
+        return new ReplicationLagGuard(window, maximumUsers);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") DataSource replica,
+                                 ReplicationLagGuard lagGuard) {
+        log.info("Routing read-only transactions to the read replica");
+        return new LazyConnectionDataSourceProxy(new ReadReplicaRoutingDataSource(primary, replica, lagGuard));
+    }
+}
@@ -0,0 +1,84 @@
+package com.bookstore.bookstorebackend.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Sends connections for read-only transactions to the replica and everything else (read-write
+ * transactions, non-transactional work such as startup index builds) to the primary.
+ * <p>
+ * The decision reads the transaction's read-only flag, which Spring only publishes after the transaction
+ * has begun, so this data source must sit behind a {@code LazyConnectionDataSourceProxy} that defers
+ * fetching the real connection until the first statement.
+ * <p>
+ * Read-write transactions of an authenticated user report the commit to the {@link ReplicationLagGuard},
+ * which pins that user's reads to the primary for the lag window.
+ */
+public class ReadReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    enum Target {
+        PRIMARY,
+        REPLICA
+    }
+
+    private static final ThreadLocal<Boolean> FORCE_PRIMARY = new ThreadLocal<>();
+
+    private final ReplicationLagGuard lagGuard;
+
+    public ReadReplicaRoutingDataSource(DataSource primary, DataSource replica, ReplicationLagGuard lagGuard) {
+        this.lagGuard = lagGuard;
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    /**
+     * Runs {@code work} with connections taken from the primary even inside a read-only transaction,
+     * for reads whose result outlives the request (e.g. cache fills) and so must not be behind. Only
+     * effective if the transaction has not fetched its connection yet. Without a replica this is a no-op.
+     */
+    public static <T> T onPrimary(Supplier<T> work) {
+        Boolean previous = FORCE_PRIMARY.get();
+        FORCE_PRIMARY.set(Boolean.TRUE);
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) {
+                FORCE_PRIMARY.remove();
+            }
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return Target.PRIMARY;
+        }
+        String user = lagGuard.currentUser();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            recordWriteOnCommit(user);
+            return Target.PRIMARY;
+        }
+        if (FORCE_PRIMARY.get() != null || lagGuard.mustReadFromPrimary(user)) {
+            return Target.PRIMARY;
+        }
+        return Target.REPLICA;
+    }
+
+    private void recordWriteOnCommit(String user) {
+        if (user == null || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                lagGuard.recordWrite(user);
+            }
+        });
+    }
+}
@@ -0,0 +1,47 @@
+package com.bookstore.bookstorebackend.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+
+/**
+ * Remembers which users committed a write within the last {@code window}, the longest replication lag
+ * we are prepared to hide. Their read-only transactions are sent to the primary until the window has
+ * passed, so a user always reads their own writes; everyone else may see the replica slightly behind.
+ */
+public class ReplicationLagGuard {
+
+    private final Cache<String, Boolean> recentWriters;
+
+    public ReplicationLagGuard(Duration window, long maximumUsers) {
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(window)
+                .maximumSize(maximumUsers)
+                .build();
+    }
+
+    /**
+     * The authenticated user of the current thread, or {@code null} for anonymous and system work.
+     */
+    public String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || "anonymousUser".equals(authentication.getPrincipal())) {
+            return null;
+        }
+        return authentication.getName();
+    }
+
+    public void recordWrite(String username) {
+        if (username != null) {
+            recentWriters.put(username, Boolean.TRUE);
+        }
+    }
+
+    public boolean mustReadFromPrimary(String username) {
+        return username != null && recentWriters.getIfPresent(username) != null;
+    }
+}
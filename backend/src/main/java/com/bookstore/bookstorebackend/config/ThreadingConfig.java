@@ -0,0 +1,60 @@
+package com.bookstore.bookstorebackend.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+
+import java.time.Duration;
+
+/**
+ * Request execution mode. With {@code spring.threads.virtual.enabled=true} Spring Boot runs Tomcat
+ * request handling and {@code @Async} work on virtual threads instead of the platform thread pools.
+ * <p>
+ * Virtual threads remove the request thread cap, so the connection limiter queues callers on a fair
+ * semaphore sized to the Hikari pool instead of letting thousands of them contend inside the pool.
+ */
+@Configuration
+@EnableAsync
+@Slf4j
+public class ThreadingConfig {
+
+    private static final int HIKARI_DEFAULT_POOL_SIZE = 10;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @PostConstruct
+    void logThreadingMode() {
+        log.info("Request execution uses {} threads", virtualThreads ? "virtual" : "platform");
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "bookstore.datasource.connection-limiter.enabled", havingValue = "true")
+    public static BeanPostProcessor connectionLimitingDataSourcePostProcessor(
+            @Value("${bookstore.datasource.connection-limiter.permits:0}") int permits,
+            @Value("${bookstore.datasource.connection-limiter.acquire-timeout:30s}") Duration acquireTimeout) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                // Limit each connection pool (primary and replica), not the routing data source in front of them
+                if (bean instanceof HikariDataSource pool) {
+                    int limit = permits > 0 ? permits : poolSize(pool);
+                    log.info("Limiting '{}' to {} concurrent connections", beanName, limit);
+                    return new ConnectionLimitingDataSource(pool, limit, acquireTimeout);
+                }
+                return bean;
+            }
+        };
+    }
+
+    private static int poolSize(HikariDataSource pool) {
+        // Hikari only applies its default size when the pool starts
+        return pool.getMaximumPoolSize() > 0 ? pool.getMaximumPoolSize() : HIKARI_DEFAULT_POOL_SIZE;
+    }
+}
@@ -0,0 +1,95 @@
+package com.bookstore.bookstorebackend.controller;
+
+import com.bookstore.bookstorebackend.dto.CacheStatsDTO;
+import com.bookstore.bookstorebackend.dto.InventoryDTO;
+import com.bookstore.bookstorebackend.dto.PasswordHashingStatsDTO;
+import com.bookstore.bookstorebackend.entity.Role;
+import com.bookstore.bookstorebackend.security.PasswordHashingExecutor;
+import com.bookstore.bookstorebackend.service.BookCache;
+import com.bookstore.bookstorebackend.service.InventoryService;
+import com.bookstore.bookstorebackend.service.UserService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/v1/admin")
+@Slf4j
+@PreAuthorize("hasRole('ADMIN')")
+@SecurityRequirement(name = "bearerAuth")
+@Tag(name = "Administration", description = "Operational endpoints (Admin only)")
+public class AdminController {
+
+    @Autowired
+    private BookCache bookCache;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private PasswordHashingExecutor passwordHashingExecutor;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @GetMapping("/cache/books")
+    @Operation(summary = "Get book cache statistics")
+    public ResponseEntity<CacheStatsDTO> getBookCacheStats() {
+        return ResponseEntity.ok(bookCache.stats());
+    }
+
+    @DeleteMapping("/cache/books")
+    @Operation(summary = "Clear the book cache")
+    public ResponseEntity<Void> clearBookCache() {
+        log.info("Clearing book cache");
+        bookCache.invalidateAll();
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/password-hashing")
+    @Operation(summary = "Get password hashing pool statistics", description = "Queue depth, rejections, queue wait and hash latency")
+    public ResponseEntity<PasswordHashingStatsDTO> getPasswordHashingStats() {
+        return ResponseEntity.ok(passwordHashingExecutor.stats());
+    }
+
+    @PutMapping("/users/{username}/enabled")
+    @Operation(summary = "Enable or disable a user", description = "Takes effect immediately, also for issued tokens")
+    public ResponseEntity<Void> setUserEnabled(@PathVariable String username, @RequestParam boolean enabled) {
+        log.info("Setting enabled={} for user: {}", enabled, username);
+        userService.setEnabled(username, enabled);
+        return ResponseEntity.noContent().build();
+    }
+
+    @DeleteMapping("/users/{username}/roles/{role}")
+    @Operation(summary = "Revoke a role from a user", description = "Takes effect immediately, also for issued tokens")
+    public ResponseEntity<Void> revokeUserRole(@PathVariable String username, @PathVariable Role.ERole role) {
+        log.info("Revoking {} from user: {}", role, username);
+        userService.revokeRole(username, role);
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/inventory/books/{id}")
+    @Operation(summary = "Get a book's stock", description = "Per-slot quantities when the stock is sharded")
+    public ResponseEntity<InventoryDTO> getInventory(@PathVariable Long id) {
+        return ResponseEntity.ok(inventoryService.getInventory(id));
+    }
+
+    @PutMapping("/inventory/books/{id}/sharding")
+    @Operation(summary = "Shard a book's stock", description = "Splits the stock across slots so concurrent buyers of a hot book do not queue on one row")
+    public ResponseEntity<InventoryDTO> enableStockSharding(@PathVariable Long id, @RequestParam(defaultValue = "16") int slots) {
+        log.info("Sharding stock of book {} across {} slots", id, slots);
+        return ResponseEntity.ok(inventoryService.enableSharding(id, slots));
+    }
+
+    @DeleteMapping("/inventory/books/{id}/sharding")
+    @Operation(summary = "Stop sharding a book's stock", description = "Moves the slot total back into the book")
+    public ResponseEntity<InventoryDTO> disableStockSharding(@PathVariable Long id) {
+        log.info("Unsharding stock of book {}", id);
+        return ResponseEntity.ok(inventoryService.disableSharding(id));
+    }
+}
@@ -1,20 +1,47 @@
 package com.bookstore.bookstorebackend.controller;
 
 import com.bookstore.bookstorebackend.dto.BookDTO;
+import com.bookstore.bookstorebackend.dto.BookImportResultDTO;
+import com.bookstore.bookstorebackend.dto.BookSummaryDTO;
+import com.bookstore.bookstorebackend.dto.CursorPage;
+import com.bookstore.bookstorebackend.dto.FacetsDTO;
+import com.bookstore.bookstorebackend.exception.BadRequestException;
+import com.bookstore.bookstorebackend.repository.BookSort;
+import com.bookstore.bookstorebackend.service.BookExportService;
+import com.bookstore.bookstorebackend.service.BookImportService;
 import com.bookstore.bookstorebackend.service.BookService;
+import com.bookstore.bookstorebackend.service.BookSortPolicy;
+import com.bookstore.bookstorebackend.service.CatalogChangeBroadcaster;
+import com.bookstore.bookstorebackend.service.CatalogVersion;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/v1/books")
@@ -22,64 +49,189 @@ import org.springframework.web.bind.annotation.*;
 @Tag(name = "Books", description = "Book management endpoints")
 public class BookController {
 
+    private static final String SORT_RELEVANCE = "relevance";
+
     @Autowired
     private BookService bookService;
 
+    @Autowired
+    private BookImportService bookImportService;
+
+    @Autowired
+    private BookExportService bookExportService;
+
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    @Autowired
+    private BookSortPolicy bookSortPolicy;
+
+    @Autowired
+    private CatalogChangeBroadcaster catalogChangeBroadcaster;
+
+    @Value("${bookstore.http.catalog.max-age:30s}")
+    private Duration catalogMaxAge;
+
+    private String catalogCacheControl;
+
+    @PostConstruct
+    void init() {
+        catalogCacheControl = CacheControl.maxAge(catalogMaxAge).cachePublic().getHeaderValue();
+    }
+
     @GetMapping("/{id}")
-    @Operation(summary = "Get book by ID")
-    public ResponseEntity<BookDTO> getBookById(@PathVariable Long id) {
+    @Operation(summary = "Get book by ID", description = "Carries a strong ETag; If-None-Match and If-Modified-Since are answered with 304")
+    public ResponseEntity<BookDTO> getBookById(@PathVariable Long id, ServletWebRequest request) {
         log.info("Fetching book with id: {}", id);
+        LocalDateTime updatedAt = bookService.getBookLastModified(id);
+        if (notModified(request, bookETag(id, updatedAt), epochMillis(updatedAt))) {
+            return null;
+        }
         return ResponseEntity.ok(bookService.getBookById(id));
     }
 
     @GetMapping
-    @Operation(summary = "Get all books with pagination")
-    public ResponseEntity<Page<BookDTO>> getAllBooks(
+    @Operation(summary = "Get all books with pagination",
+            description = "sortBy is one of id, price, title, rating, publicationYear, createdAt; ties are broken by id")
+    public ResponseEntity<Page<BookSummaryDTO>> getAllBooks(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "id") String sortBy,
-            @RequestParam(defaultValue = "ASC") Sort.Direction direction) {
+            @RequestParam(defaultValue = "ASC") String direction,
+            ServletWebRequest request) {
         log.info("Fetching all books - page: {}, size: {}", page, size);
+        Pageable pageable = bookSortPolicy.pageable(sortBy, direction, page, size);
+        if (notModified(request, catalogVersion.etag(), catalogVersion.lastModified())) {
+            return null;
+        }
 
-        Pageable pageable = PageRequest.of(page, size, Sort.by(direction, sortBy));
         return ResponseEntity.ok(bookService.getAllBooks(pageable));
     }
 
+    @GetMapping("/scroll")
+    @Operation(summary = "Get all books with cursor pagination",
+            description = "Pass the nextCursor of the previous response as 'after', with the same sortBy and direction; " +
+                    "sortBy is one of id, price, title. No total count is computed")
+    public ResponseEntity<CursorPage<BookSummaryDTO>> scrollAllBooks(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "id") String sortBy,
+            @RequestParam(defaultValue = "ASC") String direction,
+            ServletWebRequest request) {
+        log.info("Scrolling all books - size: {}", size);
+        BookSort sort = bookSortPolicy.sort(sortBy);
+        Sort.Direction sortDirection = bookSortPolicy.direction(direction);
+        if (notModified(request, catalogVersion.etag(), catalogVersion.lastModified())) {
+            return null;
+        }
+        return ResponseEntity.ok(bookService.scrollAllBooks(after, size, sort, sortDirection));
+    }
+
     @GetMapping("/search")
-    @Operation(summary = "Search books")
-    public ResponseEntity<Page<BookDTO>> searchBooks(
+    @Operation(summary = "Search books", description = "Use sort=relevance to rank results by BM25 relevance; " +
+            "facets=true adds category counts over all matches")
+    public ResponseEntity<Page<BookSummaryDTO>> searchBooks(
             @RequestParam String query,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String sort,
+            @RequestParam(defaultValue = "false") boolean facets,
+            ServletWebRequest request) {
         log.info("Searching books with query: {}", query);
+        Pageable pageable = bookSortPolicy.pageable(page, size);
+        boolean byRelevance = sort != null && !sort.isBlank();
+        if (byRelevance && !SORT_RELEVANCE.equalsIgnoreCase(sort)) {
+            throw new BadRequestException("Unsupported sort for search: " + sort);
+        }
+        if (notModified(request, catalogVersion.etag(), catalogVersion.lastModified())) {
+            return null;
+        }
+
+        return ResponseEntity.ok(byRelevance
+                ? bookService.searchBooksByRelevance(query, pageable, facets)
+                : bookService.searchBooks(query, pageable, facets));
+    }
+
+    @GetMapping("/facets")
+    @Operation(summary = "Get category facets", description = "Book counts per category, with available and in-stock counts")
+    public ResponseEntity<FacetsDTO> getFacets(ServletWebRequest request) {
+        if (notModified(request, catalogVersion.etag(), catalogVersion.lastModified())) {
+            return null;
+        }
+        return ResponseEntity.ok(bookService.getFacets());
+    }
 
-        Pageable pageable = PageRequest.of(page, size);
-        return ResponseEntity.ok(bookService.searchBooks(query, pageable));
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream catalog changes",
+            description = "Server-sent events with a delta per created, updated, restocked or deleted book, "
+                    + "optionally only for the given categories and book ids. A resync event means changes were "
+                    + "dropped and the client should reload")
+    public SseEmitter streamChanges(
+            @RequestParam(required = false) List<String> category,
+            @RequestParam(required = false) List<Long> ids) {
+        return catalogChangeBroadcaster.subscribe(
+                category == null ? List.of() : category,
+                ids == null ? List.of() : ids);
     }
 
     @GetMapping("/category/{category}")
     @Operation(summary = "Get books by category")
-    public ResponseEntity<Page<BookDTO>> getBooksByCategory(
+    public ResponseEntity<Page<BookSummaryDTO>> getBooksByCategory(
             @PathVariable String category,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            ServletWebRequest request) {
         log.info("Fetching books by category: {}", category);
+        Pageable pageable = bookSortPolicy.pageable(page, size);
+        if (notModified(request, catalogVersion.etag(), catalogVersion.lastModified())) {
+            return null;
+        }
 
-        Pageable pageable = PageRequest.of(page, size);
         return ResponseEntity.ok(bookService.getBooksByCategory(category, pageable));
     }
 
+    @GetMapping("/category/{category}/scroll")
+    @Operation(summary = "Get books by category with cursor pagination")
+    public ResponseEntity<CursorPage<BookSummaryDTO>> scrollBooksByCategory(
+            @PathVariable String category,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "10") int size,
+            ServletWebRequest request) {
+        log.info("Scrolling books by category: {}", category);
+        if (notModified(request, catalogVersion.etag(), catalogVersion.lastModified())) {
+            return null;
+        }
+        return ResponseEntity.ok(bookService.scrollBooksByCategory(category, after, size));
+    }
+
     @GetMapping("/available")
     @Operation(summary = "Get available books")
-    public ResponseEntity<Page<BookDTO>> getAvailableBooks(
+    public ResponseEntity<Page<BookSummaryDTO>> getAvailableBooks(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            ServletWebRequest request) {
         log.info("Fetching available books");
+        Pageable pageable = bookSortPolicy.pageable(page, size);
+        if (notModified(request, catalogVersion.etag(), catalogVersion.lastModified())) {
+            return null;
+        }
 
-        Pageable pageable = PageRequest.of(page, size);
         return ResponseEntity.ok(bookService.getAvailableBooks(pageable));
     }
 
+    @GetMapping("/available/scroll")
+    @Operation(summary = "Get available books with cursor pagination")
+    public ResponseEntity<CursorPage<BookSummaryDTO>> scrollAvailableBooks(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "10") int size,
+            ServletWebRequest request) {
+        log.info("Scrolling available books");
+        if (notModified(request, catalogVersion.etag(), catalogVersion.lastModified())) {
+            return null;
+        }
+        return ResponseEntity.ok(bookService.scrollAvailableBooks(after, size));
+    }
+
     @PostMapping
     @PreAuthorize("hasRole('ADMIN')")
     @SecurityRequirement(name = "bearerAuth")
@@ -89,6 +241,36 @@ public class BookController {
         return ResponseEntity.status(HttpStatus.CREATED).body(bookService.createBook(bookDTO));
     }
 
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson", "application/jsonl"})
+    @PreAuthorize("hasRole('ADMIN')")
+    @SecurityRequirement(name = "bearerAuth")
+    @Operation(summary = "Bulk import books (Admin only)",
+            description = "Streams a CSV (with header row) or JSON-lines body; existing or repeated ISBNs and invalid rows are reported and skipped")
+    public ResponseEntity<BookImportResultDTO> importBooks(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            InputStream body) throws IOException {
+        log.info("Importing books from {} body", contentType);
+        return ResponseEntity.ok(bookImportService.importBooks(body, contentType));
+    }
+
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    @SecurityRequirement(name = "bearerAuth")
+    @Operation(summary = "Export the whole catalog (Admin only)",
+            description = "Streams every book as JSON lines (format=jsonl) or CSV (format=csv), optionally gzip-compressed")
+    public ResponseEntity<StreamingResponseBody> exportBooks(
+            @RequestParam(defaultValue = "jsonl") String format,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        BookExportService.Format exportFormat = BookExportService.Format.fromParameter(format);
+        log.info("Exporting catalog as {} (gzip: {})", exportFormat.getExtension(), gzip);
+
+        String filename = "books." + exportFormat.getExtension() + (gzip ? ".gz" : "");
+        return ResponseEntity.ok()
+                .contentType(gzip ? MediaType.parseMediaType("application/gzip") : exportFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+                .body(out -> bookExportService.export(out, exportFormat, gzip));
+    }
+
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     @SecurityRequirement(name = "bearerAuth")
@@ -107,4 +289,25 @@ public class BookController {
         bookService.deleteBook(id);
         return ResponseEntity.noContent().build();
     }
+
+    /**
+     * Marks the response publicly cacheable and evaluates the request's preconditions. When it returns
+     * {@code true} the 304 status and validators are already on the response and the handler returns
+     * {@code null}; otherwise the validators are set and the handler builds the body as usual. Validators
+     * are read before the body, so a concurrent change can make a body newer than its ETag, never older.
+     */
+    private boolean notModified(ServletWebRequest request, String etag, long lastModified) {
+        request.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, catalogCacheControl);
+        return request.checkNotModified(etag, lastModified);
+    }
+
+    private static String bookETag(Long id, LocalDateTime updatedAt) {
+        long micros = updatedAt == null ? 0
+                : updatedAt.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + updatedAt.getNano() / 1_000;
+        return "\"" + id + "-" + Long.toString(micros, Character.MAX_RADIX) + "\"";
+    }
+
+    private static long epochMillis(LocalDateTime updatedAt) {
+        return updatedAt == null ? -1 : updatedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
 }
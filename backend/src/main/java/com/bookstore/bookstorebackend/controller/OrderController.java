@@ -0,0 +1,81 @@
+package com.bookstore.bookstorebackend.controller;
+
+import com.bookstore.bookstorebackend.dto.OrderDTO;
+import com.bookstore.bookstorebackend.dto.OrderRequest;
+import com.bookstore.bookstorebackend.exception.BadRequestException;
+import com.bookstore.bookstorebackend.service.OrderIdempotencyStore;
+import com.bookstore.bookstorebackend.service.OrderService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/v1/orders")
+@Slf4j
+@SecurityRequirement(name = "bearerAuth")
+@Tag(name = "Orders", description = "Order placement and history")
+public class OrderController {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderIdempotencyStore orderIdempotencyStore;
+
+    @Value("${bookstore.orders.max-page-size:100}")
+    private int maxPageSize;
+
+    @PostMapping
+    @Operation(summary = "Place an order", description = "Reserves stock for every item or fails without reserving any. " +
+            "Retries carrying the same Idempotency-Key return the original order, marked with Idempotent-Replayed: true")
+    public ResponseEntity<OrderDTO> placeOrder(
+            @Valid @RequestBody OrderRequest request,
+            @RequestHeader(value = OrderIdempotencyStore.HEADER, required = false) String idempotencyKey,
+            Authentication authentication) {
+        String username = authentication.getName();
+        log.info("Placing order for user: {}", username);
+        if (idempotencyKey == null) {
+            return new ResponseEntity<>(orderService.placeOrder(username, request), HttpStatus.CREATED);
+        }
+
+        OrderIdempotencyStore.Result result = orderIdempotencyStore.execute(username, idempotencyKey, request,
+                () -> orderService.placeOrder(username, request));
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .header(OrderIdempotencyStore.REPLAYED_HEADER, String.valueOf(result.replayed()))
+                .body(result.order());
+    }
+
+    @GetMapping
+    @Operation(summary = "Get the current user's orders, newest first")
+    public ResponseEntity<Page<OrderDTO>> getMyOrders(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            Authentication authentication) {
+        log.info("Fetching orders for user: {}", authentication.getName());
+        if (page < 0) {
+            throw new BadRequestException("Page must not be negative");
+        }
+        if (size < 1 || size > maxPageSize) {
+            throw new BadRequestException("Size must be between 1 and " + maxPageSize);
+        }
+        return ResponseEntity.ok(orderService.getOrdersForUser(authentication.getName(),
+                PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt", "id"))));
+    }
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Get one of the current user's orders")
+    public ResponseEntity<OrderDTO> getMyOrder(@PathVariable Long id, Authentication authentication) {
+        return ResponseEntity.ok(orderService.getOrderForUser(authentication.getName(), id));
+    }
+}
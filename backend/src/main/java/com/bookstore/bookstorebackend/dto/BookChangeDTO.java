@@ -0,0 +1,28 @@
+package com.bookstore.bookstorebackend.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+
+import java.math.BigDecimal;
+
+/**
+ * A catalog change as sent on the change stream: only the fields the change can have touched, nulls
+ * left out. {@code created} and {@code updated} carry the listing fields, {@code stock} only stock and
+ * availability, {@code deleted} only the id.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BookChangeDTO {
+    private String type;
+    private Long id;
+    private String title;
+    private String author;
+    private String category;
+    private BigDecimal price;
+    private Integer stockQuantity;
+    private Boolean available;
+}
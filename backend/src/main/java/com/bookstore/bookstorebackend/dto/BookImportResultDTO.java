@@ -0,0 +1,20 @@
+package com.bookstore.bookstorebackend.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BookImportResultDTO {
+    private Long rowsRead;
+    private Long imported;
+    private Long failed;
+    private Long durationMillis;
+    private Double rowsPerSecond;
+    private List<ImportErrorDTO> errors;
+    private Boolean errorsTruncated;
+}
@@ -0,0 +1,28 @@
+package com.bookstore.bookstorebackend.dto;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+
+/**
+ * The columns a listing shows: everything but the description and audit timestamps. Selected directly
+ * by constructor expressions in {@code BookRepository}, so no entity is loaded for a list page.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BookSummaryDTO {
+    private Long id;
+    private String title;
+    private String author;
+    private String isbn;
+    private String category;
+    private BigDecimal price;
+    private Integer stockQuantity;
+    private Integer publicationYear;
+    private String imageUrl;
+    private Double rating;
+    private Boolean available;
+}
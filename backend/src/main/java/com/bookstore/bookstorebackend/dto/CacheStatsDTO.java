@@ -0,0 +1,20 @@
+package com.bookstore.bookstorebackend.dto;
+
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CacheStatsDTO {
+    private String name;
+    private Long size;
+    private Long maximumSize;
+    private Long hitCount;
+    private Long missCount;
+    private Double hitRate;
+    private Long evictionCount;
+    private Long loadFailureCount;
+    private Double averageLoadPenaltyNanos;
+}
@@ -0,0 +1,15 @@
+package com.bookstore.bookstorebackend.dto;
+
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CategoryFacetDTO {
+    private String category;
+    private Long count;
+    private Long available;
+    private Long inStock;
+}
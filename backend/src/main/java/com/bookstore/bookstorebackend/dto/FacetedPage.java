@@ -0,0 +1,23 @@
+package com.bookstore.bookstorebackend.dto;
+
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+
+/**
+ * A page of results that also carries facet counts over all matches, not just the page.
+ */
+public class FacetedPage<T> extends PageImpl<T> {
+
+    private final FacetsDTO facets;
+
+    public FacetedPage(List<T> content, Pageable pageable, long total, FacetsDTO facets) {
+        super(content, pageable, total);
+        this.facets = facets;
+    }
+
+    public FacetsDTO getFacets() {
+        return facets;
+    }
+}
@@ -0,0 +1,18 @@
+package com.bookstore.bookstorebackend.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FacetsDTO {
+    private Boolean ready;
+    private Long total;
+    private Long available;
+    private Long inStock;
+    private List<CategoryFacetDTO> categories;
+}
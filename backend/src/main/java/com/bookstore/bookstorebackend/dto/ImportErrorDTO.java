@@ -0,0 +1,14 @@
+package com.bookstore.bookstorebackend.dto;
+
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ImportErrorDTO {
+    private Long row;
+    private String isbn;
+    private String message;
+}
@@ -0,0 +1,21 @@
+package com.bookstore.bookstorebackend.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class InventoryDTO {
+    private Long bookId;
+    private Boolean sharded;
+    /** Quantity per slot, in slot order; empty when the stock is not sharded. */
+    private List<Integer> slots;
+    /** What can be sold right now: the slot total for a sharded book. */
+    private Integer availableQuantity;
+    /** The book's stock column, which trails {@code availableQuantity} until the next reconciliation. */
+    private Integer stockQuantity;
+}
@@ -0,0 +1,23 @@
+package com.bookstore.bookstorebackend.dto;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderDTO {
+    private Long id;
+    private String orderNumber;
+    private String status;
+    private BigDecimal totalAmount;
+    private String shippingAddress;
+    private List<OrderItemDTO> items;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
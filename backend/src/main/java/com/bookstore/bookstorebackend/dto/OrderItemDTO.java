@@ -0,0 +1,19 @@
+package com.bookstore.bookstorebackend.dto;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderItemDTO {
+    private Long id;
+    private Long bookId;
+    private String title;
+    private String author;
+    private Integer quantity;
+    private BigDecimal price;
+}
@@ -0,0 +1,21 @@
+package com.bookstore.bookstorebackend.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderItemRequest {
+    @NotNull(message = "Book id is required")
+    private Long bookId;
+
+    @NotNull(message = "Quantity is required")
+    @Min(value = 1, message = "Quantity must be at least 1")
+    @Max(value = 100, message = "Quantity must be at most 100")
+    private Integer quantity;
+}
@@ -0,0 +1,22 @@
+package com.bookstore.bookstorebackend.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderRequest {
+    @NotEmpty(message = "An order needs at least one item")
+    @Size(max = 50, message = "An order can have at most 50 items")
+    @Valid
+    private List<OrderItemRequest> items;
+
+    private String shippingAddress;
+}
@@ -0,0 +1,21 @@
+package com.bookstore.bookstorebackend.dto;
+
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PasswordHashingStatsDTO {
+    private Integer threads;
+    private Integer activeCount;
+    private Integer queueDepth;
+    private Integer queueCapacity;
+    private Long completedCount;
+    private Long rejectedCount;
+    private Double averageQueueWaitMillis;
+    private Double maxQueueWaitMillis;
+    private Double averageHashMillis;
+    private Double maxHashMillis;
+}
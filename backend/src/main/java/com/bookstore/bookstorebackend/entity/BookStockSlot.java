@@ -0,0 +1,41 @@
+package com.bookstore.bookstorebackend.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+
+/**
+ * One share of a sharded book's stock. Buyers decrement a slot each instead of all queuing on the
+ * book's row; the book's available stock is the sum of its slots.
+ */
+@Entity
+@Table(name = "book_stock_slots")
+@IdClass(BookStockSlot.Key.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BookStockSlot {
+    @Id
+    @Column(name = "book_id")
+    private Long bookId;
+
+    @Id
+    @Column(name = "slot")
+    private Integer slot;
+
+    @Column(nullable = false)
+    private Integer quantity;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+        private Long bookId;
+        private Integer slot;
+    }
+}
@@ -0,0 +1,108 @@
+package com.bookstore.bookstorebackend.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A pending step of the order pipeline, written in the same transaction as the order change that
+ * makes it due. The idempotency key ({@code <orderNumber>:<stage>}) is unique, so a stage is
+ * enqueued at most once per order, and is handed to handlers so downstream systems can drop
+ * redeliveries.
+ */
+@Entity
+@Table(name = "order_outbox")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderOutboxEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+
+    @Column(name = "order_number", nullable = false)
+    private String orderNumber;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Stage stage;
+
+    @Column(name = "idempotency_key", unique = true, nullable = false)
+    private String idempotencyKey;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Status status;
+
+    @Column(nullable = false)
+    private Integer attempts;
+
+    /** When the row may next be claimed: now when enqueued, the lease end while claimed, the retry time after a failure. */
+    @Column(name = "available_at", nullable = false)
+    private LocalDateTime availableAt;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "processed_at")
+    private LocalDateTime processedAt;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    public static OrderOutboxEvent pending(Long orderId, String orderNumber, Stage stage, LocalDateTime now) {
+        return OrderOutboxEvent.builder()
+                .orderId(orderId)
+                .orderNumber(orderNumber)
+                .stage(stage)
+                .idempotencyKey(orderNumber + ":" + stage.name())
+                .status(Status.PENDING)
+                .attempts(0)
+                .availableAt(now)
+                .createdAt(now)
+                .build();
+    }
+
+    /**
+     * The pipeline steps, each moving an order from one status to the next when its handler succeeds.
+     */
+    public enum Stage {
+        CONFIRM(Order.OrderStatus.PENDING, Order.OrderStatus.CONFIRMED),
+        SHIP(Order.OrderStatus.CONFIRMED, Order.OrderStatus.SHIPPED),
+        DELIVER(Order.OrderStatus.SHIPPED, Order.OrderStatus.DELIVERED);
+
+        private final Order.OrderStatus from;
+        private final Order.OrderStatus to;
+
+        Stage(Order.OrderStatus from, Order.OrderStatus to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        public Order.OrderStatus getFrom() {
+            return from;
+        }
+
+        public Order.OrderStatus getTo() {
+            return to;
+        }
+
+        /** The stage enqueued once this one completes, or {@code null} after the last. */
+        public Stage next() {
+            Stage[] stages = values();
+            return ordinal() + 1 < stages.length ? stages[ordinal() + 1] : null;
+        }
+    }
+
+    public enum Status {
+        PENDING,
+        DONE,
+        FAILED
+    }
+}
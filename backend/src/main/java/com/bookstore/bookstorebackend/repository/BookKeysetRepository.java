@@ -0,0 +1,18 @@
+package com.bookstore.bookstorebackend.repository;
+
+import com.bookstore.bookstorebackend.dto.BookSummaryDTO;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Keyset scrolls over the whole catalog in any {@link BookSort} that {@linkplain BookSort#supportsKeyset()
+ * supports it}. The sort is only known at runtime, so the query is built here rather than declared.
+ */
+public interface BookKeysetRepository {
+
+    /**
+     * Reads the summaries that follow {@code (value, id)} in the given order, or the first ones when
+     * {@code value} is {@code null}.
+     */
+    Slice<BookSummaryDTO> findSummariesAfter(BookSort sort, Sort.Direction direction, Object value, long id, int size);
+}
@@ -0,0 +1,60 @@
+package com.bookstore.bookstorebackend.repository;
+
+import com.bookstore.bookstorebackend.dto.BookSummaryDTO;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+
+class BookKeysetRepositoryImpl implements BookKeysetRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * The seek predicate is the row-value comparison {@code (b.price, b.id) > (:value, :id)} spelled out
+     * as {@code b.price >= :value AND (b.price > :value OR b.id > :id)}: Hibernate cannot bind a tuple
+     * parameter, and the leading {@code >=} gives the {@code (price, id)} index a range start on every
+     * database. One row past the page tells whether there is a next one, so no count is run.
+     */
+    @Override
+    public Slice<BookSummaryDTO> findSummariesAfter(BookSort sort, Sort.Direction direction, Object value, long id, int size) {
+        if (!sort.supportsKeyset()) {
+            throw new IllegalArgumentException("Sort " + sort + " cannot be scrolled by keyset");
+        }
+        String property = "b." + sort.getProperty();
+        String comparison = direction.isAscending() ? " > " : " < ";
+        String bound = direction.isAscending() ? " >= " : " <= ";
+        String order = direction.isAscending() ? " ASC" : " DESC";
+
+        StringBuilder jpql = new StringBuilder(BookRepository.SELECT_SUMMARY);
+        if (value != null) {
+            jpql.append(sort == BookSort.ID
+                    ? " WHERE b.id" + comparison + ":id"
+                    : " WHERE " + property + bound + ":value AND (" + property + comparison + ":value OR b.id" + comparison + ":id)");
+        }
+        jpql.append(" ORDER BY ");
+        if (sort != BookSort.ID) {
+            jpql.append(property).append(order).append(", ");
+        }
+        jpql.append("b.id").append(order);
+
+        TypedQuery<BookSummaryDTO> query = entityManager.createQuery(jpql.toString(), BookSummaryDTO.class)
+                .setMaxResults(size + 1);
+        if (value != null) {
+            query.setParameter("id", id);
+            if (sort != BookSort.ID) {
+                query.setParameter("value", value);
+            }
+        }
+        List<BookSummaryDTO> books = query.getResultList();
+        boolean hasNext = books.size() > size;
+        return new SliceImpl<>(hasNext ? books.subList(0, size) : books,
+                PageRequest.of(0, size, sort.getSort(direction)), hasNext);
+    }
+}
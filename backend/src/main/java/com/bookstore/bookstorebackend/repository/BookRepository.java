@@ -1,24 +1,148 @@
 package com.bookstore.bookstorebackend.repository;
 
+import com.bookstore.bookstorebackend.dto.BookSummaryDTO;
 import com.bookstore.bookstorebackend.entity.Book;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Repository
-public interface BookRepository extends JpaRepository<Book, Long> {
+public interface BookRepository extends JpaRepository<Book, Long>, BookKeysetRepository {
     Optional<Book> findByIsbn(String isbn);
-    Page<Book> findByCategory(String category, Pageable pageable);
-    Page<Book> findByAvailableTrue(Pageable pageable);
 
-    @Query("SELECT b FROM Book b WHERE " +
-            "LOWER(b.title) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+    @Query("SELECT b.isbn FROM Book b WHERE b.isbn IN :isbns")
+    Set<String> findExistingIsbns(@Param("isbns") Collection<String> isbns);
+
+    List<Book> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    /**
+     * Just enough of a book to answer a conditional GET without loading the entity.
+     */
+    interface VersionRow {
+        Long getId();
+        LocalDateTime getUpdatedAt();
+    }
+
+    @Query("SELECT b.id AS id, b.updatedAt AS updatedAt FROM Book b WHERE b.id = :id")
+    Optional<VersionRow> findVersionById(@Param("id") Long id);
+
+    /**
+     * The fields category facets are counted over, read in id-ordered batches without loading entities.
+     */
+    interface FacetRow {
+        Long getId();
+        String getCategory();
+        Boolean getAvailable();
+        Integer getStockQuantity();
+    }
+
+    @Query("SELECT b.id AS id, b.category AS category, b.available AS available, b.stockQuantity AS stockQuantity " +
+            "FROM Book b WHERE b.id > :id ORDER BY b.id")
+    List<FacetRow> findFacetRowsAfter(@Param("id") Long id, Pageable pageable);
+
+    /*
+     * Summary projections for listings: only the columns of BookSummaryDTO are selected (never the
+     * description) and nothing enters the persistence context.
+     * The *After queries are keyset (seek) queries: callers pass an id-sorted first page, and a Slice
+     * skips the count query. Whole-catalog scrolls in other sorts are in BookKeysetRepository.
+     * SEARCH_CONDITION is the fallback used until the search index is ready. It covers the same fields
+     * as the index, including the description, but matches substrings where the index matches token
+     * prefixes, so the two agree on whole-word queries.
+     */
+    String SELECT_SUMMARY = "SELECT new com.bookstore.bookstorebackend.dto.BookSummaryDTO(b.id, b.title, b.author, " +
+            "b.isbn, b.category, b.price, b.stockQuantity, b.publicationYear, b.imageUrl, b.rating, b.available) " +
+            "FROM Book b";
+
+    String SEARCH_CONDITION = "(LOWER(b.title) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
             "LOWER(b.author) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
-            "LOWER(b.category) LIKE LOWER(CONCAT('%', :search, '%'))")
-    Page<Book> searchBooks(@Param("search") String search, Pageable pageable);
+            "LOWER(b.category) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+            "LOWER(b.description) LIKE LOWER(CONCAT('%', :search, '%')))";
+
+    @Query(value = SELECT_SUMMARY, countQuery = "SELECT COUNT(b) FROM Book b")
+    Page<BookSummaryDTO> findAllSummaries(Pageable pageable);
+
+    @Query(value = SELECT_SUMMARY + " WHERE b.category = :category",
+            countQuery = "SELECT COUNT(b) FROM Book b WHERE b.category = :category")
+    Page<BookSummaryDTO> findSummariesByCategory(@Param("category") String category, Pageable pageable);
+
+    @Query(value = SELECT_SUMMARY + " WHERE b.available = true",
+            countQuery = "SELECT COUNT(b) FROM Book b WHERE b.available = true")
+    Page<BookSummaryDTO> findAvailableSummaries(Pageable pageable);
+
+    @Query(value = SELECT_SUMMARY + " WHERE " + SEARCH_CONDITION,
+            countQuery = "SELECT COUNT(b) FROM Book b WHERE " + SEARCH_CONDITION)
+    Page<BookSummaryDTO> searchSummaries(@Param("search") String search, Pageable pageable);
+
+    /** In no particular order; callers restore the order they asked for. */
+    @Query(SELECT_SUMMARY + " WHERE b.id IN :ids")
+    List<BookSummaryDTO> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query(SELECT_SUMMARY + " WHERE b.category = :category AND b.id > :id")
+    Slice<BookSummaryDTO> findSummariesByCategoryAfter(@Param("category") String category, @Param("id") Long id, Pageable pageable);
+
+    @Query(SELECT_SUMMARY + " WHERE b.available = true AND b.id > :id")
+    Slice<BookSummaryDTO> findAvailableSummariesAfter(@Param("id") Long id, Pageable pageable);
+
+    /**
+     * Forward-only cursor over the whole catalog in id order. Must be consumed inside a transaction;
+     * entities are loaded read-only (no dirty-checking snapshots) and should be detached once written.
+     */
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT b FROM Book b ORDER BY b.id")
+    Stream<Book> streamAllByOrderById();
+
+    /**
+     * Atomically takes {@code quantity} units of stock if at least that many are left. Sharded books keep
+     * their stock in {@code BookStockSlot}s and are never matched.
+     *
+     * @return 1 if the stock was reserved, 0 if the book does not exist, is sharded or has too little stock
+     */
+    @Modifying
+    @Query("UPDATE Book b SET b.stockQuantity = b.stockQuantity - :quantity, b.updatedAt = :now " +
+            "WHERE b.id = :id AND b.stockQuantity >= :quantity AND b.stockSlots = 0")
+    int reserveStock(@Param("id") Long id, @Param("quantity") int quantity, @Param("now") LocalDateTime now);
+
+    /** Locks the book's row, so no order reserves from it while its stock is moved into or out of slots. */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM Book b WHERE b.id = :id")
+    Optional<Book> findByIdForUpdate(@Param("id") Long id);
+
+    interface StockRow {
+        Long getId();
+        Integer getStockQuantity();
+    }
+
+    @Query("SELECT b.id AS id, b.stockQuantity AS stockQuantity FROM Book b WHERE b.id IN :ids")
+    List<StockRow> findStockByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("UPDATE Book b SET b.stockSlots = :slots, b.updatedAt = :now WHERE b.id = :id")
+    int updateStockSlots(@Param("id") Long id, @Param("slots") int slots, @Param("now") LocalDateTime now);
+
+    /** Writes the reconciled total of a sharded book; a no-op once sharding has been turned off. */
+    @Modifying
+    @Query("UPDATE Book b SET b.stockQuantity = :quantity, b.updatedAt = :now WHERE b.id = :id AND b.stockSlots > 0")
+    int updateShardedStock(@Param("id") Long id, @Param("quantity") int quantity, @Param("now") LocalDateTime now);
 }
@@ -0,0 +1,79 @@
+package com.bookstore.bookstorebackend.repository;
+
+import com.bookstore.bookstorebackend.dto.BookSummaryDTO;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.util.function.Function;
+
+/**
+ * The sort keys book listings accept. Each one is backed by a {@code (column, id)} index, and the id
+ * is always appended as a tie-break in the same direction, so the order is total and a page walk
+ * neither repeats nor skips books with equal values.
+ * <p>
+ * Only sorts on NOT NULL columns can be resumed from a keyset cursor; the others would need a
+ * separate position for their nulls and are offered with offset paging only.
+ */
+public enum BookSort {
+    ID("id", BookSummaryDTO::getId, Long::valueOf),
+    PRICE("price", BookSummaryDTO::getPrice, BigDecimal::new),
+    TITLE("title", BookSummaryDTO::getTitle, value -> value),
+    RATING("rating", null, null),
+    PUBLICATION_YEAR("publicationYear", null, null),
+    CREATED_AT("createdAt", null, null);
+
+    private final String property;
+    private final Function<BookSummaryDTO, Object> extractor;
+    private final Function<String, Object> parser;
+    private final Sort ascending;
+    private final Sort descending;
+
+    BookSort(String property, Function<BookSummaryDTO, Object> extractor, Function<String, Object> parser) {
+        this.property = property;
+        this.extractor = extractor;
+        this.parser = parser;
+        this.ascending = sortBy(property, Sort.Direction.ASC);
+        this.descending = sortBy(property, Sort.Direction.DESC);
+    }
+
+    /** The entity property, which is also the value of the {@code sortBy} parameter. */
+    public String getProperty() {
+        return property;
+    }
+
+    public Sort getSort(Sort.Direction direction) {
+        return direction.isAscending() ? ascending : descending;
+    }
+
+    public boolean supportsKeyset() {
+        return extractor != null;
+    }
+
+    /**
+     * Sort key recorded in cursors, so a cursor is only accepted by the sort that produced it. Ascending
+     * id is plain {@code "id"}, which keeps cursors issued before sorting existed valid.
+     */
+    public String cursorKey(Sort.Direction direction) {
+        return direction.isAscending() ? property : property + ":desc";
+    }
+
+    /** The sort value of a book, as written into a cursor. */
+    public String valueOf(BookSummaryDTO book) {
+        return String.valueOf(extractor.apply(book));
+    }
+
+    /**
+     * Reads back a value written by {@link #valueOf}.
+     *
+     * @throws NumberFormatException if the value is not one this sort writes
+     */
+    public Object parseValue(String value) {
+        return parser.apply(value);
+    }
+
+    private static Sort sortBy(String property, Sort.Direction direction) {
+        return "id".equals(property)
+                ? Sort.by(direction, "id")
+                : Sort.by(new Sort.Order(direction, property), new Sort.Order(direction, "id"));
+    }
+}
@@ -0,0 +1,46 @@
+package com.bookstore.bookstorebackend.repository;
+
+import com.bookstore.bookstorebackend.entity.BookStockSlot;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface BookStockSlotRepository extends JpaRepository<BookStockSlot, BookStockSlot.Key> {
+
+    /**
+     * Atomically takes {@code quantity} units from one slot if it holds at least that many, locking
+     * only that slot's row.
+     *
+     * @return 1 if the stock was reserved, 0 if the slot does not exist or holds too little
+     */
+    @Modifying
+    @Query("UPDATE BookStockSlot s SET s.quantity = s.quantity - :quantity " +
+            "WHERE s.bookId = :bookId AND s.slot = :slot AND s.quantity >= :quantity")
+    int take(@Param("bookId") Long bookId, @Param("slot") int slot, @Param("quantity") int quantity);
+
+    /** All slots of a book, locked in slot order (the order every locker uses, so they cannot deadlock). */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM BookStockSlot s WHERE s.bookId = :bookId ORDER BY s.slot")
+    List<BookStockSlot> findByBookIdForUpdate(@Param("bookId") Long bookId);
+
+    List<BookStockSlot> findByBookIdOrderBySlot(Long bookId);
+
+    /** Committed quantities of a book's slots in slot order, read without locking or loading entities. */
+    @Query("SELECT s.quantity FROM BookStockSlot s WHERE s.bookId = :bookId ORDER BY s.slot")
+    List<Integer> findQuantitiesByBookId(@Param("bookId") Long bookId);
+
+    interface TotalRow {
+        Long getBookId();
+        Long getQuantity();
+    }
+
+    @Query("SELECT s.bookId AS bookId, SUM(s.quantity) AS quantity FROM BookStockSlot s GROUP BY s.bookId")
+    List<TotalRow> sumByBook();
+}
@@ -0,0 +1,58 @@
+package com.bookstore.bookstorebackend.repository;
+
+import com.bookstore.bookstorebackend.entity.OrderOutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OrderOutboxRepository extends JpaRepository<OrderOutboxEvent, Long> {
+
+    /**
+     * Locks up to {@code limit} due rows, skipping rows another dispatcher has locked, so concurrent
+     * dispatchers claim disjoint batches without waiting on each other. The caller moves
+     * {@code available_at} to the end of its lease before committing.
+     */
+    @Query(value = "SELECT * FROM order_outbox WHERE status = 'PENDING' AND available_at <= :now " +
+            "ORDER BY available_at, id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<OrderOutboxEvent> lockDue(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    List<OrderOutboxEvent> findByOrderId(Long orderId);
+
+    /*
+     * The outcome of a claim is only written while the claim still holds the row: still PENDING and at
+     * the attempt it claimed. A handler that ran past its lease finds the row redelivered (or already
+     * finished) and writes nothing.
+     */
+
+    String CLAIM_HOLDS = " WHERE e.id = :id AND e.attempts = :attempts" +
+            " AND e.status = com.bookstore.bookstorebackend.entity.OrderOutboxEvent$Status.PENDING";
+
+    @Modifying
+    @Query("UPDATE OrderOutboxEvent e SET e.processedAt = :now," +
+            " e.status = com.bookstore.bookstorebackend.entity.OrderOutboxEvent$Status.DONE" + CLAIM_HOLDS)
+    int markDone(@Param("id") Long id, @Param("attempts") int claimedAttempts, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE OrderOutboxEvent e SET e.availableAt = :availableAt, e.lastError = :error" + CLAIM_HOLDS)
+    int scheduleRetry(@Param("id") Long id, @Param("attempts") int claimedAttempts,
+                      @Param("availableAt") LocalDateTime availableAt, @Param("error") String error);
+
+    @Modifying
+    @Query("UPDATE OrderOutboxEvent e SET e.lastError = :error," +
+            " e.status = com.bookstore.bookstorebackend.entity.OrderOutboxEvent$Status.FAILED" + CLAIM_HOLDS)
+    int markFailed(@Param("id") Long id, @Param("attempts") int claimedAttempts, @Param("error") String error);
+
+    interface BacklogRow {
+        OrderOutboxEvent.Stage getStage();
+        Long getCount();
+    }
+
+    @Query("SELECT e.stage AS stage, COUNT(e) AS count FROM OrderOutboxEvent e WHERE e.status = :status GROUP BY e.stage")
+    List<BacklogRow> countByStatusGroupByStage(@Param("status") OrderOutboxEvent.Status status);
+}
@@ -4,12 +4,58 @@ import com.bookstore.bookstorebackend.entity.Order;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
     Optional<Order> findByOrderNumber(String orderNumber);
     Page<Order> findByUserId(Long userId, Pageable pageable);
+    Optional<Order> findByIdAndUserUsername(Long id, String username);
+
+    /**
+     * A page of a user's orders without their items, so the database applies the limit; the items of
+     * the whole page are read afterwards with {@link #findItemRowsByOrderIdIn}.
+     */
+    @Query(value = "SELECT o FROM Order o WHERE o.user.username = :username",
+            countQuery = "SELECT COUNT(o) FROM Order o WHERE o.user.username = :username")
+    Page<Order> findByUserUsername(@Param("username") String username, Pageable pageable);
+
+    /**
+     * An order line with just the book columns an order shows (never the description), read for many
+     * orders at once without loading items or books as entities.
+     */
+    interface ItemRow {
+        Long getOrderId();
+        Long getId();
+        Long getBookId();
+        String getTitle();
+        String getAuthor();
+        Integer getQuantity();
+        BigDecimal getPrice();
+    }
+
+    @Query("SELECT i.order.id AS orderId, i.id AS id, b.id AS bookId, b.title AS title, b.author AS author, " +
+            "i.quantity AS quantity, i.price AS price " +
+            "FROM OrderItem i JOIN i.book b WHERE i.order.id IN :orderIds ORDER BY b.id")
+    List<ItemRow> findItemRowsByOrderIdIn(@Param("orderIds") Collection<Long> orderIds);
+
+    /**
+     * Moves an order to {@code to} only if it is still in {@code from}, so a redelivered pipeline step
+     * or a cancelled order is a no-op.
+     *
+     * @return 1 if the order moved, 0 otherwise
+     */
+    @Modifying
+    @Query("UPDATE Order o SET o.status = :to, o.updatedAt = :now WHERE o.id = :id AND o.status = :from")
+    int advanceStatus(@Param("id") Long id, @Param("from") Order.OrderStatus from, @Param("to") Order.OrderStatus to,
+                      @Param("now") LocalDateTime now);
 }
@@ -0,0 +1,34 @@
+package com.bookstore.bookstorebackend.security;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Delegates to another encoder but runs {@link #encode} and {@link #matches} on the
+ * {@link PasswordHashingExecutor}, so every BCrypt computation in the application, including the
+ * ones {@code DaoAuthenticationProvider} makes during login, is bounded by the hashing pool.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final PasswordHashingExecutor executor;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, PasswordHashingExecutor executor) {
+        this.delegate = delegate;
+        this.executor = executor;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return executor.execute(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return executor.execute(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+}
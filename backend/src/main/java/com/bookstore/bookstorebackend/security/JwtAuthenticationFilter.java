@@ -1,5 +1,9 @@
 package com.bookstore.bookstorebackend.security;
 
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -7,7 +11,9 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
@@ -15,6 +21,10 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 @Slf4j
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
@@ -25,16 +35,41 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private UserDetailsService userDetailsService;
 
+    @Autowired
+    private UserDetailsCache userDetailsCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Timer validTokens;
+    private Timer rejectedTokens;
+
+    @PostConstruct
+    void init() {
+        validTokens = validationTimer("valid");
+        rejectedTokens = validationTimer("rejected");
+    }
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
         try {
             String jwt = getJwtFromRequest(request);
 
-            if (StringUtils.hasText(jwt) && tokenProvider.validateToken(jwt)) {
-                String username = tokenProvider.getUsernameFromJWT(jwt);
+            long startedAt = System.nanoTime();
+            Optional<Claims> claims = StringUtils.hasText(jwt) ? tokenProvider.verify(jwt) : Optional.empty();
+            if (claims.isEmpty() && jwt != null) {
+                rejectedTokens.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+            }
+            if (claims.isPresent()) {
+                UserDetails userDetails = resolveUser(claims.get());
+                validTokens.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                if (!userDetails.isEnabled()) {
+                    log.debug("Ignoring token of disabled user: {}", userDetails.getUsername());
+                    filterChain.doFilter(request, response);
+                    return;
+                }
 
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
                 UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
                         userDetails, null, userDetails.getAuthorities());
                 authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
@@ -48,6 +83,35 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    /**
+     * Builds the principal from the token claims when they are present and still current; tokens
+     * without role claims or issued before the user's account changed go through the user cache.
+     */
+    private UserDetails resolveUser(Claims claims) {
+        String username = claims.getSubject();
+        List<?> roles = claims.get(JwtTokenProvider.ROLES_CLAIM, List.class);
+        Boolean enabled = claims.get(JwtTokenProvider.ENABLED_CLAIM, Boolean.class);
+
+        if (roles == null || enabled == null || userDetailsCache.isOutdated(username, claims.getIssuedAt())) {
+            return userDetailsCache.get(username, userDetailsService::loadUserByUsername);
+        }
+
+        return User.withUsername(username)
+                .password("")
+                .authorities(roles.stream()
+                        .map(role -> new SimpleGrantedAuthority(role.toString()))
+                        .collect(Collectors.toList()))
+                .disabled(!enabled)
+                .build();
+    }
+
+    private Timer validationTimer(String outcome) {
+        return Timer.builder("bookstore.jwt.validation")
+                .description("Token signature check and principal resolution")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
     private String getJwtFromRequest(HttpServletRequest request) {
         String bearerToken = request.getHeader("Authorization");
         if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
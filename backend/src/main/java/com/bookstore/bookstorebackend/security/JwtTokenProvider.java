@@ -1,20 +1,39 @@
 package com.bookstore.bookstorebackend.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Collection;
 import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 @Component
 @Slf4j
-public class JwtTokenProvider {
+public class JwtTokenProvider implements MeterBinder {
+
+    public static final String ROLES_CLAIM = "roles";
+    public static final String ENABLED_CLAIM = "enabled";
 
     @Value("${jwt.secret:your-secret-key-make-it-long-and-secure-at-least-32-characters}")
     private String jwtSecret;
@@ -22,59 +41,116 @@ public class JwtTokenProvider {
     @Value("${jwt.expiration:86400000}")
     private int jwtExpirationMs;
 
-    public String generateToken(Authentication authentication) {
-        UserDetails userPrincipal = (UserDetails) authentication.getPrincipal();
+    @Value("${jwt.verification-cache.maximum-size:10000}")
+    private long verificationCacheSize;
+
+    private SecretKey signingKey;
+    private JwtParser parser;
+    private Cache<String, Claims> verifiedTokens;
+
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+        if (verificationCacheSize > 0) {
+            verifiedTokens = Caffeine.newBuilder()
+                    .maximumSize(verificationCacheSize)
+                    .expireAfter(new UntilTokenExpiry())
+                    .recordStats()
+                    .build();
+        }
+    }
 
-        Date now = new Date();
-        Date expiryDate = new Date(now.getTime() + jwtExpirationMs);
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (verifiedTokens != null) {
+            CaffeineCacheMetrics.monitor(registry, verifiedTokens, "jwt.verifications");
+        }
+    }
 
-        SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+    public String generateToken(Authentication authentication) {
+        UserDetails userPrincipal = (UserDetails) authentication.getPrincipal();
+        List<String> roles = userPrincipal.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .collect(Collectors.toList());
+        return generateToken(userPrincipal.getUsername(), roles, userPrincipal.isEnabled());
+    }
 
-        return Jwts.builder()
-            .setSubject(userPrincipal.getUsername())
-            .setIssuedAt(now)
-            .setExpiration(expiryDate)
-            .signWith(key, SignatureAlgorithm.HS512)
+    /**
+     * Issues a token that carries the user's roles and enabled flag, so requests can be
+     * authenticated from the claims without loading the user.
+     */
+    public String generateToken(String username, Collection<String> roles, boolean enabled) {
+        return builder(username)
+            .claim(ROLES_CLAIM, List.copyOf(roles))
+            .claim(ENABLED_CLAIM, enabled)
             .compact();
     }
 
     public String generateTokenFromUsername(String username) {
+        return builder(username).compact();
+    }
+
+    private JwtBuilder builder(String username) {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + jwtExpirationMs);
 
-        SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
-
         return Jwts.builder()
             .setSubject(username)
             .setIssuedAt(now)
             .setExpiration(expiryDate)
-            .signWith(key, SignatureAlgorithm.HS512)
-            .compact();
+            .signWith(signingKey, SignatureAlgorithm.HS512);
     }
 
-    public String getUsernameFromJWT(String token) {
-        SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+    /**
+     * Verifies the token signature and expiry once and returns its claims. Tokens that verified
+     * recently are served from a bounded cache keyed by the token's SHA-256 hash until they expire.
+     */
+    public Optional<Claims> verify(String authToken) {
+        if (authToken == null || authToken.isEmpty()) {
+            return Optional.empty();
+        }
+        if (verifiedTokens == null) {
+            return Optional.ofNullable(parse(authToken));
+        }
 
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        String tokenHash = hash(authToken);
+        Claims cached = verifiedTokens.getIfPresent(tokenHash);
+        if (cached != null) {
+            if (cached.getExpiration() == null || cached.getExpiration().after(new Date())) {
+                return Optional.of(cached);
+            }
+            verifiedTokens.invalidate(tokenHash);
+            return Optional.empty();
+        }
 
-        return claims.getSubject();
+        Claims claims = parse(authToken);
+        if (claims != null) {
+            verifiedTokens.put(tokenHash, claims);
+        }
+        return Optional.ofNullable(claims);
+    }
+
+    public String getUsernameFromJWT(String token) {
+        return verify(token)
+                .map(Claims::getSubject)
+                .orElseThrow(() -> new MalformedJwtException("Invalid JWT token"));
     }
 
     public boolean validateToken(String authToken) {
-        try {
-            SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        return verify(authToken).isPresent();
+    }
 
-            Jwts.parserBuilder()
-                    .setSigningKey(key)
-                    .build()
-                    .parseClaimsJws(authToken);
+    public long getExpirationTime() {
+        return jwtExpirationMs;
+    }
 
-            return true;
-        } catch (SecurityException e) {
+    private Claims parse(String authToken) {
+        try {
+            return parser.parseClaimsJws(authToken).getBody();
+        } catch (io.jsonwebtoken.security.SecurityException e) {
             log.error("Invalid JWT signature: {}", e.getMessage());
         } catch (MalformedJwtException e) {
             log.error("Invalid JWT token: {}", e.getMessage());
@@ -86,10 +162,37 @@ public class JwtTokenProvider {
             log.error("JWT claims string is empty: {}", e.getMessage());
         }
 
-        return false;
+        return null;
     }
 
-    public long getExpirationTime() {
-        return jwtExpirationMs;
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static final class UntilTokenExpiry implements Expiry<String, Claims> {
+
+        @Override
+        public long expireAfterCreate(String key, Claims claims, long currentTime) {
+            if (claims.getExpiration() == null) {
+                return Long.MAX_VALUE;
+            }
+            long remainingMs = claims.getExpiration().getTime() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0L, remainingMs));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, claims, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
 }
@@ -0,0 +1,157 @@
+package com.bookstore.bookstorebackend.security;
+
+import com.bookstore.bookstorebackend.dto.PasswordHashingStatsDTO;
+import com.bookstore.bookstorebackend.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Runs password hashing on a small fixed pool with a bounded queue, so a burst of logins or
+ * registrations occupies at most {@code threads} cores and can never starve the request threads
+ * serving the catalog. When the queue is full the caller fails fast with {@link TooManyRequestsException}
+ * (HTTP 429) instead of waiting behind hundreds of hashes.
+ * <p>
+ * Queue wait and hash time are recorded separately: a growing wait with a steady hash time means the
+ * pool is undersized for the load, a growing hash time means the BCrypt cost is too high for the hardware.
+ */
+@Component
+@Slf4j
+public class PasswordHashingExecutor implements MeterBinder {
+
+    @Value("${security.password-hashing.threads:0}")
+    private int threads;
+
+    @Value("${security.password-hashing.queue-capacity:64}")
+    private int queueCapacity;
+
+    private ThreadPoolExecutor executor;
+
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder totalQueueWaitNanos = new LongAdder();
+    private final LongAccumulator maxQueueWaitNanos = new LongAccumulator(Math::max, 0);
+    private final LongAdder totalHashNanos = new LongAdder();
+    private final LongAccumulator maxHashNanos = new LongAccumulator(Math::max, 0);
+
+    @PostConstruct
+    void init() {
+        if (threads <= 0) {
+            threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        }
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory(), new ThreadPoolExecutor.AbortPolicy());
+        log.info("Password hashing executor initialised: threads={}, queueCapacity={}", threads, queueCapacity);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Runs {@code hashing} on the hashing pool and waits for its result.
+     *
+     * @throws TooManyRequestsException if the pool and its queue are full
+     */
+    public <T> T execute(Supplier<T> hashing) {
+        long submittedAt = System.nanoTime();
+        Future<T> result;
+        try {
+            result = executor.submit(() -> {
+                long startedAt = System.nanoTime();
+                record(totalQueueWaitNanos, maxQueueWaitNanos, startedAt - submittedAt);
+                try {
+                    return hashing.get();
+                } finally {
+                    record(totalHashNanos, maxHashNanos, System.nanoTime() - startedAt);
+                    completed.increment();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new TooManyRequestsException("Too many authentication requests, please retry shortly", e);
+        }
+
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for password hashing", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    public PasswordHashingStatsDTO stats() {
+        long count = completed.sum();
+        return PasswordHashingStatsDTO.builder()
+                .threads(threads)
+                .activeCount(executor.getActiveCount())
+                .queueDepth(executor.getQueue().size())
+                .queueCapacity(queueCapacity)
+                .completedCount(count)
+                .rejectedCount(rejected.sum())
+                .averageQueueWaitMillis(count == 0 ? 0.0 : totalQueueWaitNanos.sum() / (double) count / 1_000_000)
+                .maxQueueWaitMillis(maxQueueWaitNanos.get() / 1_000_000.0)
+                .averageHashMillis(count == 0 ? 0.0 : totalHashNanos.sum() / (double) count / 1_000_000)
+                .maxHashMillis(maxHashNanos.get() / 1_000_000.0)
+                .build();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionTimer.builder("bookstore.password.hash", this,
+                        e -> e.completed.sum(), e -> e.totalHashNanos.sum(), TimeUnit.NANOSECONDS)
+                .description("BCrypt time per hash, excluding queue wait")
+                .register(registry);
+        FunctionTimer.builder("bookstore.password.queue.wait", this,
+                        e -> e.completed.sum(), e -> e.totalQueueWaitNanos.sum(), TimeUnit.NANOSECONDS)
+                .description("Time hashes waited for a hashing thread")
+                .register(registry);
+        FunctionCounter.builder("bookstore.password.rejected", rejected, LongAdder::sum)
+                .description("Hashes refused with 429 because the queue was full")
+                .register(registry);
+        Gauge.builder("bookstore.password.queue.depth", this, e -> e.executor.getQueue().size())
+                .register(registry);
+        Gauge.builder("bookstore.password.active", this, e -> e.executor.getActiveCount())
+                .register(registry);
+    }
+
+    private static void record(LongAdder total, LongAccumulator max, long nanos) {
+        total.add(nanos);
+        max.accumulate(nanos);
+    }
+
+    private static ThreadFactory threadFactory() {
+        AtomicInteger sequence = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "password-hashing-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,80 @@
+package com.bookstore.bookstorebackend.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.function.Function;
+
+/**
+ * Short-lived cache of {@link UserDetails} for requests that still need the database, plus a record
+ * of when each user's account last changed. Tokens issued before such a change carry outdated
+ * roles or enabled flag and must not be trusted on their claims alone.
+ */
+@Component
+public class UserDetailsCache implements MeterBinder {
+
+    @Value("${security.user-cache.maximum-size:10000}")
+    private long maximumSize;
+
+    @Value("${security.user-cache.ttl:60s}")
+    private Duration ttl;
+
+    @Value("${jwt.expiration:86400000}")
+    private long jwtExpirationMs;
+
+    private Cache<String, UserDetails> users;
+    private Cache<String, Long> changedAt;
+
+    @PostConstruct
+    void init() {
+        users = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        // A change only matters while tokens issued before it can still be valid. Never size-bounded:
+        // an evicted change would let those tokens be trusted on their claims again
+        changedAt = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(jwtExpirationMs))
+                .build();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, users, "users");
+    }
+
+    public UserDetails get(String username, Function<String, UserDetails> loader) {
+        return users.get(username, key -> withoutPassword(loader.apply(key)));
+    }
+
+    /**
+     * Drops the cached user and marks every token issued until now as outdated for that user.
+     */
+    public void invalidate(String username) {
+        changedAt.put(username, System.currentTimeMillis());
+        users.invalidate(username);
+    }
+
+    public boolean isOutdated(String username, Date issuedAt) {
+        Long changed = changedAt.getIfPresent(username);
+        // iat is truncated to the second, so a token issued in the same second as the change counts as outdated
+        return changed != null && (issuedAt == null || issuedAt.getTime() < changed);
+    }
+
+    private static UserDetails withoutPassword(UserDetails userDetails) {
+        return User.withUserDetails(userDetails)
+                .password("")
+                .build();
+    }
+}
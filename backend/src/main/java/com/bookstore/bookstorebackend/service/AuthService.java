@@ -7,23 +7,29 @@ import com.bookstore.bookstorebackend.dto.UserDTO;
 import com.bookstore.bookstorebackend.entity.Role;
 import com.bookstore.bookstorebackend.entity.User;
 import com.bookstore.bookstorebackend.exception.BadRequestException;
+import com.bookstore.bookstorebackend.exception.TooManyRequestsException;
 import com.bookstore.bookstorebackend.repository.RoleRepository;
 import com.bookstore.bookstorebackend.repository.UserRepository;
 import com.bookstore.bookstorebackend.security.JwtTokenProvider;
+import io.micrometer.core.annotation.Timed;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.Collections;
-import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 @Slf4j
+@Timed("bookstore.service")
 public class AuthService {
 
     @Autowired
@@ -41,7 +47,35 @@ public class AuthService {
     @Autowired
     private JwtTokenProvider jwtTokenProvider;
 
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transaction;
+
+    @PostConstruct
+    void init() {
+        transaction = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Hashes the password before the transaction starts, so a registration waiting on the hashing pool
+     * holds no database connection.
+     */
     public AuthResponse register(RegisterRequest request) {
+        String passwordHash = passwordEncoder.encode(request.getPassword());
+        UserDTO user = convertToDTO(transaction.execute(status -> createUser(request, passwordHash)));
+
+        String token = jwtTokenProvider.generateToken(user.getUsername(), user.getRoles(), user.getEnabled());
+
+        return AuthResponse.builder()
+                .accessToken(token)
+                .tokenType("Bearer")
+                .expiresIn(jwtTokenProvider.getExpirationTime())
+                .user(user)
+                .build();
+    }
+
+    private User createUser(RegisterRequest request, String passwordHash) {
         if (userRepository.existsByUsername(request.getUsername())) {
             throw new BadRequestException("Username already exists");
         }
@@ -55,7 +89,7 @@ public class AuthService {
                 .email(request.getEmail())
                 .firstName(request.getFirstName())
                 .lastName(request.getLastName())
-                .password(passwordEncoder.encode(request.getPassword()))
+                .password(passwordHash)
                 .enabled(true)
                 .build();
 
@@ -66,22 +100,22 @@ public class AuthService {
                         .build()));
 
         user.setRoles(Collections.singleton(userRole));
-        User savedUser = userRepository.save(user);
-
-        String token = jwtTokenProvider.generateTokenFromUsername(savedUser.getUsername());
-
-        return AuthResponse.builder()
-                .accessToken(token)
-                .tokenType("Bearer")
-                .expiresIn(jwtTokenProvider.getExpirationTime())
-                .user(convertToDTO(savedUser))
-                .build();
+        return userRepository.save(user);
     }
 
     public AuthResponse login(AuthRequest request) {
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(request.getUsername(), request.getPassword())
-        );
+        Authentication authentication;
+        try {
+            authentication = authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(request.getUsername(), request.getPassword())
+            );
+        } catch (InternalAuthenticationServiceException e) {
+            // A saturated hashing pool during the user lookup is reported as an internal error
+            if (e.getCause() instanceof TooManyRequestsException tooManyRequests) {
+                throw tooManyRequests;
+            }
+            throw e;
+        }
 
         String token = jwtTokenProvider.generateToken(authentication);
 
@@ -0,0 +1,92 @@
+package com.bookstore.bookstorebackend.service;
+
+import com.bookstore.bookstorebackend.dto.BookDTO;
+import com.bookstore.bookstorebackend.dto.CacheStatsDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Bounded read-through cache of {@link BookDTO} by book id (W-TinyLFU eviction plus a TTL).
+ * <p>
+ * Loads run inside the cache's per-key compute, and {@link #invalidate(Long)} on the same key waits
+ * for an in-flight load to finish before removing it. Entries are invalidated from {@link BookChangedEvent}s
+ * after the change is committed, so a load that read the old row is always discarded and no stale entry
+ * survives an update.
+ */
+@Component
+@Slf4j
+public class BookCache implements MeterBinder {
+
+    @Value("${bookstore.cache.books.maximum-size:10000}")
+    private long maximumSize;
+
+    @Value("${bookstore.cache.books.expire-after-write:10m}")
+    private Duration expireAfterWrite;
+
+    private Cache<Long, BookDTO> cache;
+
+    @PostConstruct
+    void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        log.info("Book cache initialised: maximumSize={}, expireAfterWrite={}", maximumSize, expireAfterWrite);
+    }
+
+    public BookDTO get(Long id, Function<Long, BookDTO> loader) {
+        return cache.get(id, loader);
+    }
+
+    public BookDTO getIfPresent(Long id) {
+        return cache.getIfPresent(id);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        if (event.type() != BookChangedEvent.Type.CREATED) {
+            invalidate(event.bookId());
+        }
+    }
+
+    public void invalidate(Long id) {
+        cache.invalidate(id);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "books");
+    }
+
+    public CacheStatsDTO stats() {
+        CacheStats stats = cache.stats();
+        return CacheStatsDTO.builder()
+                .name("books")
+                .size(cache.estimatedSize())
+                .maximumSize(maximumSize)
+                .hitCount(stats.hitCount())
+                .missCount(stats.missCount())
+                .hitRate(stats.hitRate())
+                .evictionCount(stats.evictionCount())
+                .loadFailureCount(stats.loadFailureCount())
+                .averageLoadPenaltyNanos(stats.averageLoadPenalty())
+                .build();
+    }
+}
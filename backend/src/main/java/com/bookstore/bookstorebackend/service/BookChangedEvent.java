@@ -0,0 +1,37 @@
+package com.bookstore.bookstorebackend.service;
+
+import com.bookstore.bookstorebackend.entity.Book;
+
+/**
+ * Published whenever a book is written. In-memory views of the catalog (search index, book cache,
+ * category facets) listen with {@code @TransactionalEventListener(fallbackExecution = true)}, so they
+ * see the change only once it is committed, or immediately when it was published outside a transaction.
+ *
+ * @param book the book as written, or {@code null} for {@link Type#DELETED}
+ */
+public record BookChangedEvent(Type type, Long bookId, Book book) {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        /** Only the stock quantity changed (order placement); searchable fields are unchanged. */
+        STOCK_CHANGED,
+        DELETED
+    }
+
+    public static BookChangedEvent created(Book book) {
+        return new BookChangedEvent(Type.CREATED, book.getId(), book);
+    }
+
+    public static BookChangedEvent updated(Book book) {
+        return new BookChangedEvent(Type.UPDATED, book.getId(), book);
+    }
+
+    public static BookChangedEvent stockChanged(Book book) {
+        return new BookChangedEvent(Type.STOCK_CHANGED, book.getId(), book);
+    }
+
+    public static BookChangedEvent deleted(Long bookId) {
+        return new BookChangedEvent(Type.DELETED, bookId, null);
+    }
+}
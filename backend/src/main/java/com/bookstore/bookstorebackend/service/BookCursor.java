@@ -0,0 +1,39 @@
+package com.bookstore.bookstorebackend.service;
+
+import com.bookstore.bookstorebackend.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position of the last row of a keyset-paginated listing: the sort key name, its value in the last
+ * row and the row id as tie-break. Clients only ever see the opaque URL-safe token.
+ */
+public record BookCursor(String sortKey, String value, long id) {
+
+    private static final String SEPARATOR = "|";
+
+    public static BookCursor afterId(long id) {
+        return new BookCursor("id", Long.toString(id), id);
+    }
+
+    public String encode() {
+        String raw = sortKey + SEPARATOR + value + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static BookCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int first = raw.indexOf(SEPARATOR);
+            int last = raw.lastIndexOf(SEPARATOR);
+            if (first <= 0 || last <= first) {
+                throw new BadRequestException("Invalid cursor");
+            }
+            return new BookCursor(raw.substring(0, first), raw.substring(first + 1, last),
+                    Long.parseLong(raw.substring(last + 1)));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor", e);
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.bookstore.bookstorebackend.service;
+
+import com.bookstore.bookstorebackend.dto.BookDTO;
+import com.bookstore.bookstorebackend.entity.Book;
+import com.bookstore.bookstorebackend.exception.BadRequestException;
+import com.bookstore.bookstorebackend.repository.BookRepository;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes the whole catalog to an output stream in id order with constant memory: books come from a
+ * forward-only JDBC cursor ({@link BookRepository#streamAllByOrderById()}), each one is serialised and
+ * detached before the next is read, and output is flushed through a fixed-size buffer.
+ * <p>
+ * The output uses the {@link BookDTO} shape, so an export can be fed back into {@link BookImportService}.
+ */
+@Service
+@Slf4j
+public class BookExportService {
+
+    private static final CsvMapper CSV_MAPPER = CsvMapper.builder()
+            .addModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .disable(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY)
+            .build();
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    public enum Format {
+        JSONL("jsonl", BookImportService.APPLICATION_NDJSON),
+        CSV("csv", BookImportService.TEXT_CSV);
+
+        private final String extension;
+        private final MediaType mediaType;
+
+        Format(String extension, MediaType mediaType) {
+            this.extension = extension;
+            this.mediaType = mediaType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public MediaType getMediaType() {
+            return mediaType;
+        }
+
+        public static Format fromParameter(String value) {
+            for (Format format : values()) {
+                if (format.extension.equalsIgnoreCase(value)) {
+                    return format;
+                }
+            }
+            throw new BadRequestException("Unsupported export format: " + value);
+        }
+    }
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Streams every book to {@code out}, gzip-compressed if requested, and returns the number of books written.
+     * The stream is finished but not closed.
+     */
+    public long export(OutputStream out, Format format, boolean gzip) throws IOException {
+        long startedAt = System.nanoTime();
+        GZIPOutputStream compressed = gzip ? new GZIPOutputStream(out, BUFFER_SIZE) : null;
+        OutputStream buffered = new BufferedOutputStream(compressed != null ? compressed : out, BUFFER_SIZE);
+
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        long count;
+        try {
+            count = transaction.execute(status -> {
+                try (Stream<Book> books = bookRepository.streamAllByOrderById();
+                     SequenceWriter writer = writer(format).writeValues(nonClosing(buffered))) {
+                    long written = 0;
+                    for (Iterator<Book> it = books.iterator(); it.hasNext(); ) {
+                        Book book = it.next();
+                        writer.write(bookService.convertToDTO(book));
+                        entityManager.detach(book);
+                        written++;
+                    }
+                    return written;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        buffered.flush();
+        if (compressed != null) {
+            compressed.finish();
+        }
+
+        log.info("Exported {} books as {}{} in {} ms", count, format.getExtension(), gzip ? ".gz" : "",
+                (System.nanoTime() - startedAt) / 1_000_000);
+        return count;
+    }
+
+    private ObjectWriter writer(Format format) {
+        return switch (format) {
+            case JSONL -> objectMapper.writerFor(BookDTO.class)
+                    .without(SerializationFeature.INDENT_OUTPUT)
+                    .withRootValueSeparator("\n");
+            case CSV -> CSV_MAPPER.writerFor(BookDTO.class)
+                    .with(CSV_MAPPER.schemaFor(BookDTO.class).withHeader());
+        };
+    }
+
+    /**
+     * Closing the sequence writer must not close the response stream before gzip has written its trailer.
+     */
+    private static OutputStream nonClosing(OutputStream out) {
+        return new FilterOutputStream(out) {
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                out.write(b, off, len);
+            }
+
+            @Override
+            public void close() throws IOException {
+                flush();
+            }
+        };
+    }
+}
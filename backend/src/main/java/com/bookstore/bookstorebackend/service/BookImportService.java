@@ -0,0 +1,297 @@
+package com.bookstore.bookstorebackend.service;
+
+import com.bookstore.bookstorebackend.dto.BookDTO;
+import com.bookstore.bookstorebackend.dto.BookImportResultDTO;
+import com.bookstore.bookstorebackend.dto.ImportErrorDTO;
+import com.bookstore.bookstorebackend.entity.Book;
+import com.bookstore.bookstorebackend.exception.BadRequestException;
+import com.bookstore.bookstorebackend.repository.BookRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Imports books from a CSV or JSON-lines body while it is being read: rows are parsed one at a time and
+ * written in chunks, each chunk in its own transaction with a single {@code IN} query to find ISBNs that
+ * already exist. Inserts go through Hibernate's JDBC batching (pooled sequence ids,
+ * {@code hibernate.jdbc.batch_size}), so memory use depends on the chunk size, not on the body size.
+ * <p>
+ * Rows that fail to parse or validate, and duplicate ISBNs, are reported with their row number and
+ * skipped; the rest of the body is still imported.
+ */
+@Service
+@Slf4j
+public class BookImportService {
+
+    public static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+    public static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    public static final MediaType APPLICATION_JSONL = MediaType.parseMediaType("application/jsonl");
+
+    private static final CsvMapper CSV_MAPPER = new CsvMapper();
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${bookstore.import.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${bookstore.import.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    public BookImportResultDTO importBooks(InputStream body, MediaType contentType) throws IOException {
+        Charset charset = contentType.getCharset() != null ? contentType.getCharset() : StandardCharsets.UTF_8;
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, charset));
+
+        ImportRun run = new ImportRun();
+        if (TEXT_CSV.isCompatibleWith(contentType)) {
+            readCsv(reader, run);
+        } else if (APPLICATION_NDJSON.isCompatibleWith(contentType) || APPLICATION_JSONL.isCompatibleWith(contentType)) {
+            readJsonLines(reader, run);
+        } else {
+            throw new BadRequestException("Unsupported import format: " + contentType);
+        }
+        run.flush();
+
+        BookImportResultDTO result = run.result();
+        log.info("Imported {} of {} books in {} ms ({} rows/s, {} failed)", result.getImported(),
+                result.getRowsRead(), result.getDurationMillis(), Math.round(result.getRowsPerSecond()),
+                result.getFailed());
+        return result;
+    }
+
+    private void readCsv(BufferedReader reader, ImportRun run) throws IOException {
+        MappingIterator<List<String>> rows = CSV_MAPPER.readerForListOf(String.class)
+                .with(CsvParser.Feature.WRAP_AS_ARRAY)
+                .with(CsvParser.Feature.SKIP_EMPTY_LINES)
+                .with(CsvParser.Feature.TRIM_SPACES)
+                .readValues(reader);
+        if (!rows.hasNextValue()) {
+            return;
+        }
+        List<String> header = rows.nextValue();
+
+        long row = 0;
+        while (true) {
+            List<String> values;
+            try {
+                if (!rows.hasNextValue()) {
+                    break;
+                }
+                values = rows.nextValue();
+            } catch (RuntimeJsonMappingException | JsonProcessingException e) {
+                // The tokenizer cannot resynchronise after malformed quoting, so the rest of the body is skipped
+                run.fail(row + 1, null, "Import stopped: " + describe(e));
+                return;
+            }
+            row++;
+
+            Map<String, String> fields = new LinkedHashMap<>();
+            for (int i = 0; i < Math.min(header.size(), values.size()); i++) {
+                if (!values.get(i).isEmpty()) {
+                    fields.put(header.get(i), values.get(i));
+                }
+            }
+            try {
+                run.accept(row, objectMapper.convertValue(fields, BookDTO.class));
+            } catch (IllegalArgumentException e) {
+                run.fail(row, fields.get("isbn"), describe(e));
+            }
+        }
+    }
+
+    private void readJsonLines(BufferedReader reader, ImportRun run) throws IOException {
+        long row = 0;
+        for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+            if (line.isBlank()) {
+                continue;
+            }
+            row++;
+            try {
+                run.accept(row, objectMapper.readValue(line, BookDTO.class));
+            } catch (JsonProcessingException e) {
+                run.fail(row, null, describe(e));
+            }
+        }
+    }
+
+    private static String describe(Exception e) {
+        Throwable cause = e instanceof JsonProcessingException || e.getCause() == null ? e : e.getCause();
+        if (cause instanceof InvalidFormatException invalid && !invalid.getPath().isEmpty()) {
+            return "Invalid value for " + invalid.getPath().get(0).getFieldName() + ": " + invalid.getValue();
+        }
+        if (cause instanceof JsonProcessingException json) {
+            return "Malformed row: " + json.getOriginalMessage();
+        }
+        return "Malformed row: " + cause.getMessage();
+    }
+
+    private static String validate(BookDTO book) {
+        if (isBlank(book.getIsbn())) {
+            return "isbn is required";
+        }
+        if (isBlank(book.getTitle())) {
+            return "title is required";
+        }
+        if (isBlank(book.getAuthor())) {
+            return "author is required";
+        }
+        if (isBlank(book.getCategory())) {
+            return "category is required";
+        }
+        if (book.getPrice() == null || book.getPrice().compareTo(BigDecimal.ZERO) < 0) {
+            return "price must be zero or more";
+        }
+        if (book.getStockQuantity() != null && book.getStockQuantity() < 0) {
+            return "stockQuantity must be zero or more";
+        }
+        return null;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private static Book toEntity(BookDTO dto) {
+        return Book.builder()
+                .title(dto.getTitle().trim())
+                .author(dto.getAuthor().trim())
+                .description(dto.getDescription())
+                .isbn(dto.getIsbn().trim())
+                .category(dto.getCategory().trim())
+                .price(dto.getPrice())
+                .stockQuantity(dto.getStockQuantity() != null ? dto.getStockQuantity() : 0)
+                .publicationYear(dto.getPublicationYear())
+                .imageUrl(dto.getImageUrl())
+                .rating(dto.getRating() != null ? dto.getRating() : 0.0)
+                .available(dto.getAvailable() != null ? dto.getAvailable() : Boolean.TRUE)
+                .build();
+    }
+
+    private record PendingRow(long row, Book book) {
+    }
+
+    /**
+     * State of one import: the chunk being filled, counters and the reported errors.
+     */
+    private class ImportRun {
+        private final long startedAt = System.nanoTime();
+        private final TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        private final List<PendingRow> chunk = new ArrayList<>(chunkSize);
+        private final List<ImportErrorDTO> errors = new ArrayList<>();
+        private long rowsRead;
+        private long imported;
+        private long failed;
+
+        void accept(long row, BookDTO dto) {
+            rowsRead++;
+            String error = validate(dto);
+            if (error != null) {
+                recordFailure(row, dto.getIsbn(), error);
+                return;
+            }
+            chunk.add(new PendingRow(row, toEntity(dto)));
+            if (chunk.size() >= chunkSize) {
+                flush();
+            }
+        }
+
+        void fail(long row, String isbn, String message) {
+            rowsRead++;
+            recordFailure(row, isbn, message);
+        }
+
+        void flush() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            Set<String> isbns = new HashSet<>();
+            chunk.forEach(pending -> isbns.add(pending.book().getIsbn()));
+            Set<String> existing = bookRepository.findExistingIsbns(isbns);
+
+            Set<String> seen = new HashSet<>();
+            List<PendingRow> accepted = new ArrayList<>(chunk.size());
+            for (PendingRow pending : chunk) {
+                String isbn = pending.book().getIsbn();
+                if (existing.contains(isbn)) {
+                    recordFailure(pending.row(), isbn, "Book with this ISBN already exists");
+                } else if (!seen.add(isbn)) {
+                    recordFailure(pending.row(), isbn, "Duplicate ISBN in import");
+                } else {
+                    accepted.add(pending);
+                }
+            }
+            chunk.clear();
+
+            List<Book> books = accepted.stream().map(PendingRow::book).toList();
+            try {
+                transaction.executeWithoutResult(status -> bookRepository.saveAll(books));
+            } catch (DataAccessException e) {
+                log.warn("Import chunk of {} rows rejected: {}", books.size(), e.getMostSpecificCause().getMessage());
+                accepted.forEach(pending -> recordFailure(pending.row(), pending.book().getIsbn(),
+                        "Rejected with its batch: " + e.getMostSpecificCause().getMessage()));
+                return;
+            }
+            books.forEach(book -> eventPublisher.publishEvent(BookChangedEvent.created(book)));
+            imported += books.size();
+        }
+
+        private void recordFailure(long row, String isbn, String message) {
+            failed++;
+            if (errors.size() < maxReportedErrors) {
+                errors.add(ImportErrorDTO.builder().row(row).isbn(isbn).message(message).build());
+            }
+        }
+
+        BookImportResultDTO result() {
+            // Duplicates are found when a chunk is written, after parse errors of later rows
+            errors.sort(Comparator.comparing(ImportErrorDTO::getRow));
+            long elapsedNanos = System.nanoTime() - startedAt;
+            return BookImportResultDTO.builder()
+                    .rowsRead(rowsRead)
+                    .imported(imported)
+                    .failed(failed)
+                    .durationMillis(elapsedNanos / 1_000_000)
+                    .rowsPerSecond(elapsedNanos == 0 ? 0.0 : rowsRead * 1e9 / elapsedNanos)
+                    .errors(errors)
+                    .errorsTruncated(failed > errors.size())
+                    .build();
+        }
+    }
+}
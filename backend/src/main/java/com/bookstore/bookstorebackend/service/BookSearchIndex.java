@@ -0,0 +1,531 @@
+package com.bookstore.bookstorebackend.service;
+
+import com.bookstore.bookstorebackend.entity.Book;
+import com.bookstore.bookstorebackend.repository.BookRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index over the searchable book fields (title, author, category, description).
+ * <p>
+ * Terms are lower-cased, accent-folded alphanumeric tokens. Every query token is matched as a prefix
+ * against the sorted term dictionary and all query tokens must match (AND semantics), so
+ * {@code "tolk hob"} finds "The Hobbit" by J.R.R. Tolkien. Results are book ids in ascending order,
+ * which lets callers load only the page they need. {@link #searchRanked(String, int, int)} orders the
+ * same matches by a field-weighted BM25 score instead.
+ * <p>
+ * The index is built off the startup thread once the application is ready and is kept current from
+ * {@link BookChangedEvent}s on every create, update and delete. Until the first build completes
+ * {@link #isReady()} returns {@code false} and callers are expected to fall back to the database, which
+ * searches the same fields by substring.
+ */
+@Component
+@Slf4j
+public class BookSearchIndex {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final int BUILD_BATCH_SIZE = 1000;
+
+    // Indexed fields in order: title, author, category, description.
+    private static final double[] FIELD_WEIGHTS = {3.0, 2.0, 1.0, 0.5};
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final double PREFIX_MATCH_WEIGHT = 0.7;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Value("${bookstore.search.index.enabled:true}")
+    private boolean enabled;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TreeMap<String, PostingList> terms = new TreeMap<>();
+    private final Map<Long, IndexedBook> documents = new HashMap<>();
+    private final long[] totalFieldLengths = new long[FIELD_WEIGHTS.length];
+    private final Set<Long> changedDuringBuild = new HashSet<>();
+
+    private volatile boolean ready;
+    private volatile boolean building;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!enabled) {
+            log.info("Book search index disabled, search uses the database");
+            return;
+        }
+        Thread builder = new Thread(this::rebuild, "book-search-index-builder");
+        builder.setDaemon(true);
+        builder.start();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        switch (event.type()) {
+            case CREATED, UPDATED -> index(event.book());
+            case DELETED -> remove(event.bookId());
+            case STOCK_CHANGED -> {
+                // No indexed field changed
+            }
+        }
+    }
+
+    /**
+     * Rebuilds the index from the database, reading the catalog in id order.
+     */
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            ready = false;
+            building = true;
+            terms.clear();
+            documents.clear();
+            Arrays.fill(totalFieldLengths, 0L);
+            changedDuringBuild.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        long lastId = 0L;
+        List<Book> batch;
+        try {
+            do {
+                batch = bookRepository.findByIdGreaterThanOrderByIdAsc(lastId, Limit.of(BUILD_BATCH_SIZE));
+                lock.writeLock().lock();
+                try {
+                    for (Book book : batch) {
+                        if (!changedDuringBuild.contains(book.getId())) {
+                            removeDocument(book.getId());
+                            addDocument(book);
+                        }
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                if (!batch.isEmpty()) {
+                    lastId = batch.get(batch.size() - 1).getId();
+                }
+            } while (batch.size() == BUILD_BATCH_SIZE);
+        } catch (RuntimeException ex) {
+            log.error("Failed to build book search index, search keeps using the database", ex);
+            building = false;
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            changedDuringBuild.clear();
+            building = false;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Book search index built: {} books, {} terms in {} ms",
+                documents.size(), terms.size(), System.currentTimeMillis() - start);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Adds the book to the index, replacing any previously indexed version of it.
+     */
+    public void index(Book book) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(book.getId());
+            addDocument(book);
+            // The build may still read an older version of this row; the newer one must win
+            if (building) {
+                changedDuringBuild.add(book.getId());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(id);
+            if (building) {
+                changedDuringBuild.add(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the ids of all books matching every token of the query, in ascending order.
+     * A query without any searchable token matches nothing.
+     */
+    public long[] search(String query) {
+        List<String> queryTokens = queryTokens(query);
+        if (queryTokens.isEmpty()) {
+            return new long[0];
+        }
+
+        lock.readLock().lock();
+        try {
+            return match(queryTokens);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns one page of the books matching every query token, ordered by BM25 relevance with
+     * title and author weighted above category and description. Ties are broken by rating (highest
+     * first) and then by id. Only {@code offset + limit} hits are ever kept in order, in a bounded heap.
+     */
+    public RankedHits searchRanked(String query, int offset, int limit) {
+        List<String> queryTokens = queryTokens(query);
+        if (queryTokens.isEmpty()) {
+            return new RankedHits(new long[0], 0);
+        }
+
+        lock.readLock().lock();
+        try {
+            long[] candidates = match(queryTokens);
+            if (candidates.length == 0 || offset >= candidates.length) {
+                return new RankedHits(new long[0], candidates.length);
+            }
+
+            IndexedBook[] books = new IndexedBook[candidates.length];
+            double[] ratings = new double[candidates.length];
+            for (int i = 0; i < candidates.length; i++) {
+                books[i] = documents.get(candidates[i]);
+                ratings[i] = books[i].rating;
+            }
+
+            double[] scores = new double[candidates.length];
+            double[] tokenScores = new double[candidates.length];
+            for (String token : queryTokens) {
+                Arrays.fill(tokenScores, 0.0);
+                for (PostingList postings : prefixRange(token).values()) {
+                    double weight = postings.term.equals(token) ? 1.0 : PREFIX_MATCH_WEIGHT;
+                    scoreTerm(postings, weight, candidates, books, tokenScores);
+                }
+                for (int i = 0; i < scores.length; i++) {
+                    scores[i] += tokenScores[i];
+                }
+            }
+
+            int[] top = TopKSelector.select(scores, ratings, offset + limit);
+            int pageSize = Math.max(0, top.length - offset);
+            long[] ids = new long[pageSize];
+            for (int i = 0; i < pageSize; i++) {
+                ids[i] = candidates[top[offset + i]];
+            }
+            return new RankedHits(ids, candidates.length);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Splits text into lower-cased, accent-folded alphanumeric tokens.
+     */
+    public static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String folded = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+
+        List<String> tokens = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i < folded.length(); i++) {
+            if (Character.isLetterOrDigit(folded.charAt(i))) {
+                if (start < 0) {
+                    start = i;
+                }
+            } else if (start >= 0) {
+                tokens.add(folded.substring(start, i));
+                start = -1;
+            }
+        }
+        if (start >= 0) {
+            tokens.add(folded.substring(start));
+        }
+        return tokens;
+    }
+
+    private static List<String> queryTokens(String query) {
+        return new ArrayList<>(new LinkedHashSet<>(tokenize(query)));
+    }
+
+    private void addDocument(Book book) {
+        List<List<String>> fields = List.of(
+                tokenize(book.getTitle()),
+                tokenize(book.getAuthor()),
+                tokenize(book.getCategory()),
+                tokenize(book.getDescription()));
+
+        Map<String, Integer> frequencies = new LinkedHashMap<>();
+        int[] lengths = new int[fields.size()];
+        for (int field = 0; field < fields.size(); field++) {
+            lengths[field] = fields.get(field).size();
+            totalFieldLengths[field] += lengths[field];
+            for (String term : fields.get(field)) {
+                frequencies.merge(term, 1 << (field * 8), BookSearchIndex::addPackedFrequency);
+            }
+        }
+
+        PostingList[] postings = new PostingList[frequencies.size()];
+        int i = 0;
+        for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+            postings[i] = terms.computeIfAbsent(entry.getKey(), PostingList::new);
+            postings[i++].add(book.getId(), entry.getValue());
+        }
+        double rating = book.getRating() != null ? book.getRating() : 0.0;
+        documents.put(book.getId(), new IndexedBook(postings, lengths, rating));
+    }
+
+    private void removeDocument(Long id) {
+        IndexedBook previous = documents.remove(id);
+        if (previous == null) {
+            return;
+        }
+        for (int field = 0; field < previous.fieldLengths.length; field++) {
+            totalFieldLengths[field] -= previous.fieldLengths[field];
+        }
+        for (PostingList postings : previous.postings) {
+            if (postings.remove(id) && postings.isEmpty()) {
+                terms.remove(postings.term);
+            }
+        }
+    }
+
+    private long[] match(List<String> queryTokens) {
+        List<long[]> matches = new ArrayList<>(queryTokens.size());
+        for (String token : queryTokens) {
+            long[] ids = matchPrefix(token);
+            if (ids.length == 0) {
+                return ids;
+            }
+            matches.add(ids);
+        }
+        matches.sort((a, b) -> Integer.compare(a.length, b.length));
+
+        long[] result = matches.get(0);
+        for (int i = 1; i < matches.size() && result.length > 0; i++) {
+            result = intersect(result, matches.get(i));
+        }
+        return result;
+    }
+
+    /**
+     * Adds the BM25F contribution of one term to every candidate it occurs in, keeping the best
+     * contribution per candidate when a query token expands to several terms. Both the postings and
+     * the candidates are sorted by id, so this is a single merge pass.
+     */
+    private void scoreTerm(PostingList postings, double weight, long[] candidates, IndexedBook[] books,
+                           double[] tokenScores) {
+        int documentCount = documents.size();
+        double idf = Math.log(1.0 + (documentCount - postings.size() + 0.5) / (postings.size() + 0.5));
+
+        int p = 0;
+        int c = 0;
+        while (p < postings.size() && c < candidates.length) {
+            long postingId = postings.ids[p];
+            if (postingId < candidates[c]) {
+                p++;
+            } else if (postingId > candidates[c]) {
+                c++;
+            } else {
+                int packed = postings.frequencies[p];
+                double tf = 0.0;
+                for (int field = 0; field < FIELD_WEIGHTS.length; field++) {
+                    int frequency = (packed >>> (field * 8)) & 0xFF;
+                    if (frequency > 0) {
+                        double averageLength = Math.max(1.0, (double) totalFieldLengths[field] / documentCount);
+                        double norm = 1.0 - B + B * books[c].fieldLengths[field] / averageLength;
+                        tf += FIELD_WEIGHTS[field] * frequency / norm;
+                    }
+                }
+                double score = weight * idf * tf * (K1 + 1.0) / (tf + K1);
+                if (score > tokenScores[c]) {
+                    tokenScores[c] = score;
+                }
+                p++;
+                c++;
+            }
+        }
+    }
+
+    private static int addPackedFrequency(int packed, int increment) {
+        int field = Integer.numberOfTrailingZeros(increment) / 8;
+        int frequency = (packed >>> (field * 8)) & 0xFF;
+        return frequency == 0xFF ? packed : packed + increment;
+    }
+
+    private NavigableMap<String, PostingList> prefixRange(String prefix) {
+        return terms.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+    }
+
+    private long[] matchPrefix(String prefix) {
+        NavigableMap<String, PostingList> range = prefixRange(prefix);
+        if (range.isEmpty()) {
+            return new long[0];
+        }
+        if (range.size() == 1) {
+            return range.firstEntry().getValue().toArray();
+        }
+
+        int total = 0;
+        for (PostingList postings : range.values()) {
+            total += postings.size();
+        }
+        long[] union = new long[total];
+        int offset = 0;
+        for (PostingList postings : range.values()) {
+            offset = postings.copyTo(union, offset);
+        }
+        Arrays.sort(union);
+
+        int distinct = 0;
+        for (int i = 0; i < union.length; i++) {
+            if (i == 0 || union[i] != union[i - 1]) {
+                union[distinct++] = union[i];
+            }
+        }
+        return Arrays.copyOf(union, distinct);
+    }
+
+    private static long[] intersect(long[] a, long[] b) {
+        long[] result = new long[Math.min(a.length, b.length)];
+        int i = 0;
+        int j = 0;
+        int n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                result[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, n);
+    }
+
+    public record RankedHits(long[] ids, int total) {
+    }
+
+    private record IndexedBook(PostingList[] postings, int[] fieldLengths, double rating) {
+    }
+
+    /**
+     * Sorted, growable array of book ids with the per-field term frequencies of each book packed into
+     * one int (a byte per field, saturating at 255). Appends in id order (the startup build) are O(1);
+     * out-of-order inserts and removals shift the tail.
+     */
+    private static final class PostingList {
+        private final String term;
+        private long[] ids = new long[4];
+        private int[] frequencies = new int[4];
+        private int size;
+
+        PostingList(String term) {
+            this.term = term;
+        }
+
+        void add(long id, int packedFrequencies) {
+            if (size > 0 && ids[size - 1] >= id) {
+                int pos = Arrays.binarySearch(ids, 0, size, id);
+                if (pos >= 0) {
+                    frequencies[pos] = packedFrequencies;
+                    return;
+                }
+                insertAt(-pos - 1, id, packedFrequencies);
+                return;
+            }
+            ensureCapacity();
+            ids[size] = id;
+            frequencies[size++] = packedFrequencies;
+        }
+
+        boolean remove(long id) {
+            int pos = Arrays.binarySearch(ids, 0, size, id);
+            if (pos < 0) {
+                return false;
+            }
+            System.arraycopy(ids, pos + 1, ids, pos, size - pos - 1);
+            System.arraycopy(frequencies, pos + 1, frequencies, pos, size - pos - 1);
+            size--;
+            return true;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        int size() {
+            return size;
+        }
+
+        long[] toArray() {
+            return Arrays.copyOf(ids, size);
+        }
+
+        int copyTo(long[] target, int offset) {
+            System.arraycopy(ids, 0, target, offset, size);
+            return offset + size;
+        }
+
+        private void insertAt(int pos, long id, int packedFrequencies) {
+            ensureCapacity();
+            System.arraycopy(ids, pos, ids, pos + 1, size - pos);
+            System.arraycopy(frequencies, pos, frequencies, pos + 1, size - pos);
+            ids[pos] = id;
+            frequencies[pos] = packedFrequencies;
+            size++;
+        }
+
+        private void ensureCapacity() {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, ids.length * 2);
+                frequencies = Arrays.copyOf(frequencies, frequencies.length * 2);
+            }
+        }
+    }
+}
@@ -1,51 +1,184 @@
 package com.bookstore.bookstorebackend.service;
 
+import com.bookstore.bookstorebackend.config.ReadReplicaRoutingDataSource;
 import com.bookstore.bookstorebackend.dto.BookDTO;
+import com.bookstore.bookstorebackend.dto.BookSummaryDTO;
+import com.bookstore.bookstorebackend.dto.CursorPage;
+import com.bookstore.bookstorebackend.dto.FacetedPage;
+import com.bookstore.bookstorebackend.dto.FacetsDTO;
 import com.bookstore.bookstorebackend.entity.Book;
+import com.bookstore.bookstorebackend.exception.BadRequestException;
 import com.bookstore.bookstorebackend.exception.ResourceNotFoundException;
 import com.bookstore.bookstorebackend.repository.BookRepository;
+import com.bookstore.bookstorebackend.repository.BookSort;
+import io.micrometer.core.annotation.Timed;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @Slf4j
+@Timed("bookstore.service")
 public class BookService {
 
     @Autowired
     private BookRepository bookRepository;
 
+    @Autowired
+    private BookSearchIndex bookSearchIndex;
+
+    @Autowired
+    private BookCache bookCache;
+
+    @Autowired
+    private CategoryFacets categoryFacets;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private BookSortPolicy bookSortPolicy;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Served from the book cache; a miss is loaded from the primary, as the entry outlives the request
+     * and must not be filled from a lagging replica.
+     */
     public BookDTO getBookById(Long id) {
-        Book book = bookRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Book not found with id: " + id));
-        return convertToDTO(book);
+        return bookCache.get(id, key -> ReadReplicaRoutingDataSource.onPrimary(() -> convertToDTO(
+                bookRepository.findById(key)
+                        .orElseThrow(() -> new ResourceNotFoundException("Book not found with id: " + key)))));
     }
 
-    public Page<BookDTO> getAllBooks(Pageable pageable) {
-        return bookRepository.findAll(pageable)
-                .map(this::convertToDTO);
+    /**
+     * Last modification time of a book, for conditional GETs: served from the book cache when the DTO is
+     * there, otherwise read as a single column, so a revalidation never loads or converts the book.
+     * May be {@code null} for rows written outside JPA.
+     */
+    public LocalDateTime getBookLastModified(Long id) {
+        BookDTO cached = bookCache.getIfPresent(id);
+        if (cached != null) {
+            return cached.getUpdatedAt();
+        }
+        return bookRepository.findVersionById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Book not found with id: " + id))
+                .getUpdatedAt();
+    }
+
+    @Transactional(readOnly = true)
+    public Page<BookSummaryDTO> getAllBooks(Pageable pageable) {
+        return bookRepository.findAllSummaries(pageable);
+    }
+
+    @Transactional(readOnly = true)
+    public Page<BookSummaryDTO> searchBooks(String search, Pageable pageable) {
+        return searchBooks(search, pageable, false);
+    }
+
+    /**
+     * Searches in id order; with {@code withFacets} the page also carries category counts over all matches.
+     */
+    @Transactional(readOnly = true)
+    public Page<BookSummaryDTO> searchBooks(String search, Pageable pageable, boolean withFacets) {
+        if (!canUseIndex(search)) {
+            Page<BookSummaryDTO> page = bookRepository.searchSummaries(search, pageable);
+            return withFacets
+                    ? new FacetedPage<>(page.getContent(), pageable, page.getTotalElements(), CategoryFacets.unavailable())
+                    : page;
+        }
+
+        long[] matches = bookSearchIndex.search(search);
+        int from = (int) Math.min(pageable.getOffset(), matches.length);
+        int to = Math.min(from + pageable.getPageSize(), matches.length);
+        List<BookSummaryDTO> content = loadInOrder(Arrays.copyOfRange(matches, from, to));
+        return withFacets
+                ? new FacetedPage<>(content, pageable, matches.length, categoryFacets.facetsFor(matches))
+                : new PageImpl<>(content, pageable, matches.length);
     }
 
-    public Page<BookDTO> searchBooks(String search, Pageable pageable) {
-        return bookRepository.searchBooks(search, pageable)
-                .map(this::convertToDTO);
+    @Transactional(readOnly = true)
+    public Page<BookSummaryDTO> searchBooksByRelevance(String search, Pageable pageable, boolean withFacets) {
+        if (!bookSearchIndex.isReady()) {
+            log.warn("Search index not ready, returning unranked results for query: {}", search);
+            return searchBooks(search, pageable, withFacets);
+        }
+
+        BookSearchIndex.RankedHits hits = bookSearchIndex.searchRanked(
+                search, (int) pageable.getOffset(), pageable.getPageSize());
+        List<BookSummaryDTO> content = loadInOrder(hits.ids());
+        return withFacets
+                ? new FacetedPage<>(content, pageable, hits.total(), categoryFacets.facetsFor(bookSearchIndex.search(search)))
+                : new PageImpl<>(content, pageable, hits.total());
     }
 
-    public Page<BookDTO> getBooksByCategory(String category, Pageable pageable) {
-        return bookRepository.findByCategory(category, pageable)
-                .map(this::convertToDTO);
+    public FacetsDTO getFacets() {
+        return categoryFacets.catalogFacets();
     }
 
-    public Page<BookDTO> getAvailableBooks(Pageable pageable) {
-        return bookRepository.findByAvailableTrue(pageable)
-                .map(this::convertToDTO);
+    @Transactional(readOnly = true)
+    public Page<BookSummaryDTO> getBooksByCategory(String category, Pageable pageable) {
+        return bookRepository.findSummariesByCategory(category, pageable);
     }
 
+    @Transactional(readOnly = true)
+    public Page<BookSummaryDTO> getAvailableBooks(Pageable pageable) {
+        return bookRepository.findAvailableSummaries(pageable);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<BookSummaryDTO> scrollAllBooks(String after, int size) {
+        return scrollAllBooks(after, size, BookSort.ID, Sort.Direction.ASC);
+    }
+
+    /**
+     * Keyset scroll in any sort that supports it; a cursor is only accepted by the sort it was issued for.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<BookSummaryDTO> scrollAllBooks(String after, int size, BookSort sort, Sort.Direction direction) {
+        if (!sort.supportsKeyset()) {
+            throw new BadRequestException("Sort " + sort.getProperty() + " is not available with cursor pagination");
+        }
+        bookSortPolicy.requireSize(size);
+        String sortKey = sort.cursorKey(direction);
+        BookCursor cursor = after == null || after.isBlank() ? null : BookCursor.decode(after);
+        if (cursor != null && !sortKey.equals(cursor.sortKey())) {
+            throw new BadRequestException("Cursor does not match the requested sort");
+        }
+
+        Slice<BookSummaryDTO> slice = bookRepository.findSummariesAfter(sort, direction,
+                cursor == null ? null : bookSortPolicy.cursorValue(sort, cursor.value()), cursor == null ? 0L : cursor.id(), size);
+        return toCursorPage(slice, book -> new BookCursor(sortKey, sort.valueOf(book), book.getId()));
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<BookSummaryDTO> scrollBooksByCategory(String category, String after, int size) {
+        return toCursorPage(bookRepository.findSummariesByCategoryAfter(category, afterId(after), seekPage(size)));
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<BookSummaryDTO> scrollAvailableBooks(String after, int size) {
+        return toCursorPage(bookRepository.findAvailableSummariesAfter(afterId(after), seekPage(size)));
+    }
+
+    @Transactional
     public BookDTO createBook(BookDTO bookDTO) {
         if (bookRepository.findByIsbn(bookDTO.getIsbn()).isPresent()) {
             throw new IllegalArgumentException("Book with this ISBN already exists");
@@ -53,35 +186,90 @@ public class BookService {
 
         Book book = convertToEntity(bookDTO);
         Book savedBook = bookRepository.save(book);
+        eventPublisher.publishEvent(BookChangedEvent.created(savedBook));
         return convertToDTO(savedBook);
     }
 
+    @Transactional
     public BookDTO updateBook(Long id, BookDTO bookDTO) {
         Book book = bookRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Book not found with id: " + id));
 
+        // First, as for a sharded book it re-reads the row under lock
+        inventoryService.setStock(book, bookDTO.getStockQuantity());
         book.setTitle(bookDTO.getTitle());
         book.setAuthor(bookDTO.getAuthor());
         book.setDescription(bookDTO.getDescription());
         book.setCategory(bookDTO.getCategory());
         book.setPrice(bookDTO.getPrice());
-        book.setStockQuantity(bookDTO.getStockQuantity());
         book.setPublicationYear(bookDTO.getPublicationYear());
         book.setImageUrl(bookDTO.getImageUrl());
         book.setRating(bookDTO.getRating());
         book.setAvailable(bookDTO.getAvailable());
 
         Book updatedBook = bookRepository.save(book);
+        eventPublisher.publishEvent(BookChangedEvent.updated(updatedBook));
         return convertToDTO(updatedBook);
     }
 
+    @Transactional
     public void deleteBook(Long id) {
         Book book = bookRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Book not found with id: " + id));
         bookRepository.delete(book);
+        eventPublisher.publishEvent(BookChangedEvent.deleted(id));
+    }
+
+    private boolean canUseIndex(String search) {
+        return bookSearchIndex.isReady() && !BookSearchIndex.tokenize(search).isEmpty();
+    }
+
+    private static long afterId(String after) {
+        if (after == null || after.isBlank()) {
+            return 0L;
+        }
+        BookCursor cursor = BookCursor.decode(after);
+        if (!"id".equals(cursor.sortKey())) {
+            throw new BadRequestException("Cursor does not match the requested sort");
+        }
+        return cursor.id();
+    }
+
+    private Pageable seekPage(int size) {
+        bookSortPolicy.requireSize(size);
+        return PageRequest.of(0, size, Sort.by("id"));
+    }
+
+    private CursorPage<BookSummaryDTO> toCursorPage(Slice<BookSummaryDTO> slice) {
+        return toCursorPage(slice, book -> BookCursor.afterId(book.getId()));
+    }
+
+    private CursorPage<BookSummaryDTO> toCursorPage(Slice<BookSummaryDTO> slice, Function<BookSummaryDTO, BookCursor> cursorAfter) {
+        List<BookSummaryDTO> books = slice.getContent();
+        String nextCursor = slice.hasNext()
+                ? cursorAfter.apply(books.get(books.size() - 1)).encode()
+                : null;
+
+        return CursorPage.<BookSummaryDTO>builder()
+                .content(books)
+                .size(slice.getSize())
+                .hasNext(slice.hasNext())
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    private List<BookSummaryDTO> loadInOrder(long[] ids) {
+        List<Long> idList = Arrays.stream(ids).boxed().collect(Collectors.toList());
+        Map<Long, BookSummaryDTO> books = bookRepository.findSummariesByIdIn(idList).stream()
+                .collect(Collectors.toMap(BookSummaryDTO::getId, Function.identity()));
+
+        return idList.stream()
+                .map(books::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
     }
 
-    private BookDTO convertToDTO(Book book) {
+    public BookDTO convertToDTO(Book book) {
         return BookDTO.builder()
                 .id(book.getId())
                 .title(book.getTitle())
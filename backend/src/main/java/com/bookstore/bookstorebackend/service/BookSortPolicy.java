@@ -0,0 +1,97 @@
+package com.bookstore.bookstorebackend.service;
+
+import com.bookstore.bookstorebackend.exception.BadRequestException;
+import com.bookstore.bookstorebackend.repository.BookSort;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Turns the {@code sortBy}/{@code direction}/{@code page}/{@code size} request parameters of book
+ * listings into a {@link Pageable}, rejecting anything outside {@link BookSort}, and sizes above
+ * {@code bookstore.catalog.max-page-size}, before a query is built.
+ * First pages of the usual sizes are kept as templates, so a listing request allocates at most one
+ * {@code PageRequest} and never a {@code Sort}.
+ */
+@Component
+public class BookSortPolicy {
+
+    private static final int MAX_TEMPLATE_SIZE = 100;
+    private static final String ALLOWED = Arrays.stream(BookSort.values())
+            .map(BookSort::getProperty)
+            .collect(Collectors.joining(", "));
+
+    private final Map<Template, PageRequest> templates = new ConcurrentHashMap<>();
+
+    @Value("${bookstore.catalog.max-page-size:100}")
+    private int maxPageSize;
+
+    private record Template(BookSort sort, Sort.Direction direction, int size) {
+    }
+
+    public BookSort sort(String sortBy) {
+        for (BookSort sort : BookSort.values()) {
+            if (sort.getProperty().equalsIgnoreCase(sortBy)) {
+                return sort;
+            }
+        }
+        throw new BadRequestException("Unsupported sort: " + sortBy + " (allowed: " + ALLOWED + ")");
+    }
+
+    public Sort.Direction direction(String direction) {
+        return Sort.Direction.fromOptionalString(direction)
+                .orElseThrow(() -> new BadRequestException("Unsupported sort direction: " + direction + " (allowed: ASC, DESC)"));
+    }
+
+    /** The sort value a cursor resumes from, as written by {@link BookSort#valueOf}. */
+    public Object cursorValue(BookSort sort, String value) {
+        try {
+            return sort.parseValue(value);
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("Invalid cursor", e);
+        }
+    }
+
+    public Pageable pageable(String sortBy, String direction, int page, int size) {
+        return pageable(sort(sortBy), direction(direction), page, size);
+    }
+
+    public Pageable pageable(BookSort sort, Sort.Direction direction, int page, int size) {
+        requirePage(page, size);
+        if (size > MAX_TEMPLATE_SIZE) {
+            return PageRequest.of(page, size, sort.getSort(direction));
+        }
+        PageRequest first = templates.computeIfAbsent(new Template(sort, direction, size),
+                template -> PageRequest.of(0, template.size(), template.sort().getSort(template.direction())));
+        return page == 0 ? first : first.withPage(page);
+    }
+
+    /** For listings in their own fixed order (search, category, available). */
+    public Pageable pageable(int page, int size) {
+        requirePage(page, size);
+        return PageRequest.of(page, size);
+    }
+
+    public void requireSize(int size) {
+        if (size < 1) {
+            throw new BadRequestException("Size must be at least 1");
+        }
+        if (size > maxPageSize) {
+            throw new BadRequestException("Size must be at most " + maxPageSize);
+        }
+    }
+
+    private void requirePage(int page, int size) {
+        if (page < 0) {
+            throw new BadRequestException("Page must not be negative");
+        }
+        requireSize(size);
+    }
+}
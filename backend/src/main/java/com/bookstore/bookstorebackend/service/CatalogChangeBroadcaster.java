@@ -0,0 +1,534 @@
+package com.bookstore.bookstorebackend.service;
+
+import com.bookstore.bookstorebackend.dto.BookChangeDTO;
+import com.bookstore.bookstorebackend.entity.Book;
+import com.bookstore.bookstorebackend.exception.BadRequestException;
+import com.bookstore.bookstorebackend.exception.TooManyRequestsException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pushes committed catalog changes to server-sent-event subscribers, so clients can patch the books they
+ * show instead of polling the listings.
+ * <p>
+ * Nothing here holds a thread per connection: an idle subscriber is a parked async request plus a small
+ * buffer. Committing threads only put the change on a bounded queue. One fan-out thread serialises each
+ * change once and offers it to the matching subscribers (unfiltered, by category, by book id), and a
+ * writer pool drains the buffers of subscribers that have something to send.
+ * <p>
+ * Each subscriber buffers at most {@code buffer-size} books. A newer change to a book already waiting
+ * is merged into it (coalesced), so a slow client gets the latest state rather than every step. When the
+ * buffer is full the oldest book is dropped, and the client is sent a {@code resync} event before the
+ * rest, telling it to reload what it displays. The same happens to everyone if the fan-out queue itself
+ * overflows.
+ * <p>
+ * Writes are blocking servlet writes. A subscriber whose write has not finished within
+ * {@code send-timeout} is dropped at once, so nothing more is buffered or sent to it, but its writer
+ * thread is only freed when the connector's write timeout ({@code server.tomcat.connection-timeout})
+ * fails the write. The writer pool therefore grows on demand up to {@code writer-threads}, so that many
+ * clients that stopped reading cannot stall the others; writers retire when idle.
+ */
+@Component
+@Slf4j
+public class CatalogChangeBroadcaster implements MeterBinder {
+
+    static final String BOOK_EVENT = "book";
+    static final String RESYNC_EVENT = "resync";
+
+    static final String CREATED = "created";
+    static final String UPDATED = "updated";
+    static final String STOCK = "stock";
+    static final String DELETED = "deleted";
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${bookstore.catalog.stream.max-subscribers:20000}")
+    private int maxSubscribers;
+
+    @Value("${bookstore.catalog.stream.max-filter-ids:500}")
+    private int maxFilterIds;
+
+    @Value("${bookstore.catalog.stream.buffer-size:64}")
+    private int bufferSize;
+
+    @Value("${bookstore.catalog.stream.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${bookstore.catalog.stream.writer-threads:64}")
+    private int writerThreads;
+
+    @Value("${bookstore.catalog.stream.send-timeout:10s}")
+    private Duration sendTimeout;
+
+    @Value("${bookstore.catalog.stream.heartbeat-interval:25s}")
+    private Duration heartbeatInterval;
+
+    @Value("${bookstore.catalog.stream.timeout:30m}")
+    private Duration timeout;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final Set<Subscriber> unfiltered = ConcurrentHashMap.newKeySet();
+    private final Map<String, Set<Subscriber>> byCategory = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Subscriber>> byBook = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final AtomicBoolean changesLost = new AtomicBoolean();
+
+    private final LongAdder broadcast = new LongAdder();
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder lost = new LongAdder();
+    private final LongAdder slow = new LongAdder();
+
+    private BlockingQueue<Routed> pending;
+    private ThreadPoolExecutor writers;
+    private ScheduledExecutorService heartbeats;
+    private Thread fanOut;
+    private volatile boolean running;
+    private long nextId;
+
+    /** A change with what it is routed by; the category is not always part of the delta itself. */
+    private record Routed(Long bookId, String category, BookChangeDTO change) {
+    }
+
+    /** A routed change with its event id and its JSON, serialised once for all subscribers. */
+    private record Change(long id, Long bookId, BookChangeDTO delta, String json) {
+    }
+
+    private static final class Subscriber {
+        final SseEmitter emitter;
+        final Set<String> categories;
+        final Set<Long> bookIds;
+        final AtomicBoolean scheduled = new AtomicBoolean();
+        /** Guarded by this subscriber. */
+        final LinkedHashMap<Long, Change> buffer = new LinkedHashMap<>();
+        boolean overflowed;
+        boolean heartbeatDue;
+        volatile long lastSentNanos = System.nanoTime();
+        /** When the write in progress started, or 0 when none is. */
+        volatile long sendingSinceNanos;
+
+        Subscriber(SseEmitter emitter, Set<String> categories, Set<Long> bookIds) {
+            this.emitter = emitter;
+            this.categories = categories;
+            this.bookIds = bookIds;
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        pending = new ArrayBlockingQueue<>(queueCapacity);
+        // Core threads time out, so the pool only holds threads while there is writing to do
+        writers = new ThreadPoolExecutor(writerThreads, writerThreads, 30L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), threadFactory("catalog-stream-writer-"));
+        writers.allowCoreThreadTimeOut(true);
+        heartbeats = Executors.newSingleThreadScheduledExecutor(threadFactory("catalog-stream-heartbeat-"));
+        heartbeats.scheduleWithFixedDelay(this::heartbeat, heartbeatInterval.toMillis(), heartbeatInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+        long watchdogMillis = Math.max(10, Math.min(1_000, sendTimeout.toMillis() / 4));
+        heartbeats.scheduleWithFixedDelay(this::dropSlowSubscribers, watchdogMillis, watchdogMillis,
+                TimeUnit.MILLISECONDS);
+        running = true;
+        fanOut = threadFactory("catalog-stream-fan-out-").newThread(this::fanOutLoop);
+        fanOut.start();
+        log.info("Catalog change stream initialised: maxSubscribers={}, bufferSize={}, writers={}",
+                maxSubscribers, bufferSize, writerThreads);
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        running = false;
+        fanOut.interrupt();
+        fanOut.join(TimeUnit.SECONDS.toMillis(5));
+        heartbeats.shutdownNow();
+        writers.shutdownNow();
+        // Ends the responses still open, so the server is not left waiting for them
+        for (Subscriber subscriber : subscribers) {
+            try {
+                subscriber.emitter.complete();
+            } catch (IllegalStateException e) {
+                // Already closed by the server shutting down
+            }
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("bookstore.catalog.stream.subscribers", subscriberCount, AtomicInteger::get)
+                .description("Open catalog change streams")
+                .register(registry);
+        FunctionCounter.builder("bookstore.catalog.stream.changes", broadcast, LongAdder::sum)
+                .description("Catalog changes offered to subscribers")
+                .register(registry);
+        FunctionCounter.builder("bookstore.catalog.stream.sent", sent, LongAdder::sum)
+                .description("Change events written to subscribers")
+                .register(registry);
+        FunctionCounter.builder("bookstore.catalog.stream.coalesced", coalesced, LongAdder::sum)
+                .description("Changes merged into one already waiting for the same book")
+                .register(registry);
+        FunctionCounter.builder("bookstore.catalog.stream.dropped", dropped, LongAdder::sum)
+                .description("Buffered changes dropped for slow subscribers, who are told to resync")
+                .register(registry);
+        FunctionCounter.builder("bookstore.catalog.stream.lost", lost, LongAdder::sum)
+                .description("Changes not queued for fan-out because the queue was full; all subscribers resync")
+                .register(registry);
+        FunctionCounter.builder("bookstore.catalog.stream.slow", slow, LongAdder::sum)
+                .description("Streams closed because a write took longer than the send timeout")
+                .register(registry);
+    }
+
+    /**
+     * Opens a stream of changes to books in any of {@code categories} or with any of {@code bookIds}, or
+     * to every book when both are empty. Deletions are sent to every subscriber, as the deleted book's
+     * category is no longer known.
+     *
+     * @throws TooManyRequestsException if {@code max-subscribers} streams are already open
+     */
+    public SseEmitter subscribe(Collection<String> categories, Collection<Long> bookIds) {
+        return subscribe(categories, bookIds, new SseEmitter(timeout.toMillis()));
+    }
+
+    SseEmitter subscribe(Collection<String> categories, Collection<Long> bookIds, SseEmitter emitter) {
+        if (bookIds.size() > maxFilterIds) {
+            throw new BadRequestException("At most " + maxFilterIds + " book ids can be watched per stream");
+        }
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new TooManyRequestsException("Too many catalog change streams are open");
+        }
+        Subscriber subscriber = new Subscriber(emitter, Set.copyOf(categories), Set.copyOf(bookIds));
+        try {
+            // Sent when the request thread starts the stream, so the response headers are written there
+            // and never race the writers; the client (and any proxy) also sees the stream open at once
+            emitter.send(SseEmitter.event().comment("connected"));
+        } catch (IOException | RuntimeException e) {
+            subscriberCount.decrementAndGet();
+            throw new IllegalStateException("Cannot open catalog change stream", e);
+        }
+        subscribers.add(subscriber);
+        if (subscriber.categories.isEmpty() && subscriber.bookIds.isEmpty()) {
+            unfiltered.add(subscriber);
+        }
+        subscriber.categories.forEach(category -> index(byCategory, category, subscriber));
+        subscriber.bookIds.forEach(bookId -> index(byBook, bookId, subscriber));
+
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        // Ends the response normally; the client reconnects, as it would after any other disconnect
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(error -> unsubscribe(subscriber));
+        return emitter;
+    }
+
+    int subscriberCount() {
+        return subscriberCount.get();
+    }
+
+    private boolean unsubscribe(Subscriber subscriber) {
+        if (!subscribers.remove(subscriber)) {
+            return false;
+        }
+        subscriberCount.decrementAndGet();
+        unfiltered.remove(subscriber);
+        subscriber.categories.forEach(category -> unindex(byCategory, category, subscriber));
+        subscriber.bookIds.forEach(bookId -> unindex(byBook, bookId, subscriber));
+        return true;
+    }
+
+    private static <K> void index(Map<K, Set<Subscriber>> index, K key, Subscriber subscriber) {
+        index.compute(key, (k, set) -> {
+            Set<Subscriber> subscribers = set == null ? ConcurrentHashMap.newKeySet() : set;
+            subscribers.add(subscriber);
+            return subscribers;
+        });
+    }
+
+    private static <K> void unindex(Map<K, Set<Subscriber>> index, K key, Subscriber subscriber) {
+        index.computeIfPresent(key, (k, set) -> {
+            set.remove(subscriber);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    /**
+     * Runs on the committing thread (or the publishing one outside a transaction): only queues the change.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        if (subscriberCount.get() == 0) {
+            return;
+        }
+        if (!pending.offer(route(event))) {
+            lost.increment();
+            changesLost.set(true);
+        }
+    }
+
+    private static Routed route(BookChangedEvent event) {
+        Book book = event.book();
+        return switch (event.type()) {
+            case DELETED -> new Routed(event.bookId(), null,
+                    BookChangeDTO.builder().type(DELETED).id(event.bookId()).build());
+            case STOCK_CHANGED -> new Routed(event.bookId(), book.getCategory(), BookChangeDTO.builder()
+                    .type(STOCK)
+                    .id(event.bookId())
+                    .stockQuantity(book.getStockQuantity())
+                    .available(book.getAvailable())
+                    .build());
+            case CREATED, UPDATED -> new Routed(event.bookId(), book.getCategory(), BookChangeDTO.builder()
+                    .type(event.type() == BookChangedEvent.Type.CREATED ? CREATED : UPDATED)
+                    .id(event.bookId())
+                    .title(book.getTitle())
+                    .author(book.getAuthor())
+                    .category(book.getCategory())
+                    .price(book.getPrice())
+                    .stockQuantity(book.getStockQuantity())
+                    .available(book.getAvailable())
+                    .build());
+        };
+    }
+
+    private void fanOutLoop() {
+        while (running) {
+            try {
+                Routed routed = pending.take();
+                if (changesLost.getAndSet(false)) {
+                    subscribers.forEach(this::overflow);
+                }
+                fanOut(routed);
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                log.warn("Catalog change fan-out failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void fanOut(Routed routed) {
+        Change change = change(++nextId, routed.bookId(), routed.change());
+        if (routed.category() == null) {
+            subscribers.forEach(subscriber -> offer(subscriber, change));
+        } else {
+            offerMatching(routed, change);
+        }
+        broadcast.increment();
+    }
+
+    private void offerMatching(Routed routed, Change change) {
+        unfiltered.forEach(subscriber -> offer(subscriber, change));
+        Set<Subscriber> inCategory = byCategory.get(routed.category());
+        if (inCategory != null) {
+            inCategory.forEach(subscriber -> offer(subscriber, change));
+        }
+        Set<Subscriber> watching = byBook.get(routed.bookId());
+        if (watching != null) {
+            for (Subscriber subscriber : watching) {
+                // Already offered through its category
+                if (!subscriber.categories.contains(routed.category())) {
+                    offer(subscriber, change);
+                }
+            }
+        }
+    }
+
+    private void offer(Subscriber subscriber, Change change) {
+        synchronized (subscriber) {
+            Change waiting = subscriber.buffer.remove(change.bookId());
+            if (waiting != null) {
+                coalesced.increment();
+                change = merge(waiting, change);
+            } else if (subscriber.buffer.size() >= bufferSize) {
+                Iterator<Change> oldest = subscriber.buffer.values().iterator();
+                oldest.next();
+                oldest.remove();
+                subscriber.overflowed = true;
+                dropped.increment();
+            }
+            // Re-inserted at the end, so the buffer stays in event id order
+            subscriber.buffer.put(change.bookId(), change);
+        }
+        schedule(subscriber);
+    }
+
+    private void overflow(Subscriber subscriber) {
+        synchronized (subscriber) {
+            subscriber.overflowed = true;
+        }
+        schedule(subscriber);
+    }
+
+    /**
+     * A stock change on top of a waiting creation or update keeps the full delta with the newer stock;
+     * anything else simply replaces what was waiting.
+     */
+    private Change merge(Change waiting, Change next) {
+        String waitingType = waiting.delta().getType();
+        if (!STOCK.equals(next.delta().getType()) || DELETED.equals(waitingType) || STOCK.equals(waitingType)) {
+            if (CREATED.equals(waitingType) && UPDATED.equals(next.delta().getType())) {
+                return change(next.id(), next.bookId(), next.delta().toBuilder().type(CREATED).build());
+            }
+            return next;
+        }
+        return change(next.id(), next.bookId(), waiting.delta().toBuilder()
+                .stockQuantity(next.delta().getStockQuantity())
+                .available(next.delta().getAvailable())
+                .build());
+    }
+
+    private Change change(long id, Long bookId, BookChangeDTO delta) {
+        try {
+            return new Change(id, bookId, delta, objectMapper.writeValueAsString(delta));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialise book change " + bookId, e);
+        }
+    }
+
+    private void heartbeat() {
+        long idleSince = System.nanoTime() - heartbeatInterval.toNanos();
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.lastSentNanos - idleSince <= 0) {
+                synchronized (subscriber) {
+                    subscriber.heartbeatDue = true;
+                }
+                schedule(subscriber);
+            }
+        }
+    }
+
+    private void dropSlowSubscribers() {
+        long startedBefore = System.nanoTime() - sendTimeout.toNanos();
+        for (Subscriber subscriber : subscribers) {
+            long since = subscriber.sendingSinceNanos;
+            if (since != 0 && since - startedBefore < 0 && unsubscribe(subscriber)) {
+                slow.increment();
+                log.debug("Dropping catalog change stream stuck writing for over {}", sendTimeout);
+            }
+        }
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.scheduled.compareAndSet(false, true)) {
+            try {
+                writers.execute(() -> drain(subscriber));
+            } catch (RejectedExecutionException e) {
+                // Shutting down
+                subscriber.scheduled.set(false);
+            }
+        }
+    }
+
+    /**
+     * Writes everything the subscriber has waiting, on a writer thread. Only one drain per subscriber runs
+     * at a time; changes offered meanwhile are picked up before it lets go. Any failure closes the stream.
+     */
+    private void drain(Subscriber subscriber) {
+        boolean drained = false;
+        try {
+            drained = drainBuffer(subscriber);
+        } catch (IOException | RuntimeException e) {
+            // The client went away, the stream already ended, or the event could not be written
+            log.debug("Closing catalog change stream: {}", e.getMessage());
+            unsubscribe(subscriber);
+            try {
+                subscriber.emitter.completeWithError(e);
+            } catch (RuntimeException alreadyClosed) {
+                // Nothing left to close
+            }
+        } finally {
+            subscriber.sendingSinceNanos = 0;
+            if (!drained) {
+                subscriber.scheduled.set(false);
+            }
+        }
+    }
+
+    /**
+     * @return {@code true} once the buffer is empty and the subscriber was released for the next drain
+     */
+    private boolean drainBuffer(Subscriber subscriber) throws IOException {
+        while (true) {
+            List<Change> changes;
+            boolean resync;
+            boolean heartbeat;
+            synchronized (subscriber) {
+                changes = new ArrayList<>(subscriber.buffer.values());
+                subscriber.buffer.clear();
+                resync = subscriber.overflowed;
+                subscriber.overflowed = false;
+                heartbeat = subscriber.heartbeatDue;
+                subscriber.heartbeatDue = false;
+                if (changes.isEmpty() && !resync && !heartbeat) {
+                    subscriber.scheduled.set(false);
+                    return true;
+                }
+            }
+            if (resync) {
+                send(subscriber, SseEmitter.event().name(RESYNC_EVENT).data("{}"));
+            }
+            for (Change change : changes) {
+                send(subscriber, SseEmitter.event()
+                        .id(Long.toString(change.id()))
+                        .name(BOOK_EVENT)
+                        .data(change.json()));
+                sent.increment();
+            }
+            if (heartbeat && changes.isEmpty() && !resync) {
+                send(subscriber, SseEmitter.event().comment("keep-alive"));
+            }
+            subscriber.lastSentNanos = System.nanoTime();
+        }
+    }
+
+    private void send(Subscriber subscriber, SseEmitter.SseEventBuilder event) throws IOException {
+        if (!subscribers.contains(subscriber)) {
+            throw new IllegalStateException("Stream was closed");
+        }
+        subscriber.sendingSinceNanos = System.nanoTime();
+        subscriber.emitter.send(event);
+        subscriber.sendingSinceNanos = 0;
+    }
+
+    private static ThreadFactory threadFactory(String prefix) {
+        AtomicInteger sequence = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
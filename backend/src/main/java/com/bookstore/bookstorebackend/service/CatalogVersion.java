@@ -0,0 +1,52 @@
+package com.bookstore.bookstorebackend.service;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counter bumped on every committed {@link BookChangedEvent}, used as the validator for catalog listings
+ * (pages, searches, facets). Any write to any book changes the version, so a client holding the ETag of
+ * a listing can be answered with {@code 304 Not Modified} without running the query again.
+ * <p>
+ * The ETag carries the startup time as well, so that versions handed out before a restart are never
+ * mistaken for the current one.
+ */
+@Component
+public class CatalogVersion {
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+    private final AtomicLong version = new AtomicLong();
+    private volatile long lastModified = System.currentTimeMillis();
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        increment();
+    }
+
+    public void increment() {
+        lastModified = System.currentTimeMillis();
+        version.incrementAndGet();
+    }
+
+    public long current() {
+        return version.get();
+    }
+
+    /**
+     * Weak validator: listings are equivalent but not byte-identical across versions of the serializer.
+     * Read it before building the response, so that a concurrent change can only make the body newer
+     * than its ETag, never older.
+     */
+    public String etag() {
+        return "W/\"catalog-" + epoch + "-" + version.get() + "\"";
+    }
+
+    /**
+     * Time of the last change (or of startup), in epoch milliseconds for {@code Last-Modified}.
+     */
+    public long lastModified() {
+        return lastModified;
+    }
+}
@@ -0,0 +1,273 @@
+package com.bookstore.bookstorebackend.service;
+
+import com.bookstore.bookstorebackend.dto.CategoryFacetDTO;
+import com.bookstore.bookstorebackend.dto.FacetsDTO;
+import com.bookstore.bookstorebackend.entity.Book;
+import com.bookstore.bookstorebackend.repository.BookRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Category, availability and in-stock counts for the whole catalog, maintained incrementally from
+ * {@link BookChangedEvent}s so that no request needs a {@code GROUP BY} over the books table.
+ * <p>
+ * Besides the aggregate, a compact per-book entry is kept, which is what makes updates incremental
+ * (the old category and flags are subtracted before the new ones are added) and lets
+ * {@link #facetsFor(long[])} count any set of search matches in a single pass.
+ * <p>
+ * The initial counts are read off the startup thread once the application is ready. Changes that
+ * arrive meanwhile win over the rows the build reads, so the aggregate is exact when it becomes ready.
+ */
+@Component
+@Slf4j
+public class CategoryFacets {
+
+    private static final int BUILD_BATCH_SIZE = 5000;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Entry> books = new HashMap<>();
+    private final Map<String, Counts> categories = new HashMap<>();
+    private final Counts totals = new Counts(null);
+    private final Set<Long> changedDuringBuild = new HashSet<>();
+
+    private volatile boolean ready;
+    private volatile boolean building;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        Thread builder = new Thread(this::rebuild, "category-facets-builder");
+        builder.setDaemon(true);
+        builder.start();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        if (event.type() == BookChangedEvent.Type.DELETED) {
+            remove(event.bookId());
+        } else {
+            update(event.book());
+        }
+    }
+
+    /**
+     * Recounts the catalog from the database, reading only the faceted columns in id order.
+     */
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            ready = false;
+            building = true;
+            books.clear();
+            categories.clear();
+            totals.clear();
+            changedDuringBuild.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        long lastId = 0L;
+        List<BookRepository.FacetRow> batch;
+        try {
+            do {
+                batch = bookRepository.findFacetRowsAfter(lastId, PageRequest.of(0, BUILD_BATCH_SIZE));
+                lock.writeLock().lock();
+                try {
+                    for (BookRepository.FacetRow row : batch) {
+                        if (!changedDuringBuild.contains(row.getId())) {
+                            put(row.getId(), new Entry(row.getCategory(), Boolean.TRUE.equals(row.getAvailable()),
+                                    row.getStockQuantity() != null && row.getStockQuantity() > 0));
+                        }
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                if (!batch.isEmpty()) {
+                    lastId = batch.get(batch.size() - 1).getId();
+                }
+            } while (batch.size() == BUILD_BATCH_SIZE);
+        } catch (RuntimeException ex) {
+            log.error("Failed to count category facets", ex);
+            building = false;
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            changedDuringBuild.clear();
+            building = false;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        // Facets in cached listings were "unavailable" until now
+        catalogVersion.increment();
+        log.info("Category facets built: {} books in {} categories in {} ms",
+                books.size(), categories.size(), System.currentTimeMillis() - start);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void update(Book book) {
+        Entry entry = new Entry(book.getCategory(), Boolean.TRUE.equals(book.getAvailable()),
+                book.getStockQuantity() != null && book.getStockQuantity() > 0);
+        lock.writeLock().lock();
+        try {
+            put(book.getId(), entry);
+            if (building) {
+                changedDuringBuild.add(book.getId());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            Entry previous = books.remove(id);
+            if (previous != null) {
+                subtract(previous);
+            }
+            if (building) {
+                changedDuringBuild.add(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Facet counts over the whole catalog.
+     */
+    public FacetsDTO catalogFacets() {
+        lock.readLock().lock();
+        try {
+            return toDTO(totals, categories);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Facet counts over the given books, e.g. every match of a search query. Unknown ids are ignored.
+     */
+    public FacetsDTO facetsFor(long[] ids) {
+        Counts matchTotals = new Counts(null);
+        Map<String, Counts> matchCategories = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            for (long id : ids) {
+                Entry entry = books.get(id);
+                if (entry != null) {
+                    matchTotals.add(entry, 1);
+                    matchCategories.computeIfAbsent(entry.category(), Counts::new).add(entry, 1);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return toDTO(matchTotals, matchCategories);
+    }
+
+    /**
+     * Facets for results whose full match set is unknown (the database fallback used before the search
+     * index is ready); reports {@code ready=false} rather than counting with a query.
+     */
+    public static FacetsDTO unavailable() {
+        return FacetsDTO.builder().ready(false).categories(List.of()).build();
+    }
+
+    private void put(Long id, Entry entry) {
+        Entry previous = books.remove(id);
+        if (previous != null) {
+            subtract(previous);
+        }
+        // Entries share the category string held by its counter instead of keeping one copy per book
+        Counts category = categories.computeIfAbsent(entry.category(), Counts::new);
+        Entry shared = new Entry(category.category, entry.available(), entry.inStock());
+        books.put(id, shared);
+        totals.add(shared, 1);
+        category.add(shared, 1);
+    }
+
+    private void subtract(Entry entry) {
+        totals.add(entry, -1);
+        Counts counts = categories.get(entry.category());
+        counts.add(entry, -1);
+        if (counts.count == 0) {
+            categories.remove(entry.category());
+        }
+    }
+
+    private FacetsDTO toDTO(Counts totals, Map<String, Counts> categories) {
+        List<CategoryFacetDTO> facets = categories.entrySet().stream()
+                .map(category -> CategoryFacetDTO.builder()
+                        .category(category.getKey())
+                        .count(category.getValue().count)
+                        .available(category.getValue().available)
+                        .inStock(category.getValue().inStock)
+                        .build())
+                .sorted(Comparator.comparing(CategoryFacetDTO::getCount).reversed()
+                        .thenComparing(CategoryFacetDTO::getCategory))
+                .toList();
+        return FacetsDTO.builder()
+                .ready(ready)
+                .total(totals.count)
+                .available(totals.available)
+                .inStock(totals.inStock)
+                .categories(facets)
+                .build();
+    }
+
+    private record Entry(String category, boolean available, boolean inStock) {
+    }
+
+    private static final class Counts {
+        private final String category;
+        private long count;
+        private long available;
+        private long inStock;
+
+        Counts(String category) {
+            this.category = category;
+        }
+
+        void add(Entry entry, int delta) {
+            count += delta;
+            if (entry.available()) {
+                available += delta;
+            }
+            if (entry.inStock()) {
+                inStock += delta;
+            }
+        }
+
+        void clear() {
+            count = 0;
+            available = 0;
+            inStock = 0;
+        }
+    }
+}
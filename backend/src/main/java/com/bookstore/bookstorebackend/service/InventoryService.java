@@ -0,0 +1,335 @@
+package com.bookstore.bookstorebackend.service;
+
+import com.bookstore.bookstorebackend.dto.InventoryDTO;
+import com.bookstore.bookstorebackend.entity.Book;
+import com.bookstore.bookstorebackend.entity.BookStockSlot;
+import com.bookstore.bookstorebackend.exception.BadRequestException;
+import com.bookstore.bookstorebackend.exception.ResourceNotFoundException;
+import com.bookstore.bookstorebackend.repository.BookRepository;
+import com.bookstore.bookstorebackend.repository.BookStockSlotRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Stock reservation for orders, with optional sharding for hot books. Normally a book's stock is one
+ * column and every buyer's conditional {@code UPDATE} queues on its row lock, which caps a flash sale
+ * at one reservation per lock hold. A sharded book's stock is split across {@code N}
+ * {@link BookStockSlot} rows instead: a buyer takes from a random slot, so up to {@code N} reservations
+ * proceed at once.
+ * <p>
+ * Near zero the slots empty unevenly. When no slot holds enough on its own, the buyer locks all slots
+ * of the book (in slot order), takes the quantity from their total if it suffices and spreads what is
+ * left evenly again, so the last units sell exactly and a slot running dry never refuses a sale.
+ * <p>
+ * The book's {@code stock_quantity} is no longer written per order; a background task reconciles it
+ * with the slot totals every {@code reconcile-interval} and publishes a {@link BookChangedEvent}, so
+ * listings, facets and caches trail the true stock by at most that long. Turning sharding off folds the
+ * slots back into the column.
+ */
+@Service
+@Slf4j
+public class InventoryService {
+
+    private static final int PROBES = 2;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private BookStockSlotRepository slotRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${bookstore.inventory.max-slots:64}")
+    private int maxSlots;
+
+    @Value("${bookstore.inventory.reconcile-interval:2s}")
+    private Duration reconcileInterval;
+
+    private Counter rowReservations;
+    private Counter slotReservations;
+    private Counter drainReservations;
+    private Counter rejections;
+    private TransactionTemplate transaction;
+    private ScheduledExecutorService reconciler;
+
+    @PostConstruct
+    void init() {
+        rowReservations = reservations("row");
+        slotReservations = reservations("slot");
+        drainReservations = reservations("drain");
+        rejections = Counter.builder("bookstore.inventory.rejections")
+                .description("Reservations refused for insufficient stock")
+                .register(meterRegistry);
+        transaction = new TransactionTemplate(transactionManager);
+    }
+
+    private Counter reservations(String path) {
+        return Counter.builder("bookstore.inventory.reservations")
+                .description("Stock reservations by path: the book row, one slot, or all slots of a book near zero")
+                .tag("path", path)
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        reconciler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "inventory-reconciler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = reconcileInterval.toMillis();
+        reconciler.scheduleWithFixedDelay(() -> {
+            try {
+                reconcile();
+            } catch (RuntimeException e) {
+                log.warn("Stock reconciliation failed, retrying after {}: {}", reconcileInterval, e.getMessage());
+            }
+        }, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (reconciler != null) {
+            reconciler.shutdownNow();
+        }
+    }
+
+    /**
+     * Takes {@code quantity} units of the book's stock in the caller's transaction.
+     *
+     * @return whether there was enough stock
+     */
+    public boolean reserve(Book book, int quantity, LocalDateTime now) {
+        if (!book.isStockSharded()) {
+            if (bookRepository.reserveStock(book.getId(), quantity, now) == 1) {
+                rowReservations.increment();
+                return true;
+            }
+            // Sharding may have been turned on since the book was read
+            entityManager.refresh(book);
+            if (!book.isStockSharded()) {
+                rejections.increment();
+                return false;
+            }
+        }
+
+        // Probe only slots the committed quantities say can serve the order, and refuse a sold-out book
+        // without taking any lock: some databases lock a row a conditional UPDATE examines but does not
+        // change, so failed probes would queue buyers and can deadlock with a drain
+        List<Integer> quantities = slotRepository.findQuantitiesByBookId(book.getId());
+        if (!quantities.isEmpty() && quantities.stream().mapToLong(Integer::longValue).sum() < quantity) {
+            rejections.increment();
+            return false;
+        }
+        int first = ThreadLocalRandom.current().nextInt(Math.max(quantities.size(), 1));
+        int probes = 0;
+        for (int i = 0; i < quantities.size() && probes < PROBES; i++) {
+            int slot = (first + i) % quantities.size();
+            if (quantities.get(slot) >= quantity) {
+                probes++;
+                if (slotRepository.take(book.getId(), slot, quantity) == 1) {
+                    slotReservations.increment();
+                    return true;
+                }
+            }
+        }
+        return drain(book, quantity, now);
+    }
+
+    private boolean drain(Book book, int quantity, LocalDateTime now) {
+        List<BookStockSlot> slots = slotRepository.findByBookIdForUpdate(book.getId());
+        if (slots.isEmpty()) {
+            // Sharding was turned off since the book was read; the stock is back in the book's row
+            if (bookRepository.reserveStock(book.getId(), quantity, now) == 1) {
+                rowReservations.increment();
+                return true;
+            }
+            rejections.increment();
+            return false;
+        }
+        long total = total(slots);
+        if (total < quantity) {
+            rejections.increment();
+            return false;
+        }
+        spread(slots, total - quantity);
+        drainReservations.increment();
+        return true;
+    }
+
+    @Transactional(readOnly = true)
+    public InventoryDTO getInventory(Long bookId) {
+        Book book = bookRepository.findById(bookId)
+                .orElseThrow(() -> new ResourceNotFoundException("Book not found with id: " + bookId));
+        return toDTO(book, slotRepository.findByBookIdOrderBySlot(bookId));
+    }
+
+    /**
+     * Splits the book's stock across {@code slots} slots, or re-splits it if it is already sharded.
+     */
+    @Transactional
+    public InventoryDTO enableSharding(Long bookId, int slots) {
+        if (slots < 2 || slots > maxSlots) {
+            throw new BadRequestException("Slots must be between 2 and " + maxSlots);
+        }
+        Book book = lockBook(bookId);
+        List<BookStockSlot> current = slotRepository.findByBookIdForUpdate(bookId);
+        long total = book.isStockSharded() ? total(current) : stockOf(book);
+        slotRepository.deleteAll(current);
+        // Deletes are otherwise flushed after inserts, which would collide on the primary key
+        slotRepository.flush();
+
+        List<BookStockSlot> split = new ArrayList<>(slots);
+        for (int slot = 0; slot < slots; slot++) {
+            split.add(BookStockSlot.builder().bookId(bookId).slot(slot).quantity(0).build());
+        }
+        spread(split, total);
+        slotRepository.saveAll(split);
+        book.setStockQuantity((int) total);
+        bookRepository.updateStockSlots(bookId, slots, LocalDateTime.now());
+        book.setStockSlots(slots);
+        log.info("Stock of book {} ({} units) sharded across {} slots", bookId, total, slots);
+        return toDTO(book, split);
+    }
+
+    /**
+     * Folds the book's slots back into its stock column.
+     */
+    @Transactional
+    public InventoryDTO disableSharding(Long bookId) {
+        Book book = lockBook(bookId);
+        if (book.isStockSharded()) {
+            List<BookStockSlot> current = slotRepository.findByBookIdForUpdate(bookId);
+            long total = total(current);
+            slotRepository.deleteAll(current);
+            book.setStockQuantity((int) total);
+            bookRepository.updateStockSlots(bookId, 0, LocalDateTime.now());
+            book.setStockSlots(0);
+            eventPublisher.publishEvent(BookChangedEvent.stockChanged(book));
+            log.info("Stock of book {} ({} units) moved back from slots to the book", bookId, total);
+        }
+        return toDTO(book, List.of());
+    }
+
+    /**
+     * Sets the stock of a book being edited: the column of an unsharded book, the slots of a sharded one.
+     * For a sharded book an unchanged quantity leaves the slots alone, as the column trails the slots and
+     * editing other fields must not undo the sales made since.
+     */
+    void setStock(Book book, Integer quantity) {
+        if (!book.isStockSharded()) {
+            book.setStockQuantity(quantity);
+            return;
+        }
+        // Holds off enabling or disabling sharding until the edit commits
+        entityManager.refresh(book, LockModeType.PESSIMISTIC_WRITE);
+        List<BookStockSlot> current = slotRepository.findByBookIdForUpdate(book.getId());
+        if (!book.isStockSharded() || current.isEmpty()) {
+            book.setStockQuantity(quantity);
+        } else if (quantity != null && !quantity.equals(book.getStockQuantity())) {
+            spread(current, quantity);
+            book.setStockQuantity(quantity);
+        }
+    }
+
+    /**
+     * Copies each sharded book's slot total into its stock column where they differ.
+     *
+     * @return the number of books updated
+     */
+    int reconcile() {
+        Integer updated = transaction.execute(status -> {
+            Map<Long, Long> totals = slotRepository.sumByBook().stream()
+                    .collect(Collectors.toMap(BookStockSlotRepository.TotalRow::getBookId,
+                            BookStockSlotRepository.TotalRow::getQuantity));
+            if (totals.isEmpty()) {
+                return 0;
+            }
+            LocalDateTime now = LocalDateTime.now();
+            List<Long> changed = new ArrayList<>();
+            for (BookRepository.StockRow row : bookRepository.findStockByIdIn(totals.keySet())) {
+                long total = totals.get(row.getId());
+                if ((row.getStockQuantity() == null || row.getStockQuantity() != total)
+                        && bookRepository.updateShardedStock(row.getId(), (int) total, now) == 1) {
+                    changed.add(row.getId());
+                }
+            }
+            bookRepository.findAllById(changed)
+                    .forEach(book -> eventPublisher.publishEvent(BookChangedEvent.stockChanged(book)));
+            return changed.size();
+        });
+        return updated == null ? 0 : updated;
+    }
+
+    private Book lockBook(Long bookId) {
+        return bookRepository.findByIdForUpdate(bookId)
+                .orElseThrow(() -> new ResourceNotFoundException("Book not found with id: " + bookId));
+    }
+
+    private static long stockOf(Book book) {
+        return book.getStockQuantity() == null ? 0 : book.getStockQuantity();
+    }
+
+    private static long total(List<BookStockSlot> slots) {
+        return slots.stream().mapToLong(BookStockSlot::getQuantity).sum();
+    }
+
+    /** Divides {@code total} over the slots, the remainder going one unit each to the first slots. */
+    private static void spread(List<BookStockSlot> slots, long total) {
+        long share = total / slots.size();
+        long remainder = total % slots.size();
+        for (int i = 0; i < slots.size(); i++) {
+            slots.get(i).setQuantity((int) (share + (i < remainder ? 1 : 0)));
+        }
+    }
+
+    private static InventoryDTO toDTO(Book book, List<BookStockSlot> slots) {
+        List<Integer> quantities = slots.stream().map(BookStockSlot::getQuantity).toList();
+        return InventoryDTO.builder()
+                .bookId(book.getId())
+                .sharded(book.isStockSharded())
+                .slots(quantities)
+                .availableQuantity(book.isStockSharded()
+                        ? (int) total(slots)
+                        : book.getStockQuantity())
+                .stockQuantity(book.getStockQuantity())
+                .build();
+    }
+}
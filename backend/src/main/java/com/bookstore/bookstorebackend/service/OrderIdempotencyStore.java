@@ -0,0 +1,160 @@
+package com.bookstore.bookstorebackend.service;
+
+import com.bookstore.bookstorebackend.dto.OrderDTO;
+import com.bookstore.bookstorebackend.dto.OrderItemRequest;
+import com.bookstore.bookstorebackend.dto.OrderRequest;
+import com.bookstore.bookstorebackend.exception.BadRequestException;
+import com.bookstore.bookstorebackend.exception.TooManyRequestsException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Remembers the order placed for each {@code Idempotency-Key} a user sends, so a retried checkout
+ * (timeout, double click, flaky network) gets the original order back instead of placing a second one.
+ * <p>
+ * Keys are scoped per user and kept in a bounded cache ({@code maximum-size} keys for {@code ttl}). A
+ * key is claimed before the order is placed: a duplicate that arrives while the first request is still
+ * running waits for its outcome rather than racing it, for no longer than the placement's transactions
+ * may take, and is otherwise told to retry. A failed placement releases the key, as nothing was ordered.
+ * Reusing a key for a different order is rejected.
+ * <p>
+ * The store lives in memory, per instance: a retry that reaches another instance, or arrives after a
+ * restart, places a new order.
+ */
+@Component
+@Slf4j
+public class OrderIdempotencyStore implements MeterBinder {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    @Value("${bookstore.orders.idempotency.maximum-size:100000}")
+    private long maximumSize;
+
+    @Value("${bookstore.orders.idempotency.ttl:24h}")
+    private Duration ttl;
+
+    @Value("${bookstore.orders.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${bookstore.orders.transaction-timeout:10s}")
+    private Duration transactionTimeout;
+
+    private Duration awaitTimeout;
+    private Cache<Key, Entry> entries;
+    private final LongAdder replays = new LongAdder();
+
+    private record Key(String username, String idempotencyKey) {
+    }
+
+    private record Entry(String fingerprint, CompletableFuture<OrderDTO> order) {
+    }
+
+    /**
+     * The order for a request, and whether it was placed by an earlier request with the same key.
+     */
+    public record Result(OrderDTO order, boolean replayed) {
+    }
+
+    @PostConstruct
+    void init() {
+        awaitTimeout = transactionTimeout.multipliedBy(maxAttempts);
+        entries = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .build();
+        log.info("Order idempotency store initialised: maximumSize={}, ttl={}, awaitTimeout={}",
+                maximumSize, ttl, awaitTimeout);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("bookstore.orders.idempotency.keys", this, store -> store.entries.estimatedSize())
+                .description("Idempotency keys remembered")
+                .register(registry);
+        FunctionCounter.builder("bookstore.orders.idempotency.replays", replays, LongAdder::sum)
+                .description("Checkout requests answered with the order of an earlier request")
+                .register(registry);
+    }
+
+    /**
+     * Runs {@code placement} unless the user already sent this key, in which case the order it placed is
+     * returned (after waiting for it if that request is still running).
+     *
+     * @throws BadRequestException if the key is malformed or was used for a different order
+     * @throws TooManyRequestsException if the request that claimed the key is still running after the wait
+     */
+    public Result execute(String username, String idempotencyKey, OrderRequest request, Supplier<OrderDTO> placement) {
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new BadRequestException(HEADER + " must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+        Key key = new Key(username, idempotencyKey);
+        Entry claim = new Entry(fingerprint(request), new CompletableFuture<>());
+        Entry existing = entries.asMap().putIfAbsent(key, claim);
+        if (existing != null) {
+            if (!existing.fingerprint().equals(claim.fingerprint())) {
+                throw new BadRequestException(HEADER + " was already used for a different order");
+            }
+            OrderDTO order = await(existing.order());
+            replays.increment();
+            return new Result(order, true);
+        }
+
+        try {
+            OrderDTO order = placement.get();
+            claim.order().complete(order);
+            return new Result(order, false);
+        } catch (RuntimeException e) {
+            entries.asMap().remove(key, claim);
+            claim.order().completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private OrderDTO await(CompletableFuture<OrderDTO> order) {
+        try {
+            return order.get(awaitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new TooManyRequestsException(
+                    "A request with this " + HEADER + " is still being processed, retry later");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TooManyRequestsException("Interrupted while waiting for the original request, retry later");
+        } catch (ExecutionException e) {
+            // The concurrent original failed; answer the duplicate the same way
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static String fingerprint(OrderRequest request) {
+        // Sorted, so the same items listed in another order still match
+        return request.getItems().stream()
+                .sorted(Comparator.comparing(OrderItemRequest::getBookId)
+                        .thenComparing(OrderItemRequest::getQuantity))
+                .map(item -> item.getBookId() + "x" + item.getQuantity())
+                .collect(Collectors.joining(",")) + "|" + request.getShippingAddress();
+    }
+}
@@ -0,0 +1,90 @@
+package com.bookstore.bookstorebackend.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Snowflake-style order numbers: 41 bits of milliseconds since 2024-01-01, 10 bits of node id and a
+ * 12-bit per-millisecond sequence, written as 13 Crockford base32 characters. Numbers sort by creation
+ * time (so the unique index is appended to, not split at random like with UUIDs), never collide between
+ * nodes with distinct {@code bookstore.orders.node-id}s, and need no database round trip or lock.
+ * <p>
+ * The last issued timestamp and sequence live in one {@link AtomicLong} advanced by compare-and-set.
+ * The generator's clock never goes back: if the system clock does, or a millisecond's 4096 numbers run
+ * out, numbers continue from the last timestamp and catch up with the wall clock later.
+ */
+@Component
+@Slf4j
+public class OrderNumberGenerator {
+
+    static final long EPOCH_MILLIS = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+    static final int NODE_BITS = 10;
+    static final int SEQUENCE_BITS = 12;
+    static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final char[] CROCKFORD = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final int LENGTH = 13;
+
+    @Value("${bookstore.orders.node-id:0}")
+    private int nodeId;
+
+    private final LongSupplier clock;
+
+    /** Milliseconds since the epoch shifted left by {@link #SEQUENCE_BITS}, plus the sequence. */
+    private final AtomicLong last = new AtomicLong();
+
+    public OrderNumberGenerator() {
+        this.clock = System::currentTimeMillis;
+    }
+
+    OrderNumberGenerator(LongSupplier clock, int nodeId) {
+        this.clock = clock;
+        this.nodeId = nodeId;
+        init();
+    }
+
+    @PostConstruct
+    void init() {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalStateException("bookstore.orders.node-id must be between 0 and " + MAX_NODE_ID + ": " + nodeId);
+        }
+        log.info("Order numbers are generated for node {}", nodeId);
+    }
+
+    public String next() {
+        return format(nextId());
+    }
+
+    long nextId() {
+        long stamped;
+        while (true) {
+            long previous = last.get();
+            long now = (clock.getAsLong() - EPOCH_MILLIS) << SEQUENCE_BITS;
+            // A later millisecond restarts the sequence; otherwise take the next number after the last one,
+            // which moves into the following millisecond once the sequence is exhausted
+            stamped = now > previous ? now : previous + 1;
+            if (last.compareAndSet(previous, stamped)) {
+                break;
+            }
+        }
+        long millis = stamped >>> SEQUENCE_BITS;
+        return (millis << (NODE_BITS + SEQUENCE_BITS)) | ((long) nodeId << SEQUENCE_BITS) | (stamped & SEQUENCE_MASK);
+    }
+
+    /** Fixed-width, so string order is numeric order. */
+    static String format(long id) {
+        char[] chars = new char[LENGTH];
+        for (int i = LENGTH - 1; i >= 0; i--) {
+            chars[i] = CROCKFORD[(int) (id & 31)];
+            id >>>= 5;
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,371 @@
+package com.bookstore.bookstorebackend.service;
+
+import com.bookstore.bookstorebackend.entity.OrderOutboxEvent;
+import com.bookstore.bookstorebackend.repository.OrderOutboxRepository;
+import com.bookstore.bookstorebackend.repository.OrderRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drives orders through {@code PENDING → CONFIRMED → SHIPPED → DELIVERED} from the {@code order_outbox}
+ * table, off the request path. One dispatcher thread claims due rows in batches
+ * ({@code FOR UPDATE SKIP LOCKED}, so several instances share the table without blocking each other)
+ * and hands them to a worker pool that runs the {@link OrderStageHandler}s.
+ * <p>
+ * A claim does not hold a lock while the handler runs: it moves the row's {@code available_at} to the
+ * end of a lease and commits. On success one transaction advances the order (only from the stage's
+ * expected status), marks the row done and enqueues the next stage; on failure the row becomes due
+ * again after an exponential backoff, until the attempt limit marks it failed. A row whose worker died
+ * is claimed again once its lease ends, which is why handlers receive an idempotency key; the attempt
+ * limit covers those claims too, so a row whose lease keeps running out is failed rather than retried
+ * forever.
+ * <p>
+ * Backpressure: the dispatcher never has more than {@code max-in-flight} rows claimed but unfinished;
+ * when the workers fall behind it claims smaller batches, then none, and the backlog stays in the table.
+ */
+@Component
+@Slf4j
+public class OrderOutboxDispatcher {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+    private static final int MAX_BACKOFF_DOUBLINGS = 6;
+    private static final long BACKLOG_REFRESH_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    @Autowired
+    private OrderOutboxRepository outboxRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired(required = false)
+    private List<OrderStageHandler> handlerBeans = List.of();
+
+    @Value("${bookstore.orders.outbox.enabled:true}")
+    private boolean enabled;
+
+    @Value("${bookstore.orders.outbox.batch-size:100}")
+    private int batchSize;
+
+    @Value("${bookstore.orders.outbox.poll-interval:500ms}")
+    private Duration pollInterval;
+
+    @Value("${bookstore.orders.outbox.worker-threads:4}")
+    private int workerThreads;
+
+    @Value("${bookstore.orders.outbox.max-in-flight:400}")
+    private int maxInFlight;
+
+    @Value("${bookstore.orders.outbox.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${bookstore.orders.outbox.retry-backoff:1s}")
+    private Duration retryBackoff;
+
+    @Value("${bookstore.orders.outbox.lease:60s}")
+    private Duration lease;
+
+    private final Map<OrderOutboxEvent.Stage, OrderStageHandler> handlers = new EnumMap<>(OrderOutboxEvent.Stage.class);
+    private final Map<OrderOutboxEvent.Stage, StageMeters> meters = new EnumMap<>(OrderOutboxEvent.Stage.class);
+    private TransactionTemplate transaction;
+    private Semaphore inFlight;
+    private DistributionSummary batchSizes;
+    private ThreadPoolExecutor workers;
+    private Thread dispatcher;
+    private volatile boolean running;
+    private long backlogRefreshedAt;
+
+    private enum Outcome { FAILED, RETRIED, SKIPPED }
+
+    /**
+     * Per-stage throughput (handled timer counts by outcome), handler latency, and lag: the time from the
+     * row being enqueued to the stage completing, which includes waiting in the backlog and retries.
+     */
+    private record StageMeters(Timer succeeded, Timer skipped, Timer retried, Timer failed, Timer lag,
+                               AtomicLong backlog) {
+    }
+
+    @PostConstruct
+    void init() {
+        for (OrderStageHandler handler : handlerBeans) {
+            OrderStageHandler previous = handlers.put(handler.stage(), handler);
+            if (previous != null) {
+                throw new IllegalStateException("Two order stage handlers for " + handler.stage() + ": "
+                        + previous.getClass().getName() + " and " + handler.getClass().getName());
+            }
+        }
+        for (OrderOutboxEvent.Stage stage : OrderOutboxEvent.Stage.values()) {
+            String tag = stage.name().toLowerCase();
+            AtomicLong backlog = new AtomicLong();
+            Gauge.builder("bookstore.orders.outbox.backlog", backlog, AtomicLong::get)
+                    .description("Pending outbox rows, claimed or not, refreshed by the dispatcher")
+                    .tag("stage", tag)
+                    .register(meterRegistry);
+            meters.put(stage, new StageMeters(handled(tag, "success"), handled(tag, "skipped"),
+                    handled(tag, "retry"), handled(tag, "failed"),
+                    Timer.builder("bookstore.orders.outbox.lag")
+                            .description("Time from enqueueing a stage to completing it")
+                            .tag("stage", tag)
+                            .publishPercentileHistogram()
+                            .register(meterRegistry),
+                    backlog));
+        }
+        batchSizes = DistributionSummary.builder("bookstore.orders.outbox.batch")
+                .description("Rows claimed per dispatcher poll")
+                .register(meterRegistry);
+        inFlight = new Semaphore(maxInFlight);
+        Gauge.builder("bookstore.orders.outbox.in.flight", inFlight, permits -> maxInFlight - permits.availablePermits())
+                .description("Claimed rows not yet finished by a worker")
+                .register(meterRegistry);
+        transaction = new TransactionTemplate(transactionManager);
+    }
+
+    private Timer handled(String stage, String outcome) {
+        return Timer.builder("bookstore.orders.outbox.handled")
+                .description("Outbox rows processed, with the time spent in the stage handler")
+                .tags("stage", stage, "outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            log.info("Order outbox dispatcher disabled; outbox rows are kept for another instance");
+            return;
+        }
+        workers = new ThreadPoolExecutor(workerThreads, workerThreads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), threadFactory("order-outbox-worker-"));
+        running = true;
+        backlogRefreshedAt = System.nanoTime() - BACKLOG_REFRESH_NANOS;
+        dispatcher = threadFactory("order-outbox-dispatcher-").newThread(this::dispatchLoop);
+        dispatcher.start();
+        log.info("Order outbox dispatcher started: batchSize={}, workers={}, maxInFlight={}, handlers={}",
+                batchSize, workerThreads, maxInFlight, handlers.keySet());
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        if (dispatcher != null) {
+            dispatcher.interrupt();
+            dispatcher.join(TimeUnit.SECONDS.toMillis(5));
+        }
+        if (workers != null) {
+            // Unfinished rows stay claimed until their lease ends and are then processed again
+            workers.shutdown();
+            workers.awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+
+    private void dispatchLoop() {
+        while (running) {
+            try {
+                int claimed = dispatchBatch();
+                if (claimed < batchSize) {
+                    Thread.sleep(pollInterval.toMillis());
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                log.warn("Order outbox dispatch failed, retrying after the poll interval: {}", e.getMessage());
+                try {
+                    Thread.sleep(pollInterval.toMillis());
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Claims as many due rows as there is room for in flight and submits them to the workers. A row that
+     * has used all its attempts without any of them reporting back is marked failed instead of claimed.
+     *
+     * @return the number of rows claimed
+     */
+    int dispatchBatch() {
+        refreshBacklog();
+        int capacity = Math.min(batchSize, inFlight.availablePermits());
+        if (capacity == 0) {
+            return 0;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<OrderOutboxEvent> expired = new ArrayList<>();
+        List<OrderOutboxEvent> due = transaction.execute(status -> {
+            List<OrderOutboxEvent> locked = outboxRepository.lockDue(now, capacity);
+            LocalDateTime leaseEnd = now.plus(lease);
+            for (OrderOutboxEvent event : locked) {
+                if (event.getAttempts() >= maxAttempts) {
+                    // Every attempt was claimed and none reported back: its worker keeps dying or stalling
+                    event.setStatus(OrderOutboxEvent.Status.FAILED);
+                    event.setLastError("Lease expired without a result after " + event.getAttempts() + " attempts");
+                    expired.add(event);
+                } else {
+                    event.setAvailableAt(leaseEnd);
+                    event.setAttempts(event.getAttempts() + 1);
+                }
+            }
+            return locked;
+        });
+        if (!due.isEmpty()) {
+            batchSizes.record(due.size());
+        }
+        for (OrderOutboxEvent event : expired) {
+            log.warn("Order {} failed {}: lease expired after {} attempts", event.getOrderNumber(), event.getStage(),
+                    event.getAttempts());
+            meters.get(event.getStage()).failed().record(Duration.ZERO);
+        }
+        for (OrderOutboxEvent event : due) {
+            if (event.getStatus() == OrderOutboxEvent.Status.FAILED) {
+                continue;
+            }
+            // Only this thread acquires, and it claimed no more than were available
+            inFlight.acquireUninterruptibly();
+            workers.execute(() -> {
+                try {
+                    process(event);
+                } finally {
+                    inFlight.release();
+                }
+            });
+        }
+        return due.size();
+    }
+
+    private void process(OrderOutboxEvent event) {
+        StageMeters stageMeters = meters.get(event.getStage());
+        OrderStageHandler handler = handlers.get(event.getStage());
+        long start = System.nanoTime();
+        try {
+            if (handler != null) {
+                handler.handle(OrderStageEvent.of(event));
+            }
+        } catch (Exception e) {
+            long elapsed = System.nanoTime() - start;
+            try {
+                Outcome outcome = transaction.execute(status -> fail(event, e));
+                switch (outcome) {
+                    case FAILED -> stageMeters.failed().record(elapsed, TimeUnit.NANOSECONDS);
+                    case RETRIED -> stageMeters.retried().record(elapsed, TimeUnit.NANOSECONDS);
+                    default -> stageMeters.skipped().record(elapsed, TimeUnit.NANOSECONDS);
+                }
+            } catch (RuntimeException recordFailure) {
+                log.warn("Could not record failure of outbox row {}, it is retried after its lease: {}",
+                        event.getId(), recordFailure.getMessage());
+            }
+            return;
+        }
+
+        long elapsed = System.nanoTime() - start;
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            boolean advanced = transaction.execute(status -> complete(event, now));
+            (advanced ? stageMeters.succeeded() : stageMeters.skipped()).record(elapsed, TimeUnit.NANOSECONDS);
+            stageMeters.lag().record(Duration.between(event.getCreatedAt(), now));
+        } catch (RuntimeException e) {
+            log.warn("Could not complete outbox row {} ({}), it is redelivered after its lease: {}",
+                    event.getId(), event.getIdempotencyKey(), e.getMessage());
+        }
+    }
+
+    /**
+     * Marks the row done, advances the order and enqueues the next stage. A row this claim no longer
+     * holds (its lease ran out and it was redelivered) is left to the newer claim, and an order no longer
+     * in the stage's expected status (already advanced by an earlier delivery, or cancelled) is left alone.
+     *
+     * @return whether the order moved
+     */
+    private boolean complete(OrderOutboxEvent event, LocalDateTime now) {
+        OrderOutboxEvent.Stage stage = event.getStage();
+        if (outboxRepository.markDone(event.getId(), event.getAttempts(), now) == 0) {
+            log.debug("Outbox row {} ({}) was claimed again after its lease, result discarded",
+                    event.getId(), event.getIdempotencyKey());
+            return false;
+        }
+        boolean advanced = orderRepository.advanceStatus(event.getOrderId(), stage.getFrom(), stage.getTo(), now) == 1;
+        if (advanced && stage.next() != null) {
+            outboxRepository.save(OrderOutboxEvent.pending(event.getOrderId(), event.getOrderNumber(), stage.next(), now));
+        }
+        if (!advanced) {
+            log.debug("Order {} was not {} any more, {} skipped", event.getOrderNumber(), stage.getFrom(), stage);
+        }
+        return advanced;
+    }
+
+    /**
+     * Schedules a retry, or gives up once the attempts are used. Like {@link #complete}, it writes nothing
+     * to a row this claim no longer holds.
+     */
+    private Outcome fail(OrderOutboxEvent event, Exception error) {
+        String message = error.getClass().getSimpleName() + ": " + error.getMessage();
+        String lastError = message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message;
+        int attempts = event.getAttempts();
+        if (attempts >= maxAttempts) {
+            if (outboxRepository.markFailed(event.getId(), attempts, lastError) == 0) {
+                return Outcome.SKIPPED;
+            }
+            log.warn("Order {} failed {} after {} attempts: {}", event.getOrderNumber(), event.getStage(),
+                    attempts, message);
+            return Outcome.FAILED;
+        }
+        Duration backoff = retryBackoff.multipliedBy(1L << Math.min(attempts - 1, MAX_BACKOFF_DOUBLINGS));
+        if (outboxRepository.scheduleRetry(event.getId(), attempts, LocalDateTime.now().plus(backoff), lastError) == 0) {
+            return Outcome.SKIPPED;
+        }
+        log.debug("Order {} {} attempt {} failed, retrying in {}: {}", event.getOrderNumber(), event.getStage(),
+                attempts, backoff, message);
+        return Outcome.RETRIED;
+    }
+
+    private void refreshBacklog() {
+        long now = System.nanoTime();
+        if (now - backlogRefreshedAt < BACKLOG_REFRESH_NANOS) {
+            return;
+        }
+        backlogRefreshedAt = now;
+        meters.values().forEach(stageMeters -> stageMeters.backlog().set(0));
+        for (OrderOutboxRepository.BacklogRow row : outboxRepository.countByStatusGroupByStage(OrderOutboxEvent.Status.PENDING)) {
+            meters.get(row.getStage()).backlog().set(row.getCount());
+        }
+    }
+
+    private static ThreadFactory threadFactory(String prefix) {
+        AtomicInteger sequence = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
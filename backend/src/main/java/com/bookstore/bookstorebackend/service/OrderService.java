@@ -0,0 +1,241 @@
+package com.bookstore.bookstorebackend.service;
+
+import com.bookstore.bookstorebackend.dto.OrderDTO;
+import com.bookstore.bookstorebackend.dto.OrderItemDTO;
+import com.bookstore.bookstorebackend.dto.OrderItemRequest;
+import com.bookstore.bookstorebackend.dto.OrderRequest;
+import com.bookstore.bookstorebackend.entity.Book;
+import com.bookstore.bookstorebackend.entity.Order;
+import com.bookstore.bookstorebackend.entity.OrderItem;
+import com.bookstore.bookstorebackend.entity.OrderOutboxEvent;
+import com.bookstore.bookstorebackend.entity.User;
+import com.bookstore.bookstorebackend.exception.BadRequestException;
+import com.bookstore.bookstorebackend.exception.ResourceNotFoundException;
+import com.bookstore.bookstorebackend.repository.BookRepository;
+import com.bookstore.bookstorebackend.repository.OrderOutboxRepository;
+import com.bookstore.bookstorebackend.repository.OrderRepository;
+import com.bookstore.bookstorebackend.repository.UserRepository;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Places orders without holding row locks across the transaction: stock is taken with one
+ * conditional {@code UPDATE ... WHERE stock_quantity >= ?} per book, so concurrent buyers of the same
+ * book serialise only for the duration of that statement and the database never lets stock go
+ * negative. Hot books can have their stock sharded across several rows ({@link InventoryService}), so
+ * flash-sale buyers do not all queue on one row. A short-lived lock conflict or deadlock between
+ * multi-item orders is retried in a fresh transaction; running out of stock is not retried.
+ * <p>
+ * Everything after placement (confirmation, shipping, delivery) is queued in the order's transaction
+ * as an outbox row and driven asynchronously by {@link OrderOutboxDispatcher}.
+ */
+@Service
+@Slf4j
+@Timed("bookstore.service")
+public class OrderService {
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private OrderOutboxRepository orderOutboxRepository;
+
+    @Autowired
+    private OrderNumberGenerator orderNumberGenerator;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${bookstore.orders.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${bookstore.orders.transaction-timeout:10s}")
+    private Duration transactionTimeout;
+
+    public OrderDTO placeOrder(String username, OrderRequest request) {
+        // Merge repeated books and reserve in id order, so two multi-item orders cannot deadlock
+        Map<Long, Integer> quantities = request.getItems().stream()
+                .collect(Collectors.toMap(OrderItemRequest::getBookId, OrderItemRequest::getQuantity,
+                        Integer::sum, TreeMap::new));
+
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setTimeout((int) transactionTimeout.toSeconds());
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transaction.execute(status -> createOrder(username, quantities, request.getShippingAddress()));
+            } catch (ConcurrencyFailureException e) {
+                if (attempt >= maxAttempts) {
+                    throw e;
+                }
+                log.debug("Order attempt {} for user {} hit a lock conflict, retrying", attempt, username);
+                backOff(attempt);
+            }
+        }
+    }
+
+    /**
+     * Reads a page of history in a fixed number of statements however many items the orders hold: the
+     * page of orders (plus its count), then the items of all of them in one projection query.
+     */
+    @Transactional(readOnly = true)
+    public Page<OrderDTO> getOrdersForUser(String username, Pageable pageable) {
+        Page<Order> orders = orderRepository.findByUserUsername(username, pageable);
+        Map<Long, List<OrderItemDTO>> items = loadItems(orders.map(Order::getId).getContent());
+        return orders.map(order -> convertToDTO(order, items.getOrDefault(order.getId(), List.of())));
+    }
+
+    @Transactional(readOnly = true)
+    public OrderDTO getOrderForUser(String username, Long id) {
+        Order order = orderRepository.findByIdAndUserUsername(id, username)
+                .orElseThrow(() -> new ResourceNotFoundException("Order not found with id: " + id));
+        return convertToDTO(order, loadItems(List.of(order.getId())).getOrDefault(order.getId(), List.of()));
+    }
+
+    private OrderDTO createOrder(String username, Map<Long, Integer> quantities, String shippingAddress) {
+        User user = findUser(username);
+        Map<Long, Book> books = bookRepository.findAllById(quantities.keySet()).stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+
+        LocalDateTime now = LocalDateTime.now();
+        Order order = Order.builder()
+                .user(user)
+                .orderNumber(orderNumberGenerator.next())
+                .status(Order.OrderStatus.PENDING)
+                .shippingAddress(shippingAddress)
+                .items(new HashSet<>())
+                .build();
+
+        BigDecimal total = BigDecimal.ZERO;
+        for (Map.Entry<Long, Integer> line : quantities.entrySet()) {
+            Book book = books.get(line.getKey());
+            if (book == null || !Boolean.TRUE.equals(book.getAvailable())) {
+                throw new BadRequestException("Book is not available: " + line.getKey());
+            }
+            if (!inventoryService.reserve(book, line.getValue(), now)) {
+                throw new BadRequestException("Insufficient stock for book: " + book.getId());
+            }
+            // A sharded book's row is not written per order; InventoryService reconciles it periodically
+            if (!book.isStockSharded()) {
+                // Re-read the row this transaction now holds, so listeners see the stock left after this order
+                entityManager.refresh(book);
+                eventPublisher.publishEvent(BookChangedEvent.stockChanged(book));
+            }
+            order.getItems().add(OrderItem.builder()
+                    .order(order)
+                    .book(book)
+                    .quantity(line.getValue())
+                    .price(book.getPrice())
+                    .build());
+            total = total.add(book.getPrice().multiply(BigDecimal.valueOf(line.getValue())));
+        }
+        order.setTotalAmount(total);
+
+        Order saved = orderRepository.save(order);
+        // Committed or rolled back with the order; OrderOutboxDispatcher takes it from here
+        orderOutboxRepository.save(OrderOutboxEvent.pending(saved.getId(), saved.getOrderNumber(),
+                OrderOutboxEvent.Stage.CONFIRM, now));
+        log.info("Placed order {} for user {} ({} items, total {})", saved.getOrderNumber(), username,
+                quantities.size(), total);
+        return convertToDTO(saved);
+    }
+
+    private User findUser(String username) {
+        return userRepository.findByUsername(username)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found: " + username));
+    }
+
+    private static void backOff(int attempt) {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(5, 20) * attempt);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while retrying order placement", e);
+        }
+    }
+
+    /** Items per order id, each list in book id order. */
+    private Map<Long, List<OrderItemDTO>> loadItems(List<Long> orderIds) {
+        if (orderIds.isEmpty()) {
+            return Map.of();
+        }
+        return orderRepository.findItemRowsByOrderIdIn(orderIds).stream()
+                .collect(Collectors.groupingBy(OrderRepository.ItemRow::getOrderId,
+                        Collectors.mapping(row -> OrderItemDTO.builder()
+                                .id(row.getId())
+                                .bookId(row.getBookId())
+                                .title(row.getTitle())
+                                .author(row.getAuthor())
+                                .quantity(row.getQuantity())
+                                .price(row.getPrice())
+                                .build(), Collectors.toList())));
+    }
+
+    /** For an order placed in this transaction, whose items and books are already loaded. */
+    private OrderDTO convertToDTO(Order order) {
+        List<OrderItemDTO> items = order.getItems().stream()
+                .sorted(Comparator.comparing(item -> item.getBook().getId()))
+                .map(item -> OrderItemDTO.builder()
+                        .id(item.getId())
+                        .bookId(item.getBook().getId())
+                        .title(item.getBook().getTitle())
+                        .author(item.getBook().getAuthor())
+                        .quantity(item.getQuantity())
+                        .price(item.getPrice())
+                        .build())
+                .toList();
+        return convertToDTO(order, items);
+    }
+
+    private OrderDTO convertToDTO(Order order, List<OrderItemDTO> items) {
+        return OrderDTO.builder()
+                .id(order.getId())
+                .orderNumber(order.getOrderNumber())
+                .status(order.getStatus().name())
+                .totalAmount(order.getTotalAmount())
+                .shippingAddress(order.getShippingAddress())
+                .items(items)
+                .createdAt(order.getCreatedAt())
+                .updatedAt(order.getUpdatedAt())
+                .build();
+    }
+}
@@ -0,0 +1,15 @@
+package com.bookstore.bookstorebackend.service;
+
+import com.bookstore.bookstorebackend.entity.OrderOutboxEvent;
+
+/**
+ * One delivery of an order pipeline step to its {@link OrderStageHandler}; {@code attempt} starts at 1.
+ */
+public record OrderStageEvent(Long orderId, String orderNumber, OrderOutboxEvent.Stage stage,
+                              String idempotencyKey, int attempt) {
+
+    static OrderStageEvent of(OrderOutboxEvent event) {
+        return new OrderStageEvent(event.getOrderId(), event.getOrderNumber(), event.getStage(),
+                event.getIdempotencyKey(), event.getAttempts());
+    }
+}
@@ -0,0 +1,19 @@
+package com.bookstore.bookstorebackend.service;
+
+import com.bookstore.bookstorebackend.entity.OrderOutboxEvent;
+
+/**
+ * Downstream work for one stage of the order pipeline (payment capture, warehouse, carrier). Declare an
+ * implementation as a bean to plug it in; a stage without a handler completes as soon as it is claimed.
+ * <p>
+ * Handlers run on the dispatcher's worker pool outside any transaction, and the same event may be
+ * delivered more than once (after a crash or a failed status update), so they must treat
+ * {@link OrderStageEvent#idempotencyKey()} as the identity of the request they make. Throwing schedules
+ * a retry with backoff until the dispatcher's attempt limit is reached.
+ */
+public interface OrderStageHandler {
+
+    OrderOutboxEvent.Stage stage();
+
+    void handle(OrderStageEvent event) throws Exception;
+}
@@ -0,0 +1,90 @@
+package com.bookstore.bookstorebackend.service;
+
+/**
+ * Selects the k best entries of a scored candidate set with a bounded binary min-heap, in
+ * O(n log k) time and O(k) extra space, instead of sorting all n candidates.
+ * <p>
+ * Entries are ordered by score (descending), then by tie-break value (descending), then by
+ * candidate position (ascending), so the result is deterministic for equal scores.
+ */
+public final class TopKSelector {
+
+    private TopKSelector() {
+    }
+
+    /**
+     * Returns the positions of the best {@code min(k, n)} candidates, best first.
+     */
+    public static int[] select(double[] scores, double[] tieBreak, int k) {
+        int size = Math.min(k, scores.length);
+        if (size <= 0) {
+            return new int[0];
+        }
+
+        // heap[0] is the worst of the entries kept so far
+        int[] heap = new int[size];
+        int count = 0;
+        for (int candidate = 0; candidate < scores.length; candidate++) {
+            if (count < size) {
+                heap[count] = candidate;
+                siftUp(heap, count++, scores, tieBreak);
+            } else if (better(candidate, heap[0], scores, tieBreak)) {
+                heap[0] = candidate;
+                siftDown(heap, count, scores, tieBreak);
+            }
+        }
+
+        int[] ranked = new int[count];
+        for (int i = count - 1; i >= 0; i--) {
+            ranked[i] = heap[0];
+            heap[0] = heap[i];
+            siftDown(heap, i, scores, tieBreak);
+        }
+        return ranked;
+    }
+
+    static boolean better(int a, int b, double[] scores, double[] tieBreak) {
+        int byScore = Double.compare(scores[a], scores[b]);
+        if (byScore != 0) {
+            return byScore > 0;
+        }
+        int byTieBreak = Double.compare(tieBreak[a], tieBreak[b]);
+        if (byTieBreak != 0) {
+            return byTieBreak > 0;
+        }
+        return a < b;
+    }
+
+    private static void siftUp(int[] heap, int index, double[] scores, double[] tieBreak) {
+        int entry = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!better(heap[parent], entry, scores, tieBreak)) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = entry;
+    }
+
+    private static void siftDown(int[] heap, int size, double[] scores, double[] tieBreak) {
+        int index = 0;
+        int entry = heap[0];
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && better(heap[child], heap[child + 1], scores, tieBreak)) {
+                child++;
+            }
+            if (!better(entry, heap[child], scores, tieBreak)) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = entry;
+    }
+}
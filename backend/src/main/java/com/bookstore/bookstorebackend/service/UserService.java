@@ -0,0 +1,60 @@
+package com.bookstore.bookstorebackend.service;
+
+import com.bookstore.bookstorebackend.entity.Role;
+import com.bookstore.bookstorebackend.entity.User;
+import com.bookstore.bookstorebackend.exception.ResourceNotFoundException;
+import com.bookstore.bookstorebackend.repository.UserRepository;
+import com.bookstore.bookstorebackend.security.UserDetailsCache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@Service
+@Slf4j
+public class UserService {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserDetailsCache userDetailsCache;
+
+    @Transactional
+    public void setEnabled(String username, boolean enabled) {
+        User user = findUser(username);
+        user.setEnabled(enabled);
+        userRepository.save(user);
+        invalidate(username);
+    }
+
+    @Transactional
+    public void revokeRole(String username, Role.ERole role) {
+        User user = findUser(username);
+        if (user.getRoles().removeIf(r -> r.getName() == role)) {
+            userRepository.save(user);
+        }
+        invalidate(username);
+    }
+
+    /**
+     * Marks the user's tokens outdated at once, and again after the commit: until then concurrent
+     * requests still read the old row, and whatever they cache or log in with must not outlive it.
+     */
+    private void invalidate(String username) {
+        userDetailsCache.invalidate(username);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                userDetailsCache.invalidate(username);
+            }
+        });
+    }
+
+    private User findUser(String username) {
+        return userRepository.findByUsername(username)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found: " + username));
+    }
+}
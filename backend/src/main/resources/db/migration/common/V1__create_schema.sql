@@ -0,0 +1,80 @@
+-- Schema of the Book, User, Role and Order entities as of the move from Hibernate ddl-auto to migrations.
+
+CREATE SEQUENCE book_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE books (
+    id               BIGINT         NOT NULL,
+    title            VARCHAR(255)   NOT NULL,
+    author           VARCHAR(255)   NOT NULL,
+    description      TEXT,
+    isbn             VARCHAR(255)   NOT NULL,
+    category         VARCHAR(255)   NOT NULL,
+    price            NUMERIC(38, 2) NOT NULL,
+    stock_quantity   INTEGER,
+    publication_year INTEGER,
+    image_url        VARCHAR(255),
+    rating           FLOAT(53),
+    available        BOOLEAN DEFAULT TRUE,
+    created_at       TIMESTAMP(6),
+    updated_at       TIMESTAMP(6),
+    CONSTRAINT pk_books PRIMARY KEY (id),
+    CONSTRAINT uk_books_isbn UNIQUE (isbn)
+);
+
+CREATE TABLE users (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    username   VARCHAR(255) NOT NULL,
+    email      VARCHAR(255) NOT NULL,
+    password   VARCHAR(255) NOT NULL,
+    first_name VARCHAR(255),
+    last_name  VARCHAR(255),
+    enabled    BOOLEAN DEFAULT TRUE,
+    created_at TIMESTAMP(6),
+    updated_at TIMESTAMP(6),
+    CONSTRAINT pk_users PRIMARY KEY (id),
+    CONSTRAINT uk_users_username UNIQUE (username),
+    CONSTRAINT uk_users_email UNIQUE (email)
+);
+
+CREATE TABLE roles (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    name        VARCHAR(255) NOT NULL,
+    description VARCHAR(500),
+    CONSTRAINT pk_roles PRIMARY KEY (id),
+    CONSTRAINT uk_roles_name UNIQUE (name),
+    CONSTRAINT ck_roles_name CHECK (name IN ('ROLE_USER', 'ROLE_ADMIN', 'ROLE_MODERATOR'))
+);
+
+CREATE TABLE user_roles (
+    user_id BIGINT NOT NULL,
+    role_id BIGINT NOT NULL,
+    CONSTRAINT pk_user_roles PRIMARY KEY (role_id, user_id),
+    CONSTRAINT fk_user_roles_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_user_roles_role FOREIGN KEY (role_id) REFERENCES roles (id)
+);
+
+CREATE TABLE orders (
+    id               BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    user_id          BIGINT         NOT NULL,
+    order_number     VARCHAR(255)   NOT NULL,
+    status           VARCHAR(255)   NOT NULL,
+    total_amount     NUMERIC(38, 2) NOT NULL,
+    shipping_address VARCHAR(255),
+    created_at       TIMESTAMP(6),
+    updated_at       TIMESTAMP(6),
+    CONSTRAINT pk_orders PRIMARY KEY (id),
+    CONSTRAINT uk_orders_order_number UNIQUE (order_number),
+    CONSTRAINT fk_orders_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT ck_orders_status CHECK (status IN ('PENDING', 'CONFIRMED', 'SHIPPED', 'DELIVERED', 'CANCELLED'))
+);
+
+CREATE TABLE order_items (
+    id       BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    order_id BIGINT         NOT NULL,
+    book_id  BIGINT         NOT NULL,
+    quantity INTEGER        NOT NULL,
+    price    NUMERIC(38, 2) NOT NULL,
+    CONSTRAINT pk_order_items PRIMARY KEY (id),
+    CONSTRAINT fk_order_items_order FOREIGN KEY (order_id) REFERENCES orders (id),
+    CONSTRAINT fk_order_items_book FOREIGN KEY (book_id) REFERENCES books (id)
+);
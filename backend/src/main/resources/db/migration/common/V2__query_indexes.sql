@@ -0,0 +1,7 @@
+-- Indexes for the repository queries, shared by every database.
+
+-- Category listings and keyset scrolls: WHERE category = ? [AND id > ?] ORDER BY id
+CREATE INDEX idx_books_category_id ON books (category, id);
+
+-- A user's order history, newest first: WHERE user_id = ? ORDER BY created_at DESC
+CREATE INDEX idx_orders_user_created ON orders (user_id, created_at);
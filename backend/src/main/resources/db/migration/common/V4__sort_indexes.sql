@@ -0,0 +1,8 @@
+-- One index per whitelisted listing sort (BookSort), with id as the tie-break the queries append:
+-- ORDER BY <column> [DESC], id [DESC], and for keyset scrolls WHERE (<column>, id) > (?, ?).
+-- Ascending and descending walks use the same index.
+CREATE INDEX idx_books_price_id ON books (price, id);
+CREATE INDEX idx_books_title_id ON books (title, id);
+CREATE INDEX idx_books_rating_id ON books (rating, id);
+CREATE INDEX idx_books_publication_year_id ON books (publication_year, id);
+CREATE INDEX idx_books_created_at_id ON books (created_at, id);
@@ -0,0 +1,25 @@
+-- Transactional outbox for the order pipeline: a row is written in the transaction that places the order
+-- (and in the one completing each stage), then claimed in batches by OrderOutboxDispatcher.
+-- available_at doubles as the claim lease and the retry time: a claimed row is hidden until its lease
+-- ends, so rows of a dispatcher that died become due again by themselves.
+CREATE TABLE order_outbox (
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    order_id        BIGINT        NOT NULL,
+    order_number    VARCHAR(255)  NOT NULL,
+    stage           VARCHAR(32)   NOT NULL,
+    idempotency_key VARCHAR(300)  NOT NULL,
+    status          VARCHAR(32)   NOT NULL,
+    attempts        INTEGER       NOT NULL,
+    available_at    TIMESTAMP(6)  NOT NULL,
+    created_at      TIMESTAMP(6)  NOT NULL,
+    processed_at    TIMESTAMP(6),
+    last_error      VARCHAR(1000),
+    CONSTRAINT pk_order_outbox PRIMARY KEY (id),
+    CONSTRAINT uk_order_outbox_idempotency_key UNIQUE (idempotency_key),
+    CONSTRAINT fk_order_outbox_order FOREIGN KEY (order_id) REFERENCES orders (id),
+    CONSTRAINT ck_order_outbox_stage CHECK (stage IN ('CONFIRM', 'SHIP', 'DELIVER')),
+    CONSTRAINT ck_order_outbox_status CHECK (status IN ('PENDING', 'DONE', 'FAILED'))
+);
+
+-- The claim: WHERE status = 'PENDING' AND available_at <= ? ORDER BY available_at, id ... FOR UPDATE SKIP LOCKED
+CREATE INDEX idx_order_outbox_due ON order_outbox (status, available_at, id);
@@ -0,0 +1,13 @@
+-- Sharded stock for hot books. books.stock_slots = 0 means the stock lives in books.stock_quantity as
+-- before; otherwise it is split across that many book_stock_slots rows, so concurrent buyers decrement
+-- different rows, and books.stock_quantity is a total reconciled from the slots every few seconds.
+ALTER TABLE books ADD COLUMN stock_slots INTEGER DEFAULT 0 NOT NULL;
+
+CREATE TABLE book_stock_slots (
+    book_id  BIGINT  NOT NULL,
+    slot     INTEGER NOT NULL,
+    quantity INTEGER NOT NULL,
+    CONSTRAINT pk_book_stock_slots PRIMARY KEY (book_id, slot),
+    CONSTRAINT fk_book_stock_slots_book FOREIGN KEY (book_id) REFERENCES books (id) ON DELETE CASCADE,
+    CONSTRAINT ck_book_stock_slots_quantity CHECK (quantity >= 0)
+);
@@ -0,0 +1,3 @@
+-- Available listings and keyset scrolls: WHERE available = TRUE [AND id > ?] ORDER BY id.
+-- H2 has no partial indexes, so the flag leads a composite index.
+CREATE INDEX idx_books_available_id ON books (available, id);
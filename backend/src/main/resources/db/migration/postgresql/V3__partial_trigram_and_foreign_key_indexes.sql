@@ -0,0 +1,16 @@
+-- Available listings and keyset scrolls: WHERE available = TRUE [AND id > ?] ORDER BY id.
+-- Partial index over the ids of available books only; it stays small and is read in id order.
+CREATE INDEX idx_books_available_id ON books (id) WHERE available;
+
+-- Search: LOWER(column) LIKE '%term%' on title, author and category. Trigram GIN indexes serve
+-- infix LIKE; every column in the OR needs one, otherwise the planner falls back to a sequential scan.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX idx_books_title_trgm ON books USING gin (lower(title) gin_trgm_ops);
+CREATE INDEX idx_books_author_trgm ON books USING gin (lower(author) gin_trgm_ops);
+CREATE INDEX idx_books_category_trgm ON books USING gin (lower(category) gin_trgm_ops);
+
+-- Foreign keys are not indexed implicitly (H2 does index them): loading an order's items, checking
+-- whether a book was ever ordered, loading a user's roles
+CREATE INDEX idx_order_items_order ON order_items (order_id);
+CREATE INDEX idx_order_items_book ON order_items (book_id);
+CREATE INDEX idx_user_roles_user ON user_roles (user_id);
@@ -0,0 +1,3 @@
+-- Search fallback: the description joins title, author and category in the LIKE condition, and needs
+-- its own trigram index like the other columns in the OR.
+CREATE INDEX idx_books_description_trgm ON books USING gin (lower(description) gin_trgm_ops);
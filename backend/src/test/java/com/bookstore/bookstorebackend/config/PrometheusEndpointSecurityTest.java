@@ -0,0 +1,53 @@
+package com.bookstore.bookstorebackend.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalManagementPort;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The scrape endpoint needs no token on the management port, and is not reachable without one on the
+ * application port.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:prometheus-security;DB_CLOSE_DELAY=-1",
+        "bookstore.search.index.enabled=false",
+        "logging.level.com.bookstore.bookstorebackend=WARN"
+})
+@AutoConfigureObservability(tracing = false)
+class PrometheusEndpointSecurityTest {
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @LocalServerPort
+    private int port;
+
+    @LocalManagementPort
+    private int managementPort;
+
+    @Test
+    void prometheusIsOnlyOpenOnTheManagementPort() throws Exception {
+        assertNotEquals(port, managementPort);
+
+        HttpResponse<String> scrape = get(managementPort, "/actuator/prometheus");
+        assertEquals(200, scrape.statusCode());
+        assertTrue(scrape.body().contains("hikaricp_connections_acquire_seconds"), "scrape output");
+
+        assertEquals(401, get(port, "/actuator/prometheus").statusCode());
+        assertEquals(401, get(managementPort, "/actuator/metrics").statusCode());
+        assertEquals(200, get(managementPort, "/actuator/health").statusCode());
+    }
+
+    private HttpResponse<String> get(int port, String path) throws Exception {
+        return client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,25 @@
+package com.bookstore.bookstorebackend.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.datasource.url=jdbc:h2:mem:plan-check;DB_CLOSE_DELAY=-1",
+        "bookstore.search.index.enabled=false",
+        "logging.level.com.bookstore.bookstorebackend=WARN"
+})
+class QueryPlanCheckTest {
+
+    @Autowired
+    private QueryPlanCheck queryPlanCheck;
+
+    @Test
+    void migrationsIndexEveryKeyQuery() throws Exception {
+        assertEquals(List.of(), queryPlanCheck.check());
+    }
+}
@@ -0,0 +1,129 @@
+package com.bookstore.bookstorebackend.config;
+
+import com.bookstore.bookstorebackend.dto.BookDTO;
+import com.bookstore.bookstorebackend.service.BookService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Two independent in-memory H2 databases stand in for primary and replica; "replication" is copying
+ * rows by hand, so every read shows which database served it.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1",
+        "bookstore.datasource.replica.url=jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1",
+        "bookstore.datasource.replica.read-your-writes-window=1s",
+        "bookstore.search.index.enabled=false",
+        "logging.level.com.bookstore.bookstorebackend=WARN"
+})
+class ReadReplicaRoutingTest {
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+
+    private JdbcTemplate primary;
+    private JdbcTemplate replica;
+
+    @BeforeEach
+    void copySchemaToReplica() {
+        primary = new JdbcTemplate(primaryDataSource);
+        replica = new JdbcTemplate(replicaDataSource);
+        replica.execute("DROP ALL OBJECTS");
+        List<String> schema = primary.queryForList("SCRIPT NODATA", String.class);
+        schema.stream()
+                .filter(statement -> !statement.startsWith("--") && !statement.startsWith("CREATE USER"))
+                .forEach(replica::execute);
+    }
+
+    @AfterEach
+    void clearUser() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void readOnlyTransactionsUseReplicaAndWritesUsePrimary() {
+        bookService.createBook(book("9783000000001"));
+
+        assertEquals(0L, listedTotal(), "read-only listing is served by the replica");
+
+        replicate();
+        assertEquals(count(primary), listedTotal());
+    }
+
+    @Test
+    void writerReadsOwnWritesFromPrimaryUntilTheWindowPasses() throws InterruptedException {
+        signIn("alice");
+        bookService.createBook(book("9783000000002"));
+        assertEquals(count(primary), listedTotal(), "alice just wrote, so she reads from the primary");
+
+        signIn("bob");
+        assertEquals(0L, listedTotal(), "other users read the replica");
+
+        Thread.sleep(1_500);
+        signIn("alice");
+        assertEquals(0L, listedTotal(), "after the window alice is back on the replica");
+    }
+
+    @Test
+    void cachedBookIsLoadedFromPrimary() {
+        BookDTO created = bookService.createBook(book("9783000000003"));
+
+        assertEquals("9783000000003", bookService.getBookById(created.getId()).getIsbn());
+    }
+
+    private long listedTotal() {
+        return bookService.getAllBooks(PageRequest.of(0, 10)).getTotalElements();
+    }
+
+    private void replicate() {
+        replica.execute("DELETE FROM books");
+        replica.batchUpdate("INSERT INTO books (id, title, author, isbn, category, price, stock_quantity, available) " +
+                        "VALUES (?, ?, ?, ?, ?, ?, ?, ?)",
+                primary.query("SELECT id, title, author, isbn, category, price, stock_quantity, available FROM books",
+                        (rs, row) -> new Object[]{rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4),
+                                rs.getString(5), rs.getBigDecimal(6), rs.getInt(7), rs.getBoolean(8)}));
+    }
+
+    private static long count(JdbcTemplate jdbc) {
+        return jdbc.queryForObject("SELECT COUNT(*) FROM books", Long.class);
+    }
+
+    private static void signIn(String username) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(username, null, List.of()));
+    }
+
+    private static BookDTO book(String isbn) {
+        return BookDTO.builder()
+                .title("Replica " + isbn)
+                .author("Author")
+                .isbn(isbn)
+                .category("Fiction")
+                .price(new BigDecimal("10.00"))
+                .stockQuantity(3)
+                .available(true)
+                .build();
+    }
+}
@@ -0,0 +1,101 @@
+package com.bookstore.bookstorebackend.controller;
+
+import com.bookstore.bookstorebackend.dto.BookDTO;
+import com.bookstore.bookstorebackend.service.BookService;
+import com.bookstore.bookstorebackend.service.CategoryFacets;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:book-caching;DB_CLOSE_DELAY=-1",
+        "management.server.port=0",
+        "bookstore.search.index.enabled=false",
+        "logging.level.com.bookstore.bookstorebackend=WARN"
+})
+@AutoConfigureMockMvc
+class BookControllerCachingTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private CategoryFacets categoryFacets;
+
+    @Test
+    void bookIsRevalidatedByStrongETagUntilItChanges() throws Exception {
+        BookDTO book = bookService.createBook(book("9782000000001"));
+        String path = "/api/v1/books/" + book.getId();
+
+        String etag = mockMvc.perform(get(path))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=30, public"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertTrue(etag.startsWith("\"" + book.getId() + "-"), etag);
+
+        mockMvc.perform(get(path).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""));
+
+        book.setPrice(new BigDecimal("12.50"));
+        bookService.updateBook(book.getId(), book);
+
+        String updated = mockMvc.perform(get(path).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(etag, updated);
+    }
+
+    @Test
+    void listingsShareAWeakETagThatChangesWithTheCatalog() throws Exception {
+        // The facet build finishing bumps the catalog version too
+        while (!categoryFacets.isReady()) {
+            Thread.sleep(10);
+        }
+        bookService.createBook(book("9782000000002"));
+
+        String etag = mockMvc.perform(get("/api/v1/books").param("size", "5"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertTrue(etag.startsWith("W/\"catalog-"), etag);
+
+        mockMvc.perform(get("/api/v1/books/search").param("query", "caching").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        // An invalid request is rejected even when the catalog has not changed
+        mockMvc.perform(get("/api/v1/books/search").param("query", "caching").param("sort", "price")
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isBadRequest());
+
+        bookService.createBook(book("9782000000003"));
+
+        mockMvc.perform(get("/api/v1/books").param("size", "5").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+    }
+
+    private static BookDTO book(String isbn) {
+        return BookDTO.builder()
+                .title("Caching " + isbn)
+                .author("Author")
+                .isbn(isbn)
+                .category("Fiction")
+                .price(new BigDecimal("10.00"))
+                .stockQuantity(3)
+                .available(true)
+                .build();
+    }
+}
@@ -0,0 +1,140 @@
+package com.bookstore.bookstorebackend.controller;
+
+import com.bookstore.bookstorebackend.dto.BookDTO;
+import com.bookstore.bookstorebackend.service.BookCursor;
+import com.bookstore.bookstorebackend.service.BookService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:book-sorting;DB_CLOSE_DELAY=-1",
+        "management.server.port=0",
+        "bookstore.search.index.enabled=false",
+        "logging.level.com.bookstore.bookstorebackend=WARN"
+})
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class BookSortingTest {
+
+    private static final String[] PRICES = {"9.99", "4.50", "9.99", "12.00", "4.50", "9.99", "20.00"};
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeAll
+    void seed() {
+        for (int i = 0; i < PRICES.length; i++) {
+            bookService.createBook(BookDTO.builder()
+                    .title("Sorted " + i)
+                    .author("Author")
+                    .isbn("978400000000" + i)
+                    .category("Fiction")
+                    .price(new BigDecimal(PRICES[i]))
+                    .stockQuantity(1)
+                    .available(true)
+                    .build());
+        }
+    }
+
+    @Test
+    void onlyWhitelistedSortsAreAccepted() throws Exception {
+        mockMvc.perform(get("/api/v1/books").param("sortBy", "description"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v1/books").param("sortBy", "price").param("direction", "sideways"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v1/books/scroll").param("sortBy", "rating"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v1/books").param("sortBy", "publicationYear").param("direction", "desc"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void pageSizesAreCapped() throws Exception {
+        for (String path : List.of("/api/v1/books", "/api/v1/books/scroll", "/api/v1/books/category/Fiction",
+                "/api/v1/books/category/Fiction/scroll", "/api/v1/books/available", "/api/v1/books/available/scroll")) {
+            mockMvc.perform(get(path).param("size", "101"))
+                    .andExpect(status().isBadRequest());
+            mockMvc.perform(get(path).param("size", "0"))
+                    .andExpect(status().isBadRequest());
+        }
+        mockMvc.perform(get("/api/v1/books/search").param("query", "book").param("size", "101"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v1/books").param("size", "100"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void scrollByPriceMatchesOffsetPagesWithTiesBrokenById() throws Exception {
+        JsonNode offset = read(get("/api/v1/books").param("sortBy", "price").param("direction", "DESC")
+                .param("size", "100"));
+        List<Long> expected = ids(offset.get("content"));
+        assertEquals(PRICES.length, expected.size());
+
+        List<Long> scrolled = new ArrayList<>();
+        String cursor = null;
+        do {
+            MockHttpServletRequestBuilder request = get("/api/v1/books/scroll")
+                    .param("sortBy", "price").param("direction", "DESC").param("size", "2");
+            JsonNode page = read(cursor == null ? request : request.param("after", cursor));
+            scrolled.addAll(ids(page.get("content")));
+            cursor = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asText();
+        } while (cursor != null);
+
+        assertEquals(expected, scrolled);
+        List<BigDecimal> prices = offset.get("content").findValues("price").stream().map(JsonNode::decimalValue).toList();
+        for (int i = 1; i < prices.size(); i++) {
+            assertTrue(prices.get(i - 1).compareTo(prices.get(i)) >= 0, "descending by price: " + prices);
+        }
+    }
+
+    @Test
+    void cursorIsOnlyAcceptedBySortThatIssuedIt() throws Exception {
+        String cursor = read(get("/api/v1/books/scroll").param("sortBy", "price").param("size", "2"))
+                .get("nextCursor").asText();
+
+        mockMvc.perform(get("/api/v1/books/scroll").param("sortBy", "title").param("after", cursor))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v1/books/scroll").param("sortBy", "price").param("direction", "DESC").param("after", cursor))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v1/books/scroll").param("sortBy", "price").param("after", cursor))
+                .andExpect(status().isOk());
+        String garbled = new BookCursor("price", "cheap", 1L).encode();
+        mockMvc.perform(get("/api/v1/books/scroll").param("sortBy", "price").param("after", garbled))
+                .andExpect(status().isBadRequest());
+    }
+
+    private JsonNode read(MockHttpServletRequestBuilder request) throws Exception {
+        String body = mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+
+    private static List<Long> ids(JsonNode content) {
+        List<Long> ids = new ArrayList<>();
+        content.forEach(book -> ids.add(book.get("id").asLong()));
+        return ids;
+    }
+}
@@ -0,0 +1,42 @@
+package com.bookstore.bookstorebackend.controller;
+
+import com.bookstore.bookstorebackend.security.JwtTokenProvider;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:order-controller;DB_CLOSE_DELAY=-1",
+        "management.server.port=0",
+        "bookstore.search.index.enabled=false",
+        "logging.level.com.bookstore.bookstorebackend=WARN"
+})
+@AutoConfigureMockMvc
+class OrderControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    @Test
+    void orderHistoryPagesAreValidatedAndCapped() throws Exception {
+        String bearer = "Bearer " + jwtTokenProvider.generateToken("shopper", List.of("ROLE_USER"), true);
+        for (String[] params : List.of(new String[]{"0", "101"}, new String[]{"0", "0"}, new String[]{"-1", "10"})) {
+            mockMvc.perform(get("/api/v1/orders").param("page", params[0]).param("size", params[1])
+                            .header(HttpHeaders.AUTHORIZATION, bearer))
+                    .andExpect(status().isBadRequest());
+        }
+        mockMvc.perform(get("/api/v1/orders").param("size", "100").header(HttpHeaders.AUTHORIZATION, bearer))
+                .andExpect(status().isOk());
+    }
+}
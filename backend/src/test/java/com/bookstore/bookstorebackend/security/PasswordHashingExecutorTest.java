@@ -0,0 +1,76 @@
+package com.bookstore.bookstorebackend.security;
+
+import com.bookstore.bookstorebackend.exception.TooManyRequestsException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHashingExecutorTest {
+
+    private PasswordHashingExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        executor = new PasswordHashingExecutor();
+        ReflectionTestUtils.setField(executor, "threads", 1);
+        ReflectionTestUtils.setField(executor, "queueCapacity", 1);
+        executor.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void rejectsWhenPoolAndQueueAreFull() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> busy = CompletableFuture.supplyAsync(() -> executor.execute(() -> {
+            running.countDown();
+            await(release);
+            return "first";
+        }));
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> executor.execute(() -> "second"));
+        while (executor.stats().getQueueDepth() == 0) {
+            Thread.onSpinWait();
+        }
+
+        assertThrows(TooManyRequestsException.class, () -> executor.execute(() -> "third"));
+
+        release.countDown();
+        assertEquals("first", busy.get(5, TimeUnit.SECONDS));
+        assertEquals("second", queued.get(5, TimeUnit.SECONDS));
+        assertEquals(1L, executor.stats().getRejectedCount());
+        assertEquals(2L, executor.stats().getCompletedCount());
+    }
+
+    @Test
+    void encoderFlagsHashesBelowConfiguredStrengthForUpgrade() {
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(6), executor);
+        String weakHash = new BCryptPasswordEncoder(4).encode("secret");
+        String currentHash = encoder.encode("secret");
+
+        assertTrue(encoder.matches("secret", weakHash));
+        assertTrue(encoder.upgradeEncoding(weakHash));
+        assertFalse(encoder.upgradeEncoding(currentHash));
+        assertTrue(encoder.matches("secret", currentHash));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
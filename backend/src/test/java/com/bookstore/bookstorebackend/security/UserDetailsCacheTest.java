@@ -0,0 +1,92 @@
+package com.bookstore.bookstorebackend.security;
+
+import com.bookstore.bookstorebackend.entity.User;
+import com.bookstore.bookstorebackend.repository.UserRepository;
+import com.bookstore.bookstorebackend.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.datasource.url=jdbc:h2:mem:user-details-cache;DB_CLOSE_DELAY=-1",
+        "bookstore.search.index.enabled=false",
+        "logging.level.com.bookstore.bookstorebackend=WARN"
+})
+class UserDetailsCacheTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserDetailsCache userDetailsCache;
+
+    @Autowired
+    private UserDetailsService userDetailsService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void lookupsMadeBeforeTheCommitAreNotKept() throws Exception {
+        userRepository.save(User.builder()
+                .username("carol")
+                .email("carol@example.com")
+                .password("unused")
+                .enabled(true)
+                .build());
+
+        Date issuedDuringChange = new TransactionTemplate(transactionManager).execute(status -> {
+            userService.setEnabled("carol", false);
+            // A request racing the change still sees the committed row and caches it
+            UserDetails racing = CompletableFuture.supplyAsync(() -> userDetailsCache.get("carol",
+                    userDetailsService::loadUserByUsername)).orTimeout(10, TimeUnit.SECONDS).join();
+            assertTrue(racing.isEnabled());
+            Date issuedAt = new Date();
+            sleep();
+            return issuedAt;
+        });
+
+        assertFalse(userDetailsCache.get("carol", userDetailsService::loadUserByUsername).isEnabled());
+        assertTrue(userDetailsCache.isOutdated("carol", issuedDuringChange),
+                "a token issued from the old row is not trusted on its claims");
+    }
+
+    @Test
+    void changesAreRememberedWhateverTheCacheSize() {
+        UserDetailsCache cache = new UserDetailsCache();
+        ReflectionTestUtils.setField(cache, "maximumSize", 1L);
+        ReflectionTestUtils.setField(cache, "ttl", Duration.ofSeconds(60));
+        ReflectionTestUtils.setField(cache, "jwtExpirationMs", 3_600_000L);
+        ReflectionTestUtils.invokeMethod(cache, "init");
+        Date issuedAt = new Date(System.currentTimeMillis() - 1_000);
+        for (int i = 0; i < 1_000; i++) {
+            cache.invalidate("user" + i);
+        }
+        for (int i = 0; i < 1_000; i++) {
+            assertTrue(cache.isOutdated("user" + i, issuedAt), "user" + i);
+        }
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(5);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.bookstore.bookstorebackend.service;
+
+import com.bookstore.bookstorebackend.dto.AuthResponse;
+import com.bookstore.bookstorebackend.dto.RegisterRequest;
+import com.bookstore.bookstorebackend.exception.BadRequestException;
+import com.bookstore.bookstorebackend.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.datasource.url=jdbc:h2:mem:auth-service;DB_CLOSE_DELAY=-1",
+        "bookstore.search.index.enabled=false",
+        "logging.level.com.bookstore.bookstorebackend=WARN"
+})
+class AuthServiceTest {
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionRecordingEncoder encoder;
+
+    @Test
+    void passwordIsHashedOutsideTheRegistrationTransaction() {
+        AuthResponse response = authService.register(request("hasher", "hasher@example.com"));
+
+        assertEquals(List.of(false), encoder.inTransaction, "hashed while a connection was held");
+        assertNotNull(response.getAccessToken());
+        assertEquals(Set.of("ROLE_USER"), response.getUser().getRoles());
+        assertTrue(encoder.matches("secret-password",
+                userRepository.findByUsername("hasher").orElseThrow().getPassword()));
+
+        assertThrows(BadRequestException.class, () -> authService.register(request("hasher", "other@example.com")));
+        assertThrows(BadRequestException.class, () -> authService.register(request("other", "hasher@example.com")));
+    }
+
+    private static RegisterRequest request(String username, String email) {
+        return RegisterRequest.builder()
+                .username(username)
+                .email(email)
+                .password("secret-password")
+                .firstName("Test")
+                .lastName("User")
+                .build();
+    }
+
+    /** Records whether each hash ran inside a transaction. */
+    static class TransactionRecordingEncoder extends BCryptPasswordEncoder {
+        final List<Boolean> inTransaction = new CopyOnWriteArrayList<>();
+
+        TransactionRecordingEncoder() {
+            super(4);
+        }
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            inTransaction.add(TransactionSynchronizationManager.isActualTransactionActive());
+            return super.encode(rawPassword);
+        }
+    }
+
+    @TestConfiguration
+    static class RecordingEncoder {
+        @Bean
+        @Primary
+        TransactionRecordingEncoder transactionRecordingEncoder() {
+            return new TransactionRecordingEncoder();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.bookstore.bookstorebackend.service;
+
+import com.bookstore.bookstorebackend.dto.BookDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookCacheTest {
+
+    private BookCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new BookCache();
+        ReflectionTestUtils.setField(cache, "maximumSize", 100L);
+        ReflectionTestUtils.setField(cache, "expireAfterWrite", Duration.ofMinutes(1));
+        cache.init();
+    }
+
+    @Test
+    void loadsOnceAndCountsHitsAndMisses() {
+        AtomicInteger loads = new AtomicInteger();
+        for (int i = 0; i < 3; i++) {
+            cache.get(1L, id -> {
+                loads.incrementAndGet();
+                return BookDTO.builder().id(id).title("v1").build();
+            });
+        }
+
+        assertEquals(1, loads.get());
+        assertEquals(1L, cache.stats().getMissCount());
+        assertEquals(2L, cache.stats().getHitCount());
+    }
+
+    @Test
+    void invalidationDuringLoadDiscardsTheLoadedValue() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<BookDTO> staleRead = CompletableFuture.supplyAsync(() -> cache.get(1L, id -> {
+            loading.countDown();
+            await(release);
+            return BookDTO.builder().id(id).title("stale").build();
+        }));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture<Void> invalidation = CompletableFuture.runAsync(() -> cache.invalidate(1L));
+        release.countDown();
+        staleRead.get(5, TimeUnit.SECONDS);
+        invalidation.get(5, TimeUnit.SECONDS);
+
+        BookDTO reloaded = cache.get(1L, id -> BookDTO.builder().id(id).title("fresh").build());
+        assertEquals("fresh", reloaded.getTitle());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
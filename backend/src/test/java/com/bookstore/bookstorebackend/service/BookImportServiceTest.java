@@ -0,0 +1,85 @@
+package com.bookstore.bookstorebackend.service;
+
+import com.bookstore.bookstorebackend.dto.BookImportResultDTO;
+import com.bookstore.bookstorebackend.dto.ImportErrorDTO;
+import com.bookstore.bookstorebackend.repository.BookRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.datasource.url=jdbc:h2:mem:book-import;DB_CLOSE_DELAY=-1",
+        "bookstore.search.index.enabled=false",
+        "bookstore.import.chunk-size=3",
+        "logging.level.com.bookstore.bookstorebackend=WARN"
+})
+class BookImportServiceTest {
+
+    @Autowired
+    private BookImportService bookImportService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Test
+    void importsCsvAndReportsRowErrors() throws IOException {
+        String csv = """
+                isbn,title,author,category,price,stockQuantity,description
+                9781000000001,"Dune, Deluxe",Frank Herbert,Fiction,19.99,5,"A ""desert"" planet"
+                9781000000002,Neuromancer,William Gibson,Fiction,abc,3,
+                9781000000003,Foundation,Isaac Asimov,Fiction,9.50,,
+                9781000000001,Dune Again,Frank Herbert,Fiction,19.99,5,
+                9781000000004,,Nobody,Fiction,1.00,1,
+                9781000000005,Hyperion,Dan Simmons,Fiction,12.00,7,
+                """;
+
+        BookImportResultDTO result = bookImportService.importBooks(body(csv), BookImportService.TEXT_CSV);
+
+        assertEquals(6L, result.getRowsRead());
+        assertEquals(3L, result.getImported());
+        assertEquals(3L, result.getFailed());
+        assertEquals(List.of(2L, 4L, 5L), result.getErrors().stream().map(ImportErrorDTO::getRow).toList());
+        assertEquals("Invalid value for price: abc", result.getErrors().get(0).getMessage());
+        assertEquals("Duplicate ISBN in import", result.getErrors().get(1).getMessage());
+        assertEquals("title is required", result.getErrors().get(2).getMessage());
+
+        var dune = bookRepository.findByIsbn("9781000000001").orElseThrow();
+        assertEquals("Dune, Deluxe", dune.getTitle());
+        assertEquals("A \"desert\" planet", dune.getDescription());
+        assertEquals(0, bookRepository.findByIsbn("9781000000003").orElseThrow().getStockQuantity());
+    }
+
+    @Test
+    void importsJsonLinesAndSkipsExistingIsbns() throws IOException {
+        bookImportService.importBooks(body("""
+                {"isbn":"9782000000001","title":"Emma","author":"Jane Austen","category":"Romance","price":7.5}
+                """), BookImportService.APPLICATION_NDJSON);
+
+        String lines = """
+                {"isbn":"9782000000001","title":"Emma","author":"Jane Austen","category":"Romance","price":7.5}
+                {"isbn":"9782000000002","title":"Persuasion","author":"Jane Austen","category":"Romance","price":8}
+                {"isbn": broken
+
+                {"isbn":"9782000000003","title":"Ulysses","author":"James Joyce","category":"Fiction","price":11}
+                """;
+        BookImportResultDTO result = bookImportService.importBooks(body(lines), BookImportService.APPLICATION_NDJSON);
+
+        assertEquals(4L, result.getRowsRead());
+        assertEquals(2L, result.getImported());
+        assertEquals("Book with this ISBN already exists", result.getErrors().get(0).getMessage());
+        assertEquals(3L, result.getErrors().get(1).getRow());
+        assertTrue(result.getErrors().get(1).getMessage().startsWith("Malformed row"));
+        assertTrue(bookRepository.findByIsbn("9782000000003").isPresent());
+    }
+
+    private static ByteArrayInputStream body(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,74 @@
+package com.bookstore.bookstorebackend.service;
+
+import com.bookstore.bookstorebackend.dto.BookDTO;
+import com.bookstore.bookstorebackend.dto.BookSummaryDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Searches answered by the database before the index is ready match the same books as the index.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.datasource.url=jdbc:h2:mem:book-search-fallback;DB_CLOSE_DELAY=-1",
+        "bookstore.search.index.enabled=false",
+        "logging.level.com.bookstore.bookstorebackend=WARN"
+})
+class BookSearchFallbackTest {
+
+    private static final List<String> QUERIES = List.of("lighthouse", "Keeper", "Poetry", "Marlowe");
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BookSearchIndex bookSearchIndex;
+
+    @Test
+    void databaseAndIndexAgreeOnOneWordQueries() {
+        bookService.createBook(book("9783000000001", "The Lighthouse Keeper", "Ann Marlowe", "Fiction", "A storm at sea."));
+        bookService.createBook(book("9783000000002", "Tides", "Ben Shore", "Poetry", "Poems about a lighthouse."));
+        bookService.createBook(book("9783000000003", "Keeper of Keys", "Cora Vale", "Fantasy", null));
+        bookService.createBook(book("9783000000004", "Harbour Nights", "Dan Marlowe", "Poetry", "The keeper's log."));
+
+        assertFalse(bookSearchIndex.isReady());
+        List<Page<BookSummaryDTO>> fromDatabase = QUERIES.stream().map(this::search).toList();
+        bookSearchIndex.rebuild();
+        assertTrue(bookSearchIndex.isReady());
+
+        for (int i = 0; i < QUERIES.size(); i++) {
+            Page<BookSummaryDTO> fromIndex = search(QUERIES.get(i));
+            assertEquals(fromDatabase.get(i).getTotalElements(), fromIndex.getTotalElements(), QUERIES.get(i));
+            assertEquals(ids(fromDatabase.get(i)), ids(fromIndex), QUERIES.get(i));
+        }
+        assertEquals(2, fromDatabase.get(0).getTotalElements(), "description matches count in both");
+    }
+
+    private Page<BookSummaryDTO> search(String query) {
+        return bookService.searchBooks(query, PageRequest.of(0, 10));
+    }
+
+    private static List<Long> ids(Page<BookSummaryDTO> page) {
+        return page.getContent().stream().map(BookSummaryDTO::getId).toList();
+    }
+
+    private static BookDTO book(String isbn, String title, String author, String category, String description) {
+        return BookDTO.builder()
+                .title(title)
+                .author(author)
+                .isbn(isbn)
+                .category(category)
+                .description(description)
+                .price(new BigDecimal("12.00"))
+                .stockQuantity(3)
+                .available(true)
+                .build();
+    }
+}
@@ -0,0 +1,83 @@
+package com.bookstore.bookstorebackend.service;
+
+import com.bookstore.bookstorebackend.entity.Book;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookSearchIndexTest {
+
+    private BookSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new BookSearchIndex();
+        index.index(book(1L, "The Hobbit", "J.R.R. Tolkien", "Fantasy", "A hobbit leaves the Shire."));
+        index.index(book(2L, "Clean Code", "Robert C. Martin", "Technology", "Craftsmanship for developers."));
+        index.index(book(3L, "Les Misérables", "Victor Hugo", "Fiction", "Jean Valjean in Paris."));
+    }
+
+    @Test
+    void tokenizeFoldsCaseAndAccents() {
+        assertEquals(List.of("les", "miserables", "2nd", "ed"), BookSearchIndex.tokenize("Les Misérables (2nd ed.)"));
+    }
+
+    @Test
+    void matchesTokenPrefixesAcrossFields() {
+        assertArrayEquals(new long[]{1L}, index.search("tolk hob"));
+        assertArrayEquals(new long[]{3L}, index.search("miserables"));
+        assertArrayEquals(new long[]{2L}, index.search("craftsman"));
+        assertArrayEquals(new long[]{}, index.search("tolkien code"));
+    }
+
+    @Test
+    void updatesAndRemovalsAreApplied() {
+        index.index(book(2L, "Clean Architecture", "Robert C. Martin", "Technology", null));
+        assertArrayEquals(new long[]{}, index.search("code"));
+        assertArrayEquals(new long[]{2L}, index.search("architecture"));
+
+        index.remove(1L);
+        assertArrayEquals(new long[]{}, index.search("hobbit"));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void disabledIndexIgnoresCatalogChanges() {
+        index.onBookChanged(BookChangedEvent.created(book(4L, "Paris in Winter", "Anne Author", "Travel", null)));
+        index.onBookChanged(BookChangedEvent.deleted(1L));
+        assertEquals(3, index.size());
+        assertArrayEquals(new long[]{}, index.search("winter"));
+    }
+
+    @Test
+    void ranksTitleMatchesAboveDescriptionMatchesAndBreaksTiesByRating() {
+        index.index(book(4L, "Paris in Winter", "Anne Author", "Travel", "A guide.", 3.0));
+        index.index(book(5L, "Paris at Night", "Anne Author", "Travel", "A guide.", 4.5));
+
+        BookSearchIndex.RankedHits hits = index.searchRanked("paris", 0, 10);
+        assertEquals(3, hits.total());
+        assertArrayEquals(new long[]{5L, 4L, 3L}, hits.ids());
+
+        BookSearchIndex.RankedHits secondPage = index.searchRanked("paris", 2, 2);
+        assertArrayEquals(new long[]{3L}, secondPage.ids());
+    }
+
+    private static Book book(Long id, String title, String author, String category, String description) {
+        return book(id, title, author, category, description, 0.0);
+    }
+
+    private static Book book(Long id, String title, String author, String category, String description,
+                             double rating) {
+        return Book.builder()
+                .id(id)
+                .title(title)
+                .author(author)
+                .category(category)
+                .description(description)
+                .rating(rating)
+                .build();
+    }
+}
@@ -0,0 +1,254 @@
+package com.bookstore.bookstorebackend.service;
+
+import com.bookstore.bookstorebackend.entity.Book;
+import com.bookstore.bookstorebackend.exception.TooManyRequestsException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatalogChangeBroadcasterTest {
+
+    private CatalogChangeBroadcaster broadcaster;
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        start(Duration.ofMinutes(1));
+    }
+
+    private void start(Duration sendTimeout) {
+        broadcaster = new CatalogChangeBroadcaster();
+        ReflectionTestUtils.setField(broadcaster, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(broadcaster, "maxSubscribers", 5);
+        ReflectionTestUtils.setField(broadcaster, "maxFilterIds", 10);
+        ReflectionTestUtils.setField(broadcaster, "bufferSize", 3);
+        ReflectionTestUtils.setField(broadcaster, "queueCapacity", 100);
+        ReflectionTestUtils.setField(broadcaster, "writerThreads", 4);
+        ReflectionTestUtils.setField(broadcaster, "sendTimeout", sendTimeout);
+        ReflectionTestUtils.setField(broadcaster, "heartbeatInterval", Duration.ofHours(1));
+        ReflectionTestUtils.setField(broadcaster, "timeout", Duration.ofMinutes(1));
+        broadcaster.init();
+        registry = new SimpleMeterRegistry();
+        broadcaster.bindTo(registry);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        broadcaster.shutdown();
+    }
+
+    @Test
+    void subscribersOnlyGetTheirCategoriesAndBooksOnce() {
+        RecordingEmitter all = subscribe(Set.of(), Set.of());
+        RecordingEmitter fiction = subscribe(Set.of("Fiction"), Set.of());
+        RecordingEmitter watching = subscribe(Set.of(), Set.of(2L));
+        RecordingEmitter both = subscribe(Set.of("Fiction"), Set.of(1L, 2L));
+
+        broadcaster.onBookChanged(BookChangedEvent.created(book(1L, "Fiction", 5)));
+        broadcaster.onBookChanged(BookChangedEvent.updated(book(2L, "Science", 3)));
+        broadcaster.onBookChanged(BookChangedEvent.deleted(3L));
+        List.of(all, fiction, watching, both).forEach(emitter -> await(() -> emitter.events().contains("deleted 3")));
+
+        assertEquals(List.of("created 1", "updated 2", "deleted 3"), all.events());
+        assertEquals(List.of("created 1", "deleted 3"), fiction.events());
+        assertEquals(List.of("updated 2", "deleted 3"), watching.events());
+        assertEquals(List.of("created 1", "updated 2", "deleted 3"), both.events());
+        assertTrue(all.received.get(1).contains("\"category\":\"Science\""));
+        assertTrue(all.received.get(1).contains("\"price\":9.99"));
+        assertFalse(all.received.get(2).contains("title"), "deletions carry only the id");
+    }
+
+    @Test
+    void slowSubscriberGetsCoalescedChanges() {
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingEmitter slow = stalled(release);
+        broadcaster.onBookChanged(BookChangedEvent.created(book(1L, "Fiction", 5)));
+        broadcaster.onBookChanged(BookChangedEvent.stockChanged(book(1L, "Fiction", 4)));
+        broadcaster.onBookChanged(BookChangedEvent.stockChanged(book(1L, "Fiction", 2)));
+        broadcaster.onBookChanged(BookChangedEvent.stockChanged(book(2L, "Fiction", 7)));
+        awaitChanges(5);
+        release.countDown();
+        await(() -> slow.events().size() == 3);
+
+        assertEquals(List.of("stock 9", "created 1", "stock 2"), slow.events());
+        String created = slow.received.get(1);
+        assertTrue(created.contains("\"stockQuantity\":2"), created);
+        assertTrue(created.contains("\"title\":\"Book 1\""), created);
+        assertFalse(slow.received.get(2).contains("title"), "stock changes carry only the stock");
+        assertEquals(2.0, registry.get("bookstore.catalog.stream.coalesced").functionCounter().count());
+    }
+
+    @Test
+    void fullBufferDropsTheOldestAndAsksForAResync() {
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingEmitter slow = stalled(release);
+        for (long id = 1; id <= 5; id++) {
+            broadcaster.onBookChanged(BookChangedEvent.stockChanged(book(id, "Fiction", (int) id)));
+        }
+        awaitChanges(6);
+        release.countDown();
+        await(() -> slow.events().size() == 5);
+
+        assertEquals(List.of("stock 9", "resync", "stock 3", "stock 4", "stock 5"), slow.events());
+        assertEquals(2.0, registry.get("bookstore.catalog.stream.dropped").functionCounter().count());
+    }
+
+    @Test
+    void failedWriteClosesOnlyThatStream() {
+        RecordingEmitter failing = new RecordingEmitter(new CountDownLatch(0)) {
+            @Override
+            public void send(SseEventBuilder builder) throws IOException {
+                if (builder.build().stream().anyMatch(data -> data.getData().toString().contains("event:"))) {
+                    throw new IllegalArgumentException("No converter");
+                }
+            }
+        };
+        broadcaster.subscribe(Set.of(), Set.of(), failing);
+        RecordingEmitter healthy = subscribe(Set.of(), Set.of());
+
+        broadcaster.onBookChanged(BookChangedEvent.stockChanged(book(1L, "Fiction", 1)));
+        await(() -> registry.get("bookstore.catalog.stream.subscribers").gauge().value() == 1);
+        broadcaster.onBookChanged(BookChangedEvent.stockChanged(book(2L, "Fiction", 2)));
+        await(() -> healthy.events().size() == 2);
+        assertEquals(List.of("stock 1", "stock 2"), healthy.events());
+    }
+
+    @Test
+    void stuckWritesDropTheirStreamWithoutStallingOthers() throws InterruptedException {
+        broadcaster.shutdown();
+        start(Duration.ofMillis(200));
+        CountDownLatch release = new CountDownLatch(1);
+        // As many stuck clients as the test pool has writers, less one
+        RecordingEmitter stuck = stalled(release);
+        RecordingEmitter alsoStuck = stalled(release);
+        RecordingEmitter stillStuck = stalled(release);
+        RecordingEmitter healthy = subscribe(Set.of(), Set.of());
+
+        broadcaster.onBookChanged(BookChangedEvent.stockChanged(book(1L, "Fiction", 1)));
+        await(() -> healthy.events().contains("stock 1"));
+        await(() -> registry.get("bookstore.catalog.stream.slow").functionCounter().count() == 3);
+        assertEquals(1.0, registry.get("bookstore.catalog.stream.subscribers").gauge().value());
+
+        release.countDown();
+        broadcaster.onBookChanged(BookChangedEvent.stockChanged(book(2L, "Fiction", 2)));
+        await(() -> healthy.events().contains("stock 2"));
+        for (RecordingEmitter emitter : List.of(stuck, alsoStuck, stillStuck)) {
+            // Closed by its writer once the stuck write returns
+            await(() -> emitter.failed != null);
+            assertEquals(List.of("stock 9"), emitter.events(), "nothing more is sent to a dropped stream");
+        }
+    }
+
+    @Test
+    void subscriptionsAreCapped() {
+        for (int i = 0; i < 5; i++) {
+            subscribe(Set.of(), Set.of());
+        }
+        assertThrows(TooManyRequestsException.class, () -> subscribe(Set.of(), Set.of()));
+        assertEquals(5.0, registry.get("bookstore.catalog.stream.subscribers").gauge().value());
+    }
+
+    private RecordingEmitter subscribe(Set<String> categories, Set<Long> bookIds) {
+        RecordingEmitter emitter = new RecordingEmitter(new CountDownLatch(0));
+        broadcaster.subscribe(categories, bookIds, emitter);
+        return emitter;
+    }
+
+    /**
+     * A subscriber whose writer is stuck sending book 9 until released, so later changes pile up.
+     */
+    private RecordingEmitter stalled(CountDownLatch release) {
+        RecordingEmitter emitter = new RecordingEmitter(release);
+        broadcaster.subscribe(Set.of(), Set.of(), emitter);
+        broadcaster.onBookChanged(BookChangedEvent.stockChanged(book(9L, "Fiction", 9)));
+        await(() -> emitter.writes > 0);
+        return emitter;
+    }
+
+    private void awaitChanges(int changes) {
+        await(() -> registry.get("bookstore.catalog.stream.changes").functionCounter().count() == changes);
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "timed out");
+            Thread.onSpinWait();
+        }
+    }
+
+    private static Book book(Long id, String category, int stock) {
+        return Book.builder()
+                .id(id)
+                .title("Book " + id)
+                .author("Author")
+                .category(category)
+                .price(new BigDecimal("9.99"))
+                .stockQuantity(stock)
+                .available(stock > 0)
+                .build();
+    }
+
+    /**
+     * Keeps the text of every event sent, comments aside; sends block until released, like a client that
+     * stopped reading.
+     */
+    private static class RecordingEmitter extends SseEmitter {
+        private final CountDownLatch release;
+        private final List<String> received = new CopyOnWriteArrayList<>();
+        private volatile int writes;
+        private volatile Throwable failed;
+
+        RecordingEmitter(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            String text = builder.build().stream()
+                    .map(data -> data.getData().toString())
+                    .collect(Collectors.joining());
+            if (text.startsWith(":")) {
+                return;
+            }
+            writes++;
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new IOException(e);
+            }
+            received.add(text);
+        }
+
+        @Override
+        public void completeWithError(Throwable error) {
+            failed = error;
+            super.completeWithError(error);
+        }
+
+        /** "type id" per book event, or "resync". */
+        List<String> events() {
+            return received.stream()
+                    .map(text -> text.contains("event:resync") ? "resync"
+                            : text.replaceAll("(?s).*\"type\":\"(\\w+)\",\"id\":(\\d+).*", "$1 $2"))
+                    .toList();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.bookstore.bookstorebackend.service;
+
+import com.bookstore.bookstorebackend.dto.CategoryFacetDTO;
+import com.bookstore.bookstorebackend.dto.FacetsDTO;
+import com.bookstore.bookstorebackend.entity.Book;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CategoryFacetsTest {
+
+    private CategoryFacets facets;
+
+    @BeforeEach
+    void setUp() {
+        facets = new CategoryFacets();
+        facets.update(book(1L, "Fiction", true, 5));
+        facets.update(book(2L, "Fiction", true, 0));
+        facets.update(book(3L, "Science", false, 2));
+    }
+
+    @Test
+    void countsCategoriesAvailabilityAndStock() {
+        FacetsDTO catalog = facets.catalogFacets();
+
+        assertEquals(3L, catalog.getTotal());
+        assertEquals(2L, catalog.getAvailable());
+        assertEquals(2L, catalog.getInStock());
+        assertEquals(List.of("Fiction 2/2/1", "Science 1/0/1"), describe(catalog));
+    }
+
+    @Test
+    void updatesMoveCountsAndRemovalsDropEmptyCategories() {
+        facets.onBookChanged(BookChangedEvent.stockChanged(book(1L, "Fiction", true, 0)));
+        facets.onBookChanged(BookChangedEvent.updated(book(2L, "History", true, 4)));
+        facets.onBookChanged(BookChangedEvent.deleted(3L));
+
+        FacetsDTO catalog = facets.catalogFacets();
+        assertEquals(2L, catalog.getTotal());
+        assertEquals(1L, catalog.getInStock());
+        assertEquals(List.of("Fiction 1/1/0", "History 1/1/1"), describe(catalog));
+    }
+
+    @Test
+    void countsOnlyTheGivenMatches() {
+        FacetsDTO matches = facets.facetsFor(new long[]{2L, 3L, 99L});
+
+        assertEquals(2L, matches.getTotal());
+        assertEquals(List.of("Fiction 1/1/0", "Science 1/0/1"), describe(matches));
+    }
+
+    private static List<String> describe(FacetsDTO facets) {
+        return facets.getCategories().stream()
+                .map(CategoryFacetsTest::describe)
+                .toList();
+    }
+
+    private static String describe(CategoryFacetDTO category) {
+        return category.getCategory() + " " + category.getCount() + "/" + category.getAvailable() + "/" + category.getInStock();
+    }
+
+    private static Book book(Long id, String category, boolean available, int stock) {
+        return Book.builder()
+                .id(id)
+                .title("Book " + id)
+                .author("Author")
+                .category(category)
+                .available(available)
+                .stockQuantity(stock)
+                .build();
+    }
+}
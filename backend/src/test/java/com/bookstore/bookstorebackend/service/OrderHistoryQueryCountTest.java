@@ -0,0 +1,136 @@
+package com.bookstore.bookstorebackend.service;
+
+import com.bookstore.bookstorebackend.dto.OrderDTO;
+import com.bookstore.bookstorebackend.dto.OrderItemRequest;
+import com.bookstore.bookstorebackend.dto.OrderRequest;
+import com.bookstore.bookstorebackend.entity.Book;
+import com.bookstore.bookstorebackend.entity.User;
+import com.bookstore.bookstorebackend.repository.BookRepository;
+import com.bookstore.bookstorebackend.repository.UserRepository;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.datasource.url=jdbc:h2:mem:order-history;DB_CLOSE_DELAY=-1",
+        "bookstore.search.index.enabled=false",
+        "logging.level.com.bookstore.bookstorebackend=WARN"
+})
+class OrderHistoryQueryCountTest {
+
+    /** The page of orders, its count and the items of the whole page. */
+    private static final long STATEMENTS_PER_PAGE = 3;
+
+    private static final int PAGE_SIZE = 3;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ThreadStatements statements;
+
+    /**
+     * Records the SQL prepared on the calling thread only, so background work (outbox poller, facets
+     * build, stock reconciler) running at the same time does not count.
+     */
+    static class ThreadStatements implements StatementInspector {
+        private final ThreadLocal<List<String>> prepared = ThreadLocal.withInitial(ArrayList::new);
+
+        @Override
+        public String inspect(String sql) {
+            prepared.get().add(sql);
+            return sql;
+        }
+
+        List<String> clear() {
+            List<String> sql = List.copyOf(prepared.get());
+            prepared.get().clear();
+            return sql;
+        }
+    }
+
+    @TestConfiguration
+    static class StatementCounting {
+        @Bean
+        ThreadStatements threadStatements() {
+            return new ThreadStatements();
+        }
+
+        @Bean
+        HibernatePropertiesCustomizer statementInspector(ThreadStatements statements) {
+            return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, statements);
+        }
+    }
+
+    @Test
+    void everyPageTakesTheSameNumberOfStatementsWhateverTheOrderSize() {
+        userRepository.save(User.builder()
+                .username("collector")
+                .email("collector@example.com")
+                .password("unused")
+                .enabled(true)
+                .build());
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            books.add(bookRepository.save(Book.builder()
+                    .title("History " + i)
+                    .author("Author " + i)
+                    .description("A long description that the history must never load")
+                    .isbn("978500000000" + i)
+                    .category("Fiction")
+                    .price(new BigDecimal("10.00"))
+                    .stockQuantity(100)
+                    .available(true)
+                    .rating(0.0)
+                    .build()));
+        }
+        // Oldest three orders have one item each, newest three have eight
+        for (int i = 0; i < 2 * PAGE_SIZE; i++) {
+            int lines = i < PAGE_SIZE ? 1 : books.size();
+            orderService.placeOrder("collector", OrderRequest.builder()
+                    .items(books.subList(0, lines).stream()
+                            .map(book -> OrderItemRequest.builder().bookId(book.getId()).quantity(2).build())
+                            .toList())
+                    .build());
+        }
+
+        for (int page = 0; page < 2; page++) {
+            statements.clear();
+            Page<OrderDTO> orders = orderService.getOrdersForUser("collector",
+                    PageRequest.of(page, PAGE_SIZE, Sort.by(Sort.Direction.DESC, "createdAt", "id")));
+
+            List<String> sql = statements.clear();
+            assertEquals(STATEMENTS_PER_PAGE, sql.size(), "statements for page " + page + ": " + sql);
+            assertTrue(sql.stream().noneMatch(statement -> statement.contains("description")),
+                    "books are never loaded as entities: " + sql);
+            int expectedLines = page == 0 ? books.size() : 1;
+            for (OrderDTO order : orders) {
+                assertEquals(expectedLines, order.getItems().size());
+                assertEquals("History 0", order.getItems().get(0).getTitle());
+                assertEquals(2, order.getItems().get(0).getQuantity());
+            }
+        }
+        assertEquals(2 * PAGE_SIZE, orderService.getOrdersForUser("collector", PageRequest.of(0, PAGE_SIZE))
+                .getTotalElements());
+    }
+}
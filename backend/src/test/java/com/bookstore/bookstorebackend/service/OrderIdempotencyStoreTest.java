@@ -0,0 +1,147 @@
+package com.bookstore.bookstorebackend.service;
+
+import com.bookstore.bookstorebackend.dto.OrderDTO;
+import com.bookstore.bookstorebackend.dto.OrderItemRequest;
+import com.bookstore.bookstorebackend.dto.OrderRequest;
+import com.bookstore.bookstorebackend.exception.BadRequestException;
+import com.bookstore.bookstorebackend.exception.TooManyRequestsException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderIdempotencyStoreTest {
+
+    private OrderIdempotencyStore store;
+    private final AtomicInteger placed = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        store = new OrderIdempotencyStore();
+        ReflectionTestUtils.setField(store, "maximumSize", 100L);
+        ReflectionTestUtils.setField(store, "ttl", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(store, "maxAttempts", 2);
+        ReflectionTestUtils.setField(store, "transactionTimeout", Duration.ofMillis(100));
+        store.init();
+    }
+
+    @Test
+    void concurrentRetriesShareTheFirstPlacement() throws Exception {
+        CountDownLatch placing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<OrderIdempotencyStore.Result> first = CompletableFuture.supplyAsync(() ->
+                store.execute("alice", "checkout-1", request(2), () -> {
+                    placing.countDown();
+                    await(release);
+                    return place();
+                }));
+        assertTrue(placing.await(5, TimeUnit.SECONDS));
+
+        List<CompletableFuture<OrderIdempotencyStore.Result>> retries = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            retries.add(CompletableFuture.supplyAsync(() -> store.execute("alice", "checkout-1", request(2), this::place)));
+        }
+        release.countDown();
+
+        OrderDTO original = first.get(5, TimeUnit.SECONDS).order();
+        assertFalse(first.join().replayed());
+        for (CompletableFuture<OrderIdempotencyStore.Result> retry : retries) {
+            assertTrue(retry.get(5, TimeUnit.SECONDS).replayed());
+            assertSame(original, retry.join().order());
+        }
+        assertEquals(1, placed.get());
+
+        // Keys are per user
+        assertFalse(store.execute("bob", "checkout-1", request(2), this::place).replayed());
+        assertEquals(2, placed.get());
+    }
+
+    @Test
+    void keyCannotBeReusedForADifferentOrder() {
+        store.execute("alice", "checkout-2", request(1), this::place);
+
+        assertThrows(BadRequestException.class, () -> store.execute("alice", "checkout-2", request(3), this::place));
+        assertThrows(BadRequestException.class, () -> store.execute("alice", " ", request(1), this::place));
+        assertEquals(1, placed.get());
+    }
+
+    @Test
+    void itemOrderDoesNotChangeTheFingerprint() {
+        store.execute("alice", "checkout-4", request(item(1L, 2), item(2L, 1)), this::place);
+
+        assertTrue(store.execute("alice", "checkout-4", request(item(2L, 1), item(1L, 2)), this::place).replayed());
+        assertEquals(1, placed.get());
+    }
+
+    @Test
+    void duplicateStopsWaitingForAStuckOriginal() throws Exception {
+        CountDownLatch placing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<OrderIdempotencyStore.Result> first = CompletableFuture.supplyAsync(() ->
+                store.execute("alice", "checkout-5", request(1), () -> {
+                    placing.countDown();
+                    await(release);
+                    return place();
+                }));
+        assertTrue(placing.await(5, TimeUnit.SECONDS));
+
+        // Waits max-attempts x transaction-timeout (200ms here), then asks the client to retry
+        long start = System.nanoTime();
+        assertThrows(TooManyRequestsException.class, () -> store.execute("alice", "checkout-5", request(1), this::place));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(200));
+
+        release.countDown();
+        assertFalse(first.get(5, TimeUnit.SECONDS).replayed());
+        assertTrue(store.execute("alice", "checkout-5", request(1), this::place).replayed());
+        assertEquals(1, placed.get());
+    }
+
+    @Test
+    void failedPlacementFreesTheKey() {
+        Supplier<OrderDTO> outOfStock = () -> {
+            throw new BadRequestException("Insufficient stock for book: 1");
+        };
+        assertThrows(BadRequestException.class, () -> store.execute("alice", "checkout-3", request(1), outOfStock));
+
+        assertFalse(store.execute("alice", "checkout-3", request(1), this::place).replayed());
+        assertEquals(1, placed.get());
+    }
+
+    private OrderDTO place() {
+        return OrderDTO.builder().id((long) placed.incrementAndGet()).build();
+    }
+
+    private static OrderRequest request(int quantity) {
+        return request(item(1L, quantity));
+    }
+
+    private static OrderRequest request(OrderItemRequest... items) {
+        return OrderRequest.builder()
+                .items(List.of(items))
+                .shippingAddress("1 Main Street")
+                .build();
+    }
+
+    private static OrderItemRequest item(long bookId, int quantity) {
+        return OrderItemRequest.builder().bookId(bookId).quantity(quantity).build();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
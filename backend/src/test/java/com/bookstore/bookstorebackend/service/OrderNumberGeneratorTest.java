@@ -0,0 +1,72 @@
+package com.bookstore.bookstorebackend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderNumberGeneratorTest {
+
+    private static final long NOW = OrderNumberGenerator.EPOCH_MILLIS + 1_000_000;
+
+    @Test
+    void numbersAreUniqueAndOrderedAcrossThreads() {
+        OrderNumberGenerator generator = new OrderNumberGenerator(System::currentTimeMillis, 7);
+        List<CompletableFuture<List<String>>> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            threads.add(CompletableFuture.supplyAsync(() -> {
+                List<String> numbers = new ArrayList<>();
+                for (int i = 0; i < 20_000; i++) {
+                    numbers.add(generator.next());
+                }
+                return numbers;
+            }));
+        }
+
+        Set<String> all = new HashSet<>();
+        for (CompletableFuture<List<String>> thread : threads) {
+            List<String> numbers = thread.join();
+            for (int i = 1; i < numbers.size(); i++) {
+                assertTrue(numbers.get(i - 1).compareTo(numbers.get(i)) < 0, "each thread sees increasing numbers");
+            }
+            all.addAll(numbers);
+        }
+        assertEquals(8 * 20_000, all.size());
+        all.forEach(number -> assertEquals(13, number.length()));
+    }
+
+    @Test
+    void exhaustedSequenceAndBackwardClockNeverRepeatANumber() {
+        AtomicLong clock = new AtomicLong(NOW);
+        OrderNumberGenerator generator = new OrderNumberGenerator(clock::get, 3);
+
+        long previous = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (i == 6_000) {
+                clock.set(NOW - 5_000);
+            }
+            long id = generator.nextId();
+            assertTrue(id > previous, "id " + i + " must be above the previous one");
+            assertEquals(3, (id >>> OrderNumberGenerator.SEQUENCE_BITS) & OrderNumberGenerator.MAX_NODE_ID);
+            previous = id;
+        }
+
+        // 10,000 numbers in a frozen millisecond borrowed the next two; the wall clock takes over once it passes them
+        clock.set(NOW + 10);
+        long caughtUp = generator.nextId() >>> (OrderNumberGenerator.NODE_BITS + OrderNumberGenerator.SEQUENCE_BITS);
+        assertEquals(NOW + 10 - OrderNumberGenerator.EPOCH_MILLIS, caughtUp);
+    }
+
+    @Test
+    void formattedNumbersSortLikeTheIds() {
+        assertTrue(OrderNumberGenerator.format(31).compareTo(OrderNumberGenerator.format(32)) < 0);
+        assertTrue(OrderNumberGenerator.format(Long.MAX_VALUE - 1).compareTo(OrderNumberGenerator.format(Long.MAX_VALUE)) < 0);
+        assertEquals("0000000000010", OrderNumberGenerator.format(32));
+    }
+}
@@ -0,0 +1,273 @@
+package com.bookstore.bookstorebackend.service;
+
+import com.bookstore.bookstorebackend.dto.OrderDTO;
+import com.bookstore.bookstorebackend.dto.OrderItemRequest;
+import com.bookstore.bookstorebackend.dto.OrderRequest;
+import com.bookstore.bookstorebackend.entity.Book;
+import com.bookstore.bookstorebackend.entity.Order;
+import com.bookstore.bookstorebackend.entity.OrderOutboxEvent;
+import com.bookstore.bookstorebackend.entity.User;
+import com.bookstore.bookstorebackend.repository.BookRepository;
+import com.bookstore.bookstorebackend.repository.OrderOutboxRepository;
+import com.bookstore.bookstorebackend.repository.OrderRepository;
+import com.bookstore.bookstorebackend.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the whole pipeline in process: stand-ins for the payment and warehouse systems are plugged in
+ * as stage handlers, delivery has none and completes on its own.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.datasource.url=jdbc:h2:mem:order-outbox;DB_CLOSE_DELAY=-1",
+        "bookstore.orders.outbox.poll-interval=50ms",
+        "bookstore.orders.outbox.batch-size=5",
+        "bookstore.orders.outbox.max-in-flight=8",
+        "bookstore.orders.outbox.max-attempts=3",
+        "bookstore.orders.outbox.retry-backoff=50ms",
+        "bookstore.search.index.enabled=false",
+        "logging.level.com.bookstore.bookstorebackend=WARN"
+})
+class OrderOutboxDispatcherTest {
+
+    private static final int ORDERS = 12;
+    private static final String FLAKY = "flaky";
+    private static final String DECLINED = "declined";
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderOutboxRepository outboxRepository;
+
+    @Autowired
+    private PaymentStandIn payments;
+
+    @Autowired
+    private WarehouseStandIn warehouse;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private OrderOutboxDispatcher dispatcher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @TestConfiguration
+    static class StandIns {
+        @Bean
+        PaymentStandIn paymentStandIn(OrderRepository orderRepository) {
+            return new PaymentStandIn(orderRepository);
+        }
+
+        @Bean
+        WarehouseStandIn warehouseStandIn() {
+            return new WarehouseStandIn();
+        }
+    }
+
+    /**
+     * Declines orders shipped to {@value #DECLINED}, fails the first attempt for {@value #FLAKY}, and
+     * charges each idempotency key once however often it is delivered.
+     */
+    static class PaymentStandIn implements OrderStageHandler {
+        final Set<String> charged = ConcurrentHashMap.newKeySet();
+        final AtomicInteger duplicates = new AtomicInteger();
+        private final OrderRepository orderRepository;
+
+        PaymentStandIn(OrderRepository orderRepository) {
+            this.orderRepository = orderRepository;
+        }
+
+        @Override
+        public OrderOutboxEvent.Stage stage() {
+            return OrderOutboxEvent.Stage.CONFIRM;
+        }
+
+        @Override
+        public void handle(OrderStageEvent event) {
+            String address = orderRepository.findById(event.orderId()).orElseThrow().getShippingAddress();
+            if (DECLINED.equals(address) || (FLAKY.equals(address) && event.attempt() == 1)) {
+                throw new IllegalStateException("payment refused");
+            }
+            if (!charged.add(event.idempotencyKey())) {
+                duplicates.incrementAndGet();
+            }
+        }
+    }
+
+    static class WarehouseStandIn implements OrderStageHandler {
+        final Map<Long, AtomicInteger> shipments = new ConcurrentHashMap<>();
+
+        @Override
+        public OrderOutboxEvent.Stage stage() {
+            return OrderOutboxEvent.Stage.SHIP;
+        }
+
+        @Override
+        public void handle(OrderStageEvent event) {
+            shipments.computeIfAbsent(event.orderId(), id -> new AtomicInteger()).incrementAndGet();
+        }
+    }
+
+    @Test
+    void ordersAdvanceThroughEveryStageWithRetriesAndIdempotentRedelivery() throws InterruptedException {
+        userRepository.save(User.builder()
+                .username("shopper")
+                .email("shopper@example.com")
+                .password("unused")
+                .enabled(true)
+                .build());
+        Book book = bookRepository.save(Book.builder()
+                .title("Pipeline")
+                .author("Author")
+                .isbn("9786000000001")
+                .category("Fiction")
+                .price(new BigDecimal("15.00"))
+                .stockQuantity(100)
+                .available(true)
+                .rating(0.0)
+                .build());
+
+        List<Long> delivered = new ArrayList<>();
+        for (int i = 0; i < ORDERS; i++) {
+            delivered.add(place(book, i % 4 == 0 ? FLAKY : "street " + i).getId());
+        }
+        Long declined = place(book, DECLINED).getId();
+
+        awaitUntil(() -> delivered.stream().allMatch(id -> status(id) == Order.OrderStatus.DELIVERED)
+                && stageRow(declined, OrderOutboxEvent.Stage.CONFIRM).getStatus() == OrderOutboxEvent.Status.FAILED);
+
+        assertEquals(ORDERS, payments.charged.size());
+        assertEquals(ORDERS, warehouse.shipments.size());
+        warehouse.shipments.values().forEach(count -> assertEquals(1, count.get()));
+        delivered.forEach(id -> assertEquals(3, outboxRepository.findByOrderId(id).size()));
+
+        OrderOutboxEvent refused = stageRow(declined, OrderOutboxEvent.Stage.CONFIRM);
+        assertEquals(3, refused.getAttempts());
+        assertTrue(refused.getLastError().contains("payment refused"), refused.getLastError());
+        assertEquals(Order.OrderStatus.PENDING, status(declined));
+
+        // A crash between the handler and the commit: the lease runs out and the confirmation is delivered again
+        OrderOutboxEvent confirmed = stageRow(delivered.get(1), OrderOutboxEvent.Stage.CONFIRM);
+        confirmed.setStatus(OrderOutboxEvent.Status.PENDING);
+        confirmed.setAvailableAt(LocalDateTime.now());
+        outboxRepository.save(confirmed);
+        awaitUntil(() -> stageRow(delivered.get(1), OrderOutboxEvent.Stage.CONFIRM).getStatus() == OrderOutboxEvent.Status.DONE);
+
+        assertEquals(1, payments.duplicates.get(), "the payment stand-in saw the same idempotency key again");
+        assertEquals(Order.OrderStatus.DELIVERED, status(delivered.get(1)));
+        assertEquals(3, outboxRepository.findByOrderId(delivered.get(1)).size(), "no stage was enqueued twice");
+
+        assertEquals(ORDERS, handled("confirm", "success"));
+        assertEquals(1, handled("confirm", "skipped"));
+        assertEquals(ORDERS / 4 + 2, handled("confirm", "retry"));
+        assertEquals(1, handled("confirm", "failed"));
+        assertEquals(ORDERS, handled("deliver", "success"));
+        assertEquals(ORDERS, meterRegistry.get("bookstore.orders.outbox.lag").tag("stage", "ship").timer().count());
+
+        // A handler that outlived its lease reports back after its row was claimed again
+        String number = orderRepository.findById(declined).orElseThrow().getOrderNumber();
+        LocalDateTime later = LocalDateTime.now().plusHours(1);
+        Long rowId = outboxRepository.save(OrderOutboxEvent.pending(declined, number, OrderOutboxEvent.Stage.DELIVER,
+                later)).getId();
+        OrderOutboxEvent lateClaim = outboxRepository.findById(rowId).orElseThrow();
+        lateClaim.setAttempts(1);
+        OrderOutboxEvent redelivered = outboxRepository.findById(rowId).orElseThrow();
+        redelivered.setAttempts(2);
+        outboxRepository.save(redelivered);
+
+        assertEquals(false, lateOutcome("complete", lateClaim, LocalDateTime.now()));
+        assertEquals("SKIPPED", lateOutcome("fail", lateClaim, new IllegalStateException("late")).toString());
+        OrderOutboxEvent untouched = outboxRepository.findById(rowId).orElseThrow();
+        assertEquals(OrderOutboxEvent.Status.PENDING, untouched.getStatus(), "the redelivery still owns the row");
+        assertNull(untouched.getLastError());
+
+        // ... or after that redelivery already finished it
+        untouched.setStatus(OrderOutboxEvent.Status.DONE);
+        outboxRepository.save(untouched);
+        assertEquals("SKIPPED", lateOutcome("fail", lateClaim, new IllegalStateException("late")).toString());
+        OrderOutboxEvent done = outboxRepository.findById(rowId).orElseThrow();
+        assertEquals(OrderOutboxEvent.Status.DONE, done.getStatus());
+        assertNull(done.getLastError());
+        assertEquals(later.withNano(0), done.getAvailableAt().withNano(0));
+
+        // A row whose every claim ran out its lease is failed, not claimed again
+        OrderOutboxEvent stalled = OrderOutboxEvent.pending(declined, number, OrderOutboxEvent.Stage.SHIP,
+                LocalDateTime.now());
+        stalled.setAttempts(3);
+        Long stalledId = outboxRepository.save(stalled).getId();
+        awaitUntil(() -> outboxRepository.findById(stalledId).orElseThrow().getStatus() == OrderOutboxEvent.Status.FAILED);
+
+        OrderOutboxEvent failed = outboxRepository.findById(stalledId).orElseThrow();
+        assertEquals(3, failed.getAttempts());
+        assertTrue(failed.getLastError().contains("Lease expired"), failed.getLastError());
+        assertFalse(warehouse.shipments.containsKey(declined), "the handler did not run");
+        assertEquals(1, handled("ship", "failed"));
+    }
+
+    private Object lateOutcome(String method, Object... args) {
+        return new TransactionTemplate(transactionManager).execute(status ->
+                ReflectionTestUtils.invokeMethod(dispatcher, method, args));
+    }
+
+    private OrderDTO place(Book book, String shippingAddress) {
+        return orderService.placeOrder("shopper", OrderRequest.builder()
+                .items(List.of(OrderItemRequest.builder().bookId(book.getId()).quantity(1).build()))
+                .shippingAddress(shippingAddress)
+                .build());
+    }
+
+    private Order.OrderStatus status(Long orderId) {
+        return orderRepository.findById(orderId).orElseThrow().getStatus();
+    }
+
+    private OrderOutboxEvent stageRow(Long orderId, OrderOutboxEvent.Stage stage) {
+        return outboxRepository.findByOrderId(orderId).stream()
+                .filter(event -> event.getStage() == stage)
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private long handled(String stage, String outcome) {
+        return meterRegistry.get("bookstore.orders.outbox.handled").tags("stage", stage, "outcome", outcome).timer().count();
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 20_000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "pipeline did not settle in time");
+            Thread.sleep(50);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.bookstore.bookstorebackend.service;
+
+import com.bookstore.bookstorebackend.dto.OrderItemRequest;
+import com.bookstore.bookstorebackend.dto.OrderRequest;
+import com.bookstore.bookstorebackend.entity.Book;
+import com.bookstore.bookstorebackend.entity.User;
+import com.bookstore.bookstorebackend.exception.BadRequestException;
+import com.bookstore.bookstorebackend.repository.BookRepository;
+import com.bookstore.bookstorebackend.repository.OrderRepository;
+import com.bookstore.bookstorebackend.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.datasource.url=jdbc:h2:mem:order-concurrency;DB_CLOSE_DELAY=-1",
+        "bookstore.search.index.enabled=false",
+        "logging.level.com.bookstore.bookstorebackend=WARN"
+})
+class OrderServiceConcurrencyTest {
+
+    private static final int PURCHASES = 10_000;
+    private static final int STOCK = 4_000;
+    private static final int CLIENT_THREADS = 64;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void hotBookIsNeverOversold() throws Exception {
+        userRepository.save(User.builder()
+                .username("buyer")
+                .email("buyer@example.com")
+                .password("unused")
+                .enabled(true)
+                .build());
+        Book book = bookRepository.save(Book.builder()
+                .title("Hot Release")
+                .author("Popular Author")
+                .isbn("9780000000001")
+                .category("Fiction")
+                .price(new BigDecimal("19.99"))
+                .stockQuantity(STOCK)
+                .available(true)
+                .rating(0.0)
+                .build());
+        OrderRequest request = OrderRequest.builder()
+                .items(List.of(OrderItemRequest.builder().bookId(book.getId()).quantity(1).build()))
+                .build();
+
+        AtomicInteger placed = new AtomicInteger();
+        AtomicInteger soldOut = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENT_THREADS);
+        List<Future<?>> purchases = new ArrayList<>(PURCHASES);
+        for (int i = 0; i < PURCHASES; i++) {
+            purchases.add(clients.submit(() -> {
+                start.await();
+                try {
+                    orderService.placeOrder("buyer", request);
+                    placed.incrementAndGet();
+                } catch (BadRequestException e) {
+                    soldOut.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+
+        long startedAt = System.nanoTime();
+        start.countDown();
+        for (Future<?> purchase : purchases) {
+            purchase.get(2, TimeUnit.MINUTES);
+        }
+        double seconds = (System.nanoTime() - startedAt) / 1e9;
+        clients.shutdown();
+        System.out.printf("%d purchase attempts on one book in %.2f s (%.0f attempts/s)%n",
+                PURCHASES, seconds, PURCHASES / seconds);
+
+        assertEquals(STOCK, placed.get());
+        assertEquals(PURCHASES - STOCK, soldOut.get());
+        assertEquals(0, bookRepository.findById(book.getId()).orElseThrow().getStockQuantity());
+        assertEquals(STOCK, orderRepository.count());
+    }
+}
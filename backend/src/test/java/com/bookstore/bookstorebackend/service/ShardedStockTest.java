@@ -0,0 +1,175 @@
+package com.bookstore.bookstorebackend.service;
+
+import com.bookstore.bookstorebackend.dto.BookDTO;
+import com.bookstore.bookstorebackend.dto.InventoryDTO;
+import com.bookstore.bookstorebackend.dto.OrderItemRequest;
+import com.bookstore.bookstorebackend.dto.OrderRequest;
+import com.bookstore.bookstorebackend.entity.Book;
+import com.bookstore.bookstorebackend.entity.User;
+import com.bookstore.bookstorebackend.exception.BadRequestException;
+import com.bookstore.bookstorebackend.repository.BookRepository;
+import com.bookstore.bookstorebackend.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.datasource.url=jdbc:h2:mem:sharded-stock;DB_CLOSE_DELAY=-1",
+        // Reconciled explicitly by the test
+        "bookstore.inventory.reconcile-interval=1h",
+        "bookstore.search.index.enabled=false",
+        "logging.level.com.bookstore.bookstorebackend=WARN"
+})
+class ShardedStockTest {
+
+    private static final int PURCHASES = 1_500;
+    private static final int STOCK = 600;
+    private static final int SLOTS = 8;
+    private static final int CLIENT_THREADS = 64;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void createBuyer() {
+        if (userRepository.findByUsername("buyer").isEmpty()) {
+            userRepository.save(User.builder()
+                    .username("buyer")
+                    .email("buyer@example.com")
+                    .password("unused")
+                    .enabled(true)
+                    .build());
+        }
+    }
+
+    @Test
+    void shardedHotBookSellsOutExactly() throws Exception {
+        Book book = book("9787000000001", STOCK);
+        InventoryDTO sharded = inventoryService.enableSharding(book.getId(), SLOTS);
+        assertEquals(SLOTS, sharded.getSlots().size());
+        assertEquals(STOCK, sharded.getAvailableQuantity());
+
+        double rejectedBefore = meterRegistry.get("bookstore.inventory.rejections").counter().count();
+        AtomicInteger unitsSold = new AtomicInteger();
+        AtomicInteger soldOut = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENT_THREADS);
+        List<Future<?>> purchases = new ArrayList<>(PURCHASES);
+        for (int i = 0; i < PURCHASES; i++) {
+            int quantity = i % 3 == 0 ? 2 : 1;
+            purchases.add(clients.submit(() -> {
+                start.await();
+                try {
+                    orderService.placeOrder("buyer", order(book, quantity));
+                    unitsSold.addAndGet(quantity);
+                } catch (BadRequestException e) {
+                    soldOut.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> purchase : purchases) {
+            purchase.get(2, TimeUnit.MINUTES);
+        }
+        clients.shutdown();
+        InventoryDTO inventory = inventoryService.getInventory(book.getId());
+        assertEquals(STOCK, unitsSold.get() + inventory.getAvailableQuantity(), "no unit was sold twice or lost");
+        assertEquals(0, inventory.getAvailableQuantity(), "the last units were sold from whichever slots held them");
+        inventory.getSlots().forEach(slot -> assertEquals(0, slot));
+        assertEquals(soldOut.get(), meterRegistry.get("bookstore.inventory.rejections").counter().count() - rejectedBefore);
+        assertTrue(meterRegistry.get("bookstore.inventory.reservations").tag("path", "slot").counter().count() > 0);
+
+        // The book's own column is only caught up by the reconciler
+        assertEquals(STOCK, stock(book));
+        assertTrue(inventoryService.reconcile() >= 1);
+        assertEquals(0, stock(book));
+        assertEquals(0, inventoryService.reconcile());
+    }
+
+    @Test
+    void stockEditsGoToTheSlotsAndUnshardingFoldsThemBack() {
+        Book book = book("9787000000002", 10);
+        inventoryService.enableSharding(book.getId(), 4);
+        orderService.placeOrder("buyer", order(book, 3));
+        assertEquals(7, inventoryService.getInventory(book.getId()).getAvailableQuantity());
+
+        // Editing other fields with the stale column value keeps the sale
+        BookDTO edit = bookService.getBookById(book.getId());
+        assertEquals(10, edit.getStockQuantity());
+        edit.setTitle("Renamed");
+        bookService.updateBook(book.getId(), edit);
+        InventoryDTO renamed = inventoryService.getInventory(book.getId());
+        assertEquals(7, renamed.getAvailableQuantity());
+        assertEquals(4, renamed.getSlots().size());
+
+        // A new stock level is spread over the slots
+        edit.setStockQuantity(9);
+        bookService.updateBook(book.getId(), edit);
+        InventoryDTO restocked = inventoryService.getInventory(book.getId());
+        assertEquals(List.of(3, 2, 2, 2), restocked.getSlots());
+        assertEquals(9, restocked.getStockQuantity());
+
+        InventoryDTO unsharded = inventoryService.disableSharding(book.getId());
+        assertFalse(unsharded.getSharded());
+        assertEquals(List.of(), unsharded.getSlots());
+        assertEquals(9, stock(book));
+
+        orderService.placeOrder("buyer", order(book, 9));
+        assertEquals(0, stock(book));
+        assertThrows(BadRequestException.class, () -> orderService.placeOrder("buyer", order(book, 1)));
+        assertThrows(BadRequestException.class, () -> inventoryService.enableSharding(book.getId(), 1));
+    }
+
+    private Book book(String isbn, int stock) {
+        return bookRepository.save(Book.builder()
+                .title("Flash Sale")
+                .author("Popular Author")
+                .isbn(isbn)
+                .category("Fiction")
+                .price(new BigDecimal("9.99"))
+                .stockQuantity(stock)
+                .available(true)
+                .rating(0.0)
+                .build());
+    }
+
+    private static OrderRequest order(Book book, int quantity) {
+        return OrderRequest.builder()
+                .items(List.of(OrderItemRequest.builder().bookId(book.getId()).quantity(quantity).build()))
+                .build();
+    }
+
+    private int stock(Book book) {
+        return bookRepository.findById(book.getId()).orElseThrow().getStockQuantity();
+    }
+}
@@ -30,6 +30,33 @@ export interface RegisterRequest {
   lastName?: string;
 }
 
+// What list and search endpoints return: a book without its description and timestamps
+export interface BookSummary {
+  id: number;
+  title: string;
+  author: string;
+  isbn: string;
+  category: string;
+  price: number;
+  stockQuantity: number;
+  publicationYear: number;
+  imageUrl?: string;
+  rating: number;
+  available: boolean;
+}
+
+// A catalog change from /books/changes: only the fields the change touched are present
+export interface BookChange {
+  type: 'created' | 'updated' | 'stock' | 'deleted' | 'resync';
+  id?: number;
+  title?: string;
+  author?: string;
+  category?: string;
+  price?: number;
+  stockQuantity?: number;
+  available?: boolean;
+}
+
 export interface Book {
   id: number;
   title: string;
@@ -74,3 +101,25 @@ export interface PageResponse<T> {
   size: number;
   empty: boolean;
 }
+
+export interface CursorPage<T> {
+  content: T[];
+  size: number;
+  hasNext: boolean;
+  nextCursor?: string;
+}
+
+export interface CategoryFacet {
+  category: string;
+  count: number;
+  available: number;
+  inStock: number;
+}
+
+export interface Facets {
+  ready: boolean;
+  total: number;
+  available: number;
+  inStock: number;
+  categories: CategoryFacet[];
+}
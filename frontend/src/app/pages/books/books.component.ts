@@ -1,9 +1,10 @@
-import { Component, OnInit } from '@angular/core';
+import { Component, OnDestroy, OnInit } from '@angular/core';
 import { CommonModule } from '@angular/common';
 import { FormsModule } from '@angular/forms';
 import { RouterModule } from '@angular/router';
+import { Subscription } from 'rxjs';
 import { BookService } from '../../services/book.service';
-import { Book, PageResponse } from '../../models/models';
+import { BookChange, BookSummary, CategoryFacet, PageResponse } from '../../models/models';
 
 @Component({
   selector: 'app-books',
@@ -29,11 +30,7 @@ import { Book, PageResponse } from '../../models/models';
         <div class="col-md-6">
           <select class="form-select" [(ngModel)]="selectedCategory" (change)="filterByCategory()" name="category">
             <option value="">All Categories</option>
-            <option value="Fiction">Fiction</option>
-            <option value="Science">Science</option>
-            <option value="History">History</option>
-            <option value="Technology">Technology</option>
-            <option value="Biography">Biography</option>
+            <option *ngFor="let facet of categories" [value]="facet.category">{{ facet.category }} ({{ facet.count }})</option>
           </select>
         </div>
       </div>
@@ -50,7 +47,7 @@ import { Book, PageResponse } from '../../models/models';
             <div class="card-body">
               <h5 class="card-title">{{ book.title }}</h5>
               <p class="card-text text-muted">{{ book.author }}</p>
-              <p class="card-text">{{ book.description | slice:0:100 }}...</p>
+              <p class="card-text">{{ book.category }}<span *ngIf="book.publicationYear"> · {{ book.publicationYear }}</span></p>
               <div class="d-flex justify-content-between align-items-center">
                 <span class="badge bg-primary">\${{ book.price }}</span>
                 <span class="badge bg-success" *ngIf="book.available">Available</span>
@@ -86,28 +83,45 @@ import { Book, PageResponse } from '../../models/models';
   `,
   styles: []
 })
-export class BooksComponent implements OnInit {
-  books: Book[] = [];
+export class BooksComponent implements OnInit, OnDestroy {
+  books: BookSummary[] = [];
   totalPages = 0;
   currentPage = 0;
   pageSize = 9;
   loading = false;
   searchQuery = '';
   selectedCategory = '';
+  categories: CategoryFacet[] = [];
+  private changes?: Subscription;
+  private reload: () => void = () => this.loadBooks();
 
   constructor(private bookService: BookService) {}
 
   ngOnInit() {
     this.loadBooks();
+    this.loadCategories();
+  }
+
+  ngOnDestroy() {
+    this.changes?.unsubscribe();
+  }
+
+  loadCategories() {
+    this.bookService.getFacets().subscribe({
+      next: (facets) => this.categories = facets.categories,
+      error: (error) => console.error('Error loading categories', error)
+    });
   }
 
   loadBooks() {
     this.loading = true;
     this.bookService.getAllBooks(this.currentPage, this.pageSize).subscribe({
-      next: (response: PageResponse<Book>) => {
+      next: (response: PageResponse<BookSummary>) => {
         this.books = response.content;
         this.totalPages = response.totalPages;
         this.loading = false;
+        this.reload = () => this.loadBooks();
+        this.watchShownBooks();
       },
       error: (error) => {
         console.error('Error loading books', error);
@@ -120,11 +134,13 @@ export class BooksComponent implements OnInit {
     if (this.searchQuery.trim()) {
       this.loading = true;
       this.bookService.searchBooks(this.searchQuery, 0, this.pageSize).subscribe({
-        next: (response: PageResponse<Book>) => {
+        next: (response: PageResponse<BookSummary>) => {
           this.books = response.content;
           this.totalPages = response.totalPages;
           this.currentPage = 0;
           this.loading = false;
+          this.reload = () => this.search();
+          this.watchShownBooks();
         },
         error: (error) => {
           console.error('Error searching books', error);
@@ -141,11 +157,13 @@ export class BooksComponent implements OnInit {
     if (this.selectedCategory) {
       this.loading = true;
       this.bookService.getBooksByCategory(this.selectedCategory, 0, this.pageSize).subscribe({
-        next: (response: PageResponse<Book>) => {
+        next: (response: PageResponse<BookSummary>) => {
           this.books = response.content;
           this.totalPages = response.totalPages;
           this.currentPage = 0;
           this.loading = false;
+          this.reload = () => this.filterByCategory();
+          this.watchShownBooks();
         },
         error: (error) => {
           console.error('Error filtering books', error);
@@ -158,6 +176,33 @@ export class BooksComponent implements OnInit {
     }
   }
 
+  // Keeps the shown prices and stock current without polling; one stream per page, for its books only
+  private watchShownBooks() {
+    this.changes?.unsubscribe();
+    if (this.books.length === 0) {
+      return;
+    }
+    this.changes = this.bookService.watchChanges(this.books.map(book => book.id))
+      .subscribe(change => this.applyChange(change));
+  }
+
+  private applyChange(change: BookChange) {
+    if (change.type === 'resync') {
+      this.reload();
+      return;
+    }
+    const index = this.books.findIndex(book => book.id === change.id);
+    if (index < 0) {
+      return;
+    }
+    if (change.type === 'deleted') {
+      this.books = this.books.filter(book => book.id !== change.id);
+      return;
+    }
+    const { type, ...fields } = change;
+    this.books[index] = { ...this.books[index], ...fields };
+  }
+
   nextPage() {
     if (this.currentPage < this.totalPages - 1) {
       this.currentPage++;
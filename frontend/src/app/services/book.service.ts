@@ -2,7 +2,7 @@ import { Injectable } from '@angular/core';
 import { HttpClient, HttpParams } from '@angular/common/http';
 import { Observable } from 'rxjs';
 import { environment } from '@environments/environment';
-import { Book, PageResponse } from '../models/models';
+import { Book, BookChange, BookSummary, CursorPage, Facets, PageResponse } from '../models/models';
 
 @Injectable({
   providedIn: 'root'
@@ -16,35 +16,72 @@ export class BookService {
     return this.http.get<Book>(`${this.apiUrl}/${id}`);
   }
 
-  getAllBooks(page: number = 0, size: number = 10, sortBy: string = 'id', direction: string = 'ASC'): Observable<PageResponse<Book>> {
+  getAllBooks(page: number = 0, size: number = 10, sortBy: string = 'id', direction: string = 'ASC'): Observable<PageResponse<BookSummary>> {
     const params = new HttpParams()
       .set('page', page.toString())
       .set('size', size.toString())
       .set('sortBy', sortBy)
       .set('direction', direction);
-    return this.http.get<PageResponse<Book>>(this.apiUrl, { params });
+    return this.http.get<PageResponse<BookSummary>>(this.apiUrl, { params });
   }
 
-  searchBooks(query: string, page: number = 0, size: number = 10): Observable<PageResponse<Book>> {
-    const params = new HttpParams()
+  scrollAllBooks(after?: string, size: number = 10): Observable<CursorPage<BookSummary>> {
+    let params = new HttpParams().set('size', size.toString());
+    if (after) {
+      params = params.set('after', after);
+    }
+    return this.http.get<CursorPage<BookSummary>>(`${this.apiUrl}/scroll`, { params });
+  }
+
+  searchBooks(query: string, page: number = 0, size: number = 10, sort?: 'relevance'): Observable<PageResponse<BookSummary>> {
+    let params = new HttpParams()
       .set('query', query)
       .set('page', page.toString())
       .set('size', size.toString());
-    return this.http.get<PageResponse<Book>>(`${this.apiUrl}/search`, { params });
+    if (sort) {
+      params = params.set('sort', sort);
+    }
+    return this.http.get<PageResponse<BookSummary>>(`${this.apiUrl}/search`, { params });
+  }
+
+  /**
+   * Live changes to the given books (server-sent events). A 'resync' change means some were missed,
+   * including while the browser reconnected, and what is shown should be reloaded.
+   */
+  watchChanges(ids: number[]): Observable<BookChange> {
+    return new Observable<BookChange>(subscriber => {
+      const params = ids.map(id => `ids=${id}`).join('&');
+      const source = new EventSource(`${this.apiUrl}/changes?${params}`);
+      let reconnecting = false;
+      source.addEventListener('book', event => subscriber.next(JSON.parse((event as MessageEvent).data)));
+      source.addEventListener('resync', () => subscriber.next({ type: 'resync' }));
+      source.onerror = () => reconnecting = true;
+      source.onopen = () => {
+        if (reconnecting) {
+          reconnecting = false;
+          subscriber.next({ type: 'resync' });
+        }
+      };
+      return () => source.close();
+    });
+  }
+
+  getFacets(): Observable<Facets> {
+    return this.http.get<Facets>(`${this.apiUrl}/facets`);
   }
 
-  getBooksByCategory(category: string, page: number = 0, size: number = 10): Observable<PageResponse<Book>> {
+  getBooksByCategory(category: string, page: number = 0, size: number = 10): Observable<PageResponse<BookSummary>> {
     const params = new HttpParams()
       .set('page', page.toString())
       .set('size', size.toString());
-    return this.http.get<PageResponse<Book>>(`${this.apiUrl}/category/${category}`, { params });
+    return this.http.get<PageResponse<BookSummary>>(`${this.apiUrl}/category/${category}`, { params });
   }
 
-  getAvailableBooks(page: number = 0, size: number = 10): Observable<PageResponse<Book>> {
+  getAvailableBooks(page: number = 0, size: number = 10): Observable<PageResponse<BookSummary>> {
     const params = new HttpParams()
       .set('page', page.toString())
       .set('size', size.toString());
-    return this.http.get<PageResponse<Book>>(`${this.apiUrl}/available`, { params });
+    return this.http.get<PageResponse<BookSummary>>(`${this.apiUrl}/available`, { params });
   }
 
   createBook(book: Book): Observable<Book> {